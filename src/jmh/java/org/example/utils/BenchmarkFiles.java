@@ -0,0 +1,102 @@
+package org.example.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Creates the test files used by the benchmarks and controls the page cache.
+ */
+final class BenchmarkFiles {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final Path DROP_CACHES = Paths.get("/proc/sys/vm/drop_caches");
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    private BenchmarkFiles() {
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Creates a temporary file filled with random data.
+     *
+     * The file is created inside the directory given by the system property 'benchmark.dir' if set, so that the
+     * benchmarks can be run against a certain device.
+     *
+     * @param size the size like '1KB', '64MB' or '4GB'
+     * @return the created file
+     * @throws IOException if the file cannot be written
+     */
+    static Path createRandomFile(String size) throws IOException {
+        String dir = System.getProperty("benchmark.dir", System.getProperty("java.io.tmpdir"));
+        Path file = Files.createTempFile(Paths.get(dir), "checksum-benchmark-", ".bin");
+
+        // write block by block, so that even files of several GB need little memory
+        long remaining = parseSize(size);
+        byte[] block = new byte[1024 * 1024];
+        Random random = new Random(42);
+
+        try (OutputStream out = Files.newOutputStream(file)) {
+            while (remaining > 0) {
+                random.nextBytes(block);
+                int length = (int) Math.min(block.length, remaining);
+                out.write(block, 0, length);
+                remaining -= length;
+            }
+        }
+
+        return file;
+    }
+
+    /**
+     * Evicts all files from the OS page cache, so that the next read has to access the device.
+     *
+     * Only supported on Linux when running as root.
+     *
+     * @throws IOException if the page cache cannot be dropped
+     */
+    static void dropPageCache() throws IOException, InterruptedException {
+        if (!Files.isWritable(DROP_CACHES)) {
+            throw new IOException("Cold runs require write access to " + DROP_CACHES + ", run as root on Linux");
+        }
+
+        // write dirty pages first since only clean pages can be dropped
+        new ProcessBuilder("sync").inheritIO().start().waitFor();
+        Files.writeString(DROP_CACHES, "1");
+    }
+
+    /**
+     * Parses a size like '1KB', '64MB' or '4GB'.
+     *
+     * @param size the size with unit
+     * @return the size in bytes
+     */
+    static long parseSize(String size) {
+        String upper = size.trim().toUpperCase(Locale.ROOT);
+        long factor = 1;
+
+        if (upper.endsWith("KB")) {
+            factor = 1024L;
+        } else if (upper.endsWith("MB")) {
+            factor = 1024L * 1024;
+        } else if (upper.endsWith("GB")) {
+            factor = 1024L * 1024 * 1024;
+        }
+
+        String number = factor == 1 ? upper.replace("B", "") : upper.substring(0, upper.length() - 2);
+        return Long.parseLong(number) * factor;
+    }
+}
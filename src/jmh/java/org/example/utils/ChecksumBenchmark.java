@@ -0,0 +1,80 @@
+package org.example.utils;
+
+import org.example.model.Checksum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ChecksumComputer#getChecksum(File)} for each algorithm and file size with a warm page cache.
+ *
+ * Files of several GB can be measured by '-p fileSize=4GB'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChecksumBenchmark {
+
+    /*==================================================*
+     *==                 PARAMETERS                   ==*
+     *==================================================*/
+
+    @Param({ "MD5", "SHA1", "SHA256", "SHA512", "CRC32C", "XXH64", "BLAKE3" })
+    public Checksum checksum;
+
+    @Param({ "1KB", "1MB", "256MB" })
+    public String fileSize;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private Path path;
+    private File file;
+    private ChecksumComputer comp;
+
+    /*==================================================*
+     *==                   SETUP                      ==*
+     *==================================================*/
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        path = BenchmarkFiles.createRandomFile(fileSize);
+        file = path.toFile();
+        comp = new ChecksumComputer(checksum);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    /*==================================================*
+     *==                 BENCHMARKS                   ==*
+     *==================================================*/
+
+    @Benchmark
+    public Optional<String> getChecksum() {
+        return comp.getChecksum(file);
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.utils;
+
+import org.example.model.Checksum;
+import org.example.model.ReadStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares hashing with a cold and a warm page cache, each invocation reads the whole file once.
+ *
+ * {@link ReadStrategy#DIRECT} bypasses the page cache in both cases, so its results show the throughput given up for
+ * not evicting the cached data of other processes.
+ *
+ * Cold runs drop the page cache before each invocation, which requires root on Linux. Use '-Dbenchmark.dir=...' to
+ * place the test file on the device to measure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ColdReadBenchmark {
+
+    /*==================================================*
+     *==                 PARAMETERS                   ==*
+     *==================================================*/
+
+    @Param({ "WARM", "COLD" })
+    public String pageCache;
+
+    @Param({ "BUFFERED", "MAPPED", "DIRECT" })
+    public ReadStrategy strategy;
+
+    @Param({ "256MB" })
+    public String fileSize;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private Path path;
+    private File file;
+    private ChecksumComputer comp;
+
+    /*==================================================*
+     *==                   SETUP                      ==*
+     *==================================================*/
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        path = BenchmarkFiles.createRandomFile(fileSize);
+        file = path.toFile();
+        comp = new ChecksumComputer(Checksum.SHA256, strategy);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareCache() throws IOException, InterruptedException {
+        if ("COLD".equals(pageCache)) {
+            BenchmarkFiles.dropPageCache();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    /*==================================================*
+     *==                 BENCHMARKS                   ==*
+     *==================================================*/
+
+    @Benchmark
+    public Optional<String> getChecksum() {
+        return comp.getChecksum(file);
+    }
+}
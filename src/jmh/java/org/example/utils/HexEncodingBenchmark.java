@@ -0,0 +1,63 @@
+package org.example.utils;
+
+import org.example.model.Checksum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversion of checksums to hexadecimal strings, run with '-prof gc' to see the allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HexEncodingBenchmark {
+
+    /*==================================================*
+     *==                 PARAMETERS                   ==*
+     *==================================================*/
+
+    @Param({ "MD5", "SHA1", "SHA256", "SHA512" })
+    public Checksum checksum;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private byte[] hash;
+    private ChecksumComputer comp;
+
+    /*==================================================*
+     *==                   SETUP                      ==*
+     *==================================================*/
+
+    @Setup
+    public void setUp() {
+        hash = new byte[checksum.getDigestLength()];
+        new Random(42).nextBytes(hash);
+        comp = new ChecksumComputer(checksum);
+    }
+
+    /*==================================================*
+     *==                 BENCHMARKS                   ==*
+     *==================================================*/
+
+    @Benchmark
+    public String convertByteArrayToHexString() {
+        return comp.convertByteArrayToHexString(hash);
+    }
+}
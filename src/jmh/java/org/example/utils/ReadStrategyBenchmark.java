@@ -0,0 +1,109 @@
+package org.example.utils;
+
+import org.example.model.Checksum;
+import org.example.model.ReadStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link ChannelReader} per read strategy and buffer size, both alone and together with a digest.
+ *
+ * The page cache is warm, see {@link ColdReadBenchmark} for reads from the device. {@link ReadStrategy#DIRECT} always
+ * reads from the device, which shows the cost of bypassing a warm page cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadStrategyBenchmark {
+
+    /*==================================================*
+     *==                 PARAMETERS                   ==*
+     *==================================================*/
+
+    @Param({ "BUFFERED", "MAPPED", "DIRECT" })
+    public ReadStrategy strategy;
+
+    @Param({ "4096", "131072", "1048576" })
+    public int bufferSize;
+
+    @Param({ "1MB", "256MB" })
+    public String fileSize;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private Path path;
+    private File file;
+    private ChannelReader reader;
+    private MessageDigest digest;
+
+    /*==================================================*
+     *==                   SETUP                      ==*
+     *==================================================*/
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, NoSuchAlgorithmException {
+        path = BenchmarkFiles.createRandomFile(fileSize);
+        file = path.toFile();
+        reader = new ChannelReader(strategy, bufferSize);
+        digest = MessageDigest.getInstance(Checksum.SHA256.getAlgorithm());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    /*==================================================*
+     *==                 BENCHMARKS                   ==*
+     *==================================================*/
+
+    /**
+     * Reads the file without hashing, touching each page so that mapped memory is actually loaded.
+     */
+    @Benchmark
+    public void readOnly(Blackhole blackhole) throws IOException {
+        reader.read(file, block -> {
+            long sum = 0;
+            for (int i = block.position(); i < block.limit(); i += 4096) {
+                sum += block.get(i);
+            }
+            block.position(block.limit());
+            blackhole.consume(sum);
+        });
+    }
+
+    /**
+     * Reads the file and hashes it with SHA-256.
+     */
+    @Benchmark
+    public byte[] readAndDigest() throws IOException {
+        reader.read(file, (ByteBuffer block) -> digest.update(block));
+        return digest.digest();
+    }
+}
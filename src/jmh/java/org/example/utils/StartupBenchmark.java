@@ -0,0 +1,142 @@
+package org.example.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the wall time of a one-off verification from process start to exit through the 'Start' entry point, so
+ * that startup regressions show up next to the hashing benchmarks.
+ *
+ * Each invocation starts the JAR built by 'mvn package' in a new JVM. {@code APPCDS} runs with a dynamic AppCDS
+ * archive created by a training run like the one of the 'appcds' profile. Use '-Dstartup.jar=...' to measure another
+ * JAR.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+
+    /*==================================================*
+     *==                 PARAMETERS                   ==*
+     *==================================================*/
+
+    @Param({ "DEFAULT", "APPCDS" })
+    public String classSharing;
+
+    @Param({ "help", "compute" })
+    public String command;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private Path file;
+    private Path archive;
+    private List<String> commandLine;
+
+    /*==================================================*
+     *==                   SETUP                      ==*
+     *==================================================*/
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        Path jar = Path.of(System.getProperty("startup.jar", "target/ChecksumVerifier.jar"));
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("JAR not found, run 'mvn package' first: " + jar.toAbsolutePath());
+        }
+        file = BenchmarkFiles.createRandomFile("1KB");
+
+        // train the archive with all algorithms, like the 'appcds' profile does
+        if ("APPCDS".equals(classSharing)) {
+            archive = Files.createTempFile("startup", ".jsa");
+            Files.delete(archive);
+            run(javaCommand("-XX:ArchiveClassesAtExit=" + archive, jar.toString(),
+                    "compute", "-a", "MD5,SHA1,SHA256,SHA512,CRC32C,XXH64,BLAKE3", file.toString()));
+        }
+
+        String sharedArchive = archive != null ? "-XX:SharedArchiveFile=" + archive : "-Xshare:auto";
+        commandLine = "help".equals(command)
+                ? javaCommand(sharedArchive, jar.toString(), "help")
+                : javaCommand(sharedArchive, jar.toString(), "compute", file.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        if (archive != null) {
+            Files.deleteIfExists(archive);
+        }
+    }
+
+    /*==================================================*
+     *==                 BENCHMARKS                   ==*
+     *==================================================*/
+
+    @Benchmark
+    public int start() throws IOException, InterruptedException {
+        return run(commandLine);
+    }
+
+    /*==================================================*
+     *==                   HELPERS                    ==*
+     *==================================================*/
+
+    /**
+     * Builds the command line starting the JAR with the JVM running the benchmark.
+     *
+     * @param option the JVM option for class data sharing
+     * @param jar the JAR to start
+     * @param args the arguments of the application
+     * @return the command line
+     */
+    private static List<String> javaCommand(String option, String jar, String... args) {
+        List<String> result = new ArrayList<>();
+        result.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        result.add(option);
+        result.add("-jar");
+        result.add(jar);
+        result.addAll(List.of(args));
+        return result;
+    }
+
+    /**
+     * Runs the given command line until its process exits.
+     *
+     * @param commandLine the command line
+     * @return the exit code, which is always 0
+     * @throws IOException if the process cannot be started
+     * @throws InterruptedException if interrupted while waiting for the process
+     */
+    private static int run(List<String> commandLine) throws IOException, InterruptedException {
+        int exitCode = new ProcessBuilder(commandLine)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start()
+                .waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("Exit code " + exitCode + " of " + String.join(" ", commandLine));
+        }
+        return exitCode;
+    }
+}
@@ -37,7 +37,7 @@ public class App extends Application {
         initIcons(stage);
 
         // create scene
-        Scene scene = new Scene(loadFXML("pane"), 400, 400);
+        Scene scene = new Scene(loadFXML("pane"), 400, 520);
         stage.setScene(scene);
         stage.setTitle("ChecksumVerifier");
 
@@ -1,9 +1,22 @@
 package org.example;
 
+import org.example.cli.CommandLineApp;
+
 public class Start {
     // use separate starter class that does not inherit from javafx.application.Application
     // for working properly with maven package
     public static void main(String[] args) {
+
+        // run headless without loading JavaFX if a command is given, else start the GUI
+        if (CommandLineApp.isCommand(args)) {
+            CommandLineApp.main(args);
+        } else {
+            launchGui(args);
+        }
+    }
+
+    // separate method so that the JavaFX classes are only loaded when starting the GUI
+    private static void launchGui(String[] args) {
         App.launch(App.class, args);
     }
 }
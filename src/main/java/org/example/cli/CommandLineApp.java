@@ -0,0 +1,1038 @@
+package org.example.cli;
+
+import org.example.model.Checksum;
+import org.example.model.DuplicateGroup;
+import org.example.model.ReadStrategy;
+import org.example.model.VerificationResult;
+import org.example.model.VerificationStatus;
+import org.example.model.VerificationSummary;
+import org.example.utils.ArchiveVerifier;
+import org.example.utils.BatchVerifier;
+import org.example.utils.ChannelReader;
+import org.example.utils.ChecksumComputer;
+import org.example.utils.DigestingChannel;
+import org.example.utils.DirectoryDigest;
+import org.example.utils.DuplicateFinder;
+import org.example.utils.FolderWatcher;
+import org.example.utils.HashCache;
+import org.example.utils.IoScheduler;
+import org.example.utils.ResumableHashJob;
+import org.example.utils.TreeHashComputer;
+import org.example.utils.engine.HashEngines;
+import org.example.utils.metrics.HashMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Headless command line mode which computes and verifies checksums without loading JavaFX.
+ *
+ * Results are printed as plain text in the style of 'sha256sum' or as JSON lines, the outcome is reported through
+ * the exit code.
+ */
+public class CommandLineApp {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_MISMATCH = 1;
+    public static final int EXIT_UNREADABLE = 2;
+    public static final int EXIT_USAGE = 64;
+
+    private static final Duration METRICS_LOG_INTERVAL = Duration.ofSeconds(10);
+
+    /**
+     * The file argument reading from stdin instead of a file.
+     */
+    private static final String STDIN = "-";
+
+    private static final Set<String> COMMANDS = Set.of("compute", "verify", "check", "digest", "dupes", "watch", "serve", "help", "--help", "-h");
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: ChecksumVerifier <command> [options] <arguments>",
+            "",
+            "Commands:",
+            "  compute <file>...               print the checksums of the files, '-' reads stdin",
+            "  verify <file> <checksum>        compare the checksum of the file or stdin with the given one",
+            "  check <manifest|directory>      verify all entries of a manifest like SHA256SUMS or all",
+            "                                  files of a directory having sidecar files like file.sha256",
+            "  digest <directory>              print one digest of the whole directory tree, which does not",
+            "                                  depend on the file system or the number of jobs",
+            "  dupes <directory>...            print groups of files with identical content and the bytes",
+            "                                  reclaimable by removing the duplicates",
+            "  watch <directory> [manifest]    verify files arriving in the directory with their sidecar files",
+            "                                  or manifest entries until stopped",
+            "  serve [port]                    answer hash and verify requests over HTTP on the loopback address",
+            "                                  until stopped (default port: " + HashServer.DEFAULT_PORT + ")",
+            "  help                            print this help",
+            "",
+            "Options:",
+            "  -a, --algorithm <alg>[,<alg>]   MD5, SHA1, SHA256, SHA512, CRC32C, XXH64 or BLAKE3",
+            "                                  (default: SHA256), or for 'compute' and 'verify' of whole files",
+            "                                  one other algorithm of the JDK or a registered hash engine",
+            "  -j, --jobs <n>                  number of files read at the same time by 'check', 'digest' and",
+            "                                  'dupes', per solid-state drive for 'check' and 'dupes'",
+            "  --hdd-jobs <n>                  number of files read at the same time per rotational disk or",
+            "                                  network volume by 'check' and 'dupes' (default: 1)",
+            "  --json                          print JSON lines instead of plain text",
+            "  --cache                         reuse checksums of unchanged files from the hash cache",
+            "  --direct                        read with direct I/O bypassing the page cache, so that verifying",
+            "                                  cold data does not evict the cached data of other processes",
+            "  --checkpoint <file>             save the progress of 'compute' with SHA256 or SHA512 to the file",
+            "                                  and continue from it after an interruption or for appended data",
+            "  --metrics <file>                log metrics every 10 s, expose them via JMX and write them in the",
+            "                                  Prometheus text format to the file at the end, '-' for stderr",
+            "  --manifest <file>               write the checksums of all files to the file while running 'digest'",
+            "  --archive <file>                let 'check' verify the manifest against the entries of the ZIP, JAR",
+            "                                  or TAR archive without extracting it",
+            "  --permissions                   include the permissions of all entries in the digest",
+            "  --symlinks                      include the targets of symbolic links in the digest instead of",
+            "                                  following links to files",
+            "  --range <offset>:<length>       let 'compute' and 'verify' hash only the given range of each file,",
+            "                                  e.g. 0:512M, with the same result as a file of that content",
+            "  --tree <size>                   compute and verify parallel tree hashes with chunks of the size,",
+            "                                  e.g. 4M, which differ from the regular checksums",
+            "                                  --checkpoint, --range and --tree exclude each other and need files",
+            "",
+            "Exit codes: 0 success, 1 checksum mismatch, skipped manifest lines or nothing verified, 2 missing or",
+            "            unreadable file, 64 invalid usage",
+            "Without a command the graphical user interface is started.");
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final InputStream in;
+    private final PrintStream out;
+    private final PrintStream err;
+
+    private Set<Checksum> checksums = EnumSet.of(Checksum.SHA256);
+
+    /**
+     * The name of an algorithm which is not built in but provided by {@link HashEngines}, or null.
+     */
+    private String engine;
+    private int jobs = BatchVerifier.DEFAULT_CONCURRENCY;
+    private int hddJobs = IoScheduler.DEFAULT_HDD_CONCURRENCY;
+    private boolean json;
+    private HashCache cache;
+    private ReadStrategy readStrategy = ReadStrategy.AUTO;
+    private int treeChunkSize;
+    private long rangeOffset = -1;
+    private long rangeLength;
+    private Path checkpointFile;
+    private String metricsFile;
+    private Path manifestFile;
+    private Path archiveFile;
+    private boolean includePermissions;
+    private boolean includeSymlinkTargets;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    public CommandLineApp(PrintStream out, PrintStream err) {
+        this(System.in, out, err);
+    }
+
+    public CommandLineApp(InputStream in, PrintStream out, PrintStream err) {
+        this.in = in;
+        this.out = out;
+        this.err = err;
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Checks whether the given program arguments select the command line mode instead of the GUI.
+     *
+     * @param args the program arguments
+     * @return true if the first argument is a command, else false
+     */
+    public static boolean isCommand(String[] args) {
+        return args.length > 0 && COMMANDS.contains(args[0]);
+    }
+
+    /**
+     * Runs the command given by the program arguments and exits with its exit code.
+     *
+     * This is the entry point of the native image, which must not reach any JavaFX class.
+     *
+     * @param args the program arguments
+     */
+    public static void main(String[] args) {
+        System.exit(new CommandLineApp(System.out, System.err).run(args));
+    }
+
+    /**
+     * Runs the command given by the program arguments.
+     *
+     * @param args the program arguments starting with the command
+     * @return the exit code
+     */
+    public int run(String[] args) {
+
+        // split options from the actual arguments
+        List<String> arguments = new ArrayList<>();
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-a":
+                    case "--algorithm":
+                        String algorithms = requireValue(args, ++i);
+                        try {
+                            checksums = parseChecksums(algorithms);
+                            engine = null;
+                        } catch (IllegalArgumentException e) {
+
+                            // other engines are resolved by name, but only one at once
+                            if (algorithms.contains(",") || HashEngines.find(algorithms.trim()).isEmpty()) {
+                                throw e;
+                            }
+                            engine = algorithms.trim();
+                        }
+                        break;
+                    case "-j":
+                    case "--jobs":
+                        jobs = Integer.parseInt(requireValue(args, ++i));
+                        if (jobs <= 0) {
+                            throw new IllegalArgumentException("Number of jobs must be positive");
+                        }
+                        break;
+                    case "--hdd-jobs":
+                        hddJobs = Integer.parseInt(requireValue(args, ++i));
+                        if (hddJobs <= 0) {
+                            throw new IllegalArgumentException("Number of jobs must be positive");
+                        }
+                        break;
+                    case "--json":
+                        json = true;
+                        break;
+                    case "--cache":
+                        cache = HashCache.openDefault();
+                        break;
+                    case "--direct":
+                        readStrategy = ReadStrategy.DIRECT;
+                        break;
+                    case "--metrics":
+                        metricsFile = requireValue(args, ++i);
+                        break;
+                    case "--checkpoint":
+                        checkpointFile = Path.of(requireValue(args, ++i));
+                        break;
+                    case "--manifest":
+                        manifestFile = Path.of(requireValue(args, ++i));
+                        break;
+                    case "--archive":
+                        archiveFile = Path.of(requireValue(args, ++i));
+                        break;
+                    case "--permissions":
+                        includePermissions = true;
+                        break;
+                    case "--symlinks":
+                        includeSymlinkTargets = true;
+                        break;
+                    case "--range":
+                        String[] range = requireValue(args, ++i).split(":", 2);
+                        if (range.length != 2) {
+                            throw new IllegalArgumentException("Expected a range like 0:512M: " + args[i]);
+                        }
+                        rangeOffset = parseLongSize(range[0]);
+                        rangeLength = parseLongSize(range[1]);
+                        break;
+                    case "--tree":
+                        treeChunkSize = parseSize(requireValue(args, ++i));
+                        break;
+                    default:
+                        arguments.add(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return usageError(e.getMessage());
+        }
+
+        // other engines are only supported for hashing whole files
+        if (engine != null && (!args[0].equals("compute") && !args[0].equals("verify")
+                || checkpointFile != null || treeChunkSize > 0 || rangeOffset >= 0 || arguments.contains(STDIN))) {
+            return usageError("Algorithm " + engine + " is only supported by 'compute' and 'verify' of whole files");
+        }
+
+        // checkpoints, tree hashes and ranges exclude each other and need files, which can be read more than once
+        int modes = (checkpointFile != null ? 1 : 0) + (treeChunkSize > 0 ? 1 : 0) + (rangeOffset >= 0 ? 1 : 0);
+        if (modes > 1) {
+            return usageError("Only one of --checkpoint, --tree and --range can be used at once");
+        }
+        if (modes > 0 && arguments.contains(STDIN)) {
+            return usageError("--checkpoint, --tree and --range cannot be used with the standard input");
+        }
+
+        // make the progress of long runs visible
+        HashMetrics.Logging metricsLogging = null;
+        if (metricsFile != null) {
+            HashMetrics.global().registerMBean();
+            metricsLogging = HashMetrics.global().startLogging(METRICS_LOG_INTERVAL);
+        }
+
+        // run the command
+        int exitCode;
+        switch (args[0]) {
+            case "compute":
+                exitCode = arguments.isEmpty() ? usageError("No file given")
+                        : engine != null ? computeWithEngine(arguments)
+                        : checkpointFile != null ? computeResumable(arguments)
+                        : treeChunkSize > 0 ? computeTree(arguments) : compute(arguments);
+                break;
+            case "verify":
+                exitCode = arguments.size() != 2 || checksums.size() != 1
+                        ? usageError("Expected one algorithm, a file and a checksum")
+                        : engine != null ? verifyWithEngine(new File(arguments.get(0)), arguments.get(1).trim())
+                        : verify(new File(arguments.get(0)), arguments.get(1).trim());
+                break;
+            case "check":
+                exitCode = arguments.size() != 1 ? usageError("Expected a manifest or directory") : check(Path.of(arguments.get(0)));
+                break;
+            case "digest":
+                exitCode = arguments.size() != 1 || checksums.size() != 1
+                        ? usageError("Expected one algorithm and a directory")
+                        : digest(Path.of(arguments.get(0)));
+                break;
+            case "dupes":
+                exitCode = arguments.isEmpty() || checksums.size() != 1
+                        ? usageError("Expected one algorithm and at least one directory")
+                        : dupes(arguments);
+                break;
+            case "watch":
+                exitCode = arguments.isEmpty() || arguments.size() > 2
+                        ? usageError("Expected a directory and an optional manifest")
+                        : watch(Path.of(arguments.get(0)), arguments.size() == 2 ? Path.of(arguments.get(1)) : null);
+                break;
+            case "serve":
+                exitCode = arguments.size() > 1 || !arguments.stream().allMatch(port -> port.matches("\\d{1,5}"))
+                        ? usageError("Expected an optional port")
+                        : serve(arguments.isEmpty() ? HashServer.DEFAULT_PORT : Integer.parseInt(arguments.get(0)));
+                break;
+            default:
+                out.println(USAGE);
+                exitCode = EXIT_OK;
+        }
+
+        // keep the computed checksums for the next run
+        saveCache();
+        if (metricsLogging != null) {
+            metricsLogging.close();
+            writeMetrics();
+        }
+        return exitCode;
+    }
+
+    /*==================================================*
+     *==                  COMMANDS                    ==*
+     *==================================================*/
+
+    /**
+     * Prints the checksums of the given files, each file is read only once for all algorithms.
+     *
+     * @param files the paths of the files
+     * @return the exit code
+     */
+    private int compute(List<String> files) {
+        int exitCode = EXIT_OK;
+        ChecksumComputer comp = createComputer(checksums.iterator().next());
+
+        for (String path : files) {
+            File file = new File(path);
+            Optional<EnumMap<Checksum, String>> result = STDIN.equals(path)
+                    ? computeStream(Channels.newChannel(in))
+                    : rangeOffset >= 0 ? computeRange(file)
+                    : comp.getChecksums(file, checksums);
+
+            if (result.isEmpty()) {
+                printError(path, STDIN.equals(path) || file.exists() ? VerificationStatus.UNREADABLE : VerificationStatus.MISSING);
+                exitCode = EXIT_UNREADABLE;
+            } else if (json) {
+                StringBuilder values = new StringBuilder();
+                for (Map.Entry<Checksum, String> entry : result.get().entrySet()) {
+                    values.append(values.length() == 0 ? "" : ",")
+                            .append(quote(entry.getKey().name())).append(":").append(quote(entry.getValue()));
+                }
+                out.println("{\"file\":" + quote(path) + ",\"checksums\":{" + values + "}}");
+            } else {
+                for (Map.Entry<Checksum, String> entry : result.get().entrySet()) {
+                    String prefix = checksums.size() > 1 ? entry.getKey().name() + " " : "";
+                    out.println(prefix + entry.getValue() + "  " + path);
+                }
+            }
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Prints the checksums of the given files computed by the engine selected by name.
+     *
+     * @param files the paths of the files
+     * @return the exit code
+     */
+    private int computeWithEngine(List<String> files) {
+        int exitCode = EXIT_OK;
+        ChecksumComputer comp = createComputer(checksums.iterator().next());
+
+        for (String path : files) {
+            File file = new File(path);
+            Optional<String> result = comp.getChecksum(file, engine);
+
+            if (result.isEmpty()) {
+                printError(path, file.exists() ? VerificationStatus.UNREADABLE : VerificationStatus.MISSING);
+                exitCode = EXIT_UNREADABLE;
+            } else if (json) {
+                out.println("{\"file\":" + quote(path) + ",\"checksums\":{" + quote(engine) + ":" + quote(result.get()) + "}}");
+            } else {
+                out.println(result.get() + "  " + path);
+            }
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Prints the tree hashes of the given files, each file is hashed by all cores.
+     *
+     * @param files the paths of the files
+     * @return the exit code
+     */
+    private int computeTree(List<String> files) {
+        int exitCode = EXIT_OK;
+
+        for (String path : files) {
+            File file = new File(path);
+            for (Checksum checksum : checksums) {
+                TreeHashComputer comp = new TreeHashComputer(checksum, treeChunkSize);
+                Optional<String> result = comp.getTreeHash(file);
+
+                if (result.isEmpty()) {
+                    printError(path, file.exists() ? VerificationStatus.UNREADABLE : VerificationStatus.MISSING);
+                    exitCode = EXIT_UNREADABLE;
+                    break;
+                } else if (json) {
+                    out.println("{\"file\":" + quote(path) + ",\"checksums\":{"
+                            + quote(comp.getName()) + ":" + quote(result.get()) + "}}");
+                } else {
+                    // always name the layout, so that tree hashes are not mistaken for regular checksums
+                    out.println(comp.getName() + " " + result.get() + "  " + path);
+                }
+            }
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Prints the checksum of a single file while saving checkpoints, continuing from the last one if possible.
+     *
+     * @param files the path of the file
+     * @return the exit code
+     */
+    private int computeResumable(List<String> files) {
+        if (files.size() != 1 || checksums.size() != 1) {
+            return usageError("Expected one algorithm and one file for a checkpoint");
+        }
+
+        Checksum checksum = checksums.iterator().next();
+        ResumableHashJob job;
+        try {
+            job = new ResumableHashJob(checksum, checkpointFile);
+        } catch (IllegalArgumentException e) {
+            return usageError(e.getMessage());
+        }
+
+        String path = files.get(0);
+        File file = new File(path);
+        Optional<String> result = job.run(file);
+
+        if (result.isEmpty()) {
+            printError(path, file.exists() ? VerificationStatus.UNREADABLE : VerificationStatus.MISSING);
+            return EXIT_UNREADABLE;
+        } else if (json) {
+            out.println("{\"file\":" + quote(path) + ",\"checksums\":{" + quote(checksum.name()) + ":"
+                    + quote(result.get()) + "},\"resumedOffset\":" + job.getResumedOffset() + "}");
+        } else {
+            out.println(result.get() + "  " + path);
+        }
+        return EXIT_OK;
+    }
+
+    /**
+     * Compares the checksum of the given file with the given one.
+     *
+     * @param file the file to verify
+     * @param expected the expected checksum
+     * @return the exit code
+     */
+    private int verify(File file, String expected) {
+        Checksum checksum = checksums.iterator().next();
+
+        // determine the status like the batch verification does
+        VerificationStatus status;
+        if (STDIN.equals(file.getPath())) {
+            Optional<Boolean> identical = createComputer(checksum).verifyChecksum(in, expected);
+            status = identical.isEmpty() ? VerificationStatus.UNREADABLE
+                    : identical.get() ? VerificationStatus.OK : VerificationStatus.MISMATCH;
+        } else if (!file.exists()) {
+            status = VerificationStatus.MISSING;
+        } else {
+            Optional<Boolean> identical = treeChunkSize > 0
+                    ? new TreeHashComputer(checksum, treeChunkSize).verifyTreeHash(file, expected)
+                    : rangeOffset >= 0 ? createComputer(checksum).verifyChecksum(file, rangeOffset, rangeLength, expected)
+                    : createComputer(checksum).verifyChecksum(file, expected);
+            status = identical.isEmpty() ? VerificationStatus.UNREADABLE
+                    : identical.get() ? VerificationStatus.OK : VerificationStatus.MISMATCH;
+        }
+
+        printResult(file.getPath(), checksum, status);
+        return getExitCode(status);
+    }
+
+    /**
+     * Compares the checksum of the given file computed by the engine selected by name with the expected one.
+     *
+     * @param file the file to verify
+     * @param expected the expected checksum
+     * @return the exit code
+     */
+    private int verifyWithEngine(File file, String expected) {
+        VerificationStatus status;
+        if (!file.exists()) {
+            status = VerificationStatus.MISSING;
+        } else {
+            Optional<Boolean> identical = createComputer(checksums.iterator().next()).verifyChecksum(file, engine, expected);
+            status = identical.isEmpty() ? VerificationStatus.UNREADABLE
+                    : identical.get() ? VerificationStatus.OK : VerificationStatus.MISMATCH;
+        }
+
+        printResult(file.getPath(), engine, status);
+        return getExitCode(status);
+    }
+
+    /**
+     * Verifies all entries of a manifest or all files of a directory having sidecar files.
+     *
+     * @param target the manifest or directory
+     * @return the exit code
+     */
+    private int check(Path target) {
+        BatchVerifier verifier = new BatchVerifier(jobs, hddJobs);
+        verifier.setHashCache(cache);
+        verifier.setReadStrategy(readStrategy);
+
+        try {
+            // print each result as soon as available
+            VerificationSummary summary = archiveFile != null
+                    ? new ArchiveVerifier(jobs).verify(archiveFile, target, this::printResult)
+                    : Files.isDirectory(target)
+                    ? verifier.verifyDirectory(target, this::printResult)
+                    : verifier.verifyManifest(target, this::printResult);
+
+            // print the summary
+            if (json) {
+                out.println("{\"summary\":{\"ok\":" + summary.getCount(VerificationStatus.OK)
+                        + ",\"mismatch\":" + summary.getCount(VerificationStatus.MISMATCH)
+                        + ",\"missing\":" + summary.getCount(VerificationStatus.MISSING)
+                        + ",\"unreadable\":" + summary.getCount(VerificationStatus.UNREADABLE)
+                        + ",\"skipped\":" + summary.getSkipped() + "}}");
+            } else if (summary.getTotal() == 0) {
+                err.println("WARNING: no checksum has been verified, " + summary);
+            } else if (!summary.isAllOk()) {
+                err.println("WARNING: " + summary);
+            }
+
+            // the worst status determines the exit code, skipped lines or nothing verified fail like a mismatch
+            if (summary.getCount(VerificationStatus.MISSING) + summary.getCount(VerificationStatus.UNREADABLE) > 0) {
+                return EXIT_UNREADABLE;
+            }
+            return summary.isAllOk() && summary.getTotal() > 0 ? EXIT_OK : EXIT_MISMATCH;
+
+        } catch (IOException e) {
+            err.println(target + ": " + e.getMessage());
+            return EXIT_UNREADABLE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EXIT_UNREADABLE;
+        }
+    }
+
+    /**
+     * Prints the digest of a whole directory tree and optionally writes a manifest of its files at the same time.
+     *
+     * @param directory the root of the tree
+     * @return the exit code
+     */
+    private int digest(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            printError(directory.toString(), VerificationStatus.MISSING);
+            return EXIT_UNREADABLE;
+        }
+
+        Checksum checksum = checksums.iterator().next();
+        DirectoryDigest digest = new DirectoryDigest(checksum, jobs);
+        digest.setHashCache(cache);
+        digest.setReadStrategy(readStrategy);
+        digest.setIncludePermissions(includePermissions);
+        digest.setIncludeSymlinkTargets(includeSymlinkTargets);
+
+        try (Writer manifest = manifestFile == null ? null : Files.newBufferedWriter(manifestFile, StandardCharsets.UTF_8)) {
+            String result = digest.digest(directory, manifest);
+
+            if (json) {
+                out.println("{\"directory\":" + quote(directory.toString()) + ",\"checksums\":{"
+                        + quote(checksum.name()) + ":" + quote(result) + "}}");
+            } else {
+                out.println(result + "  " + directory);
+            }
+            return EXIT_OK;
+
+        } catch (IOException e) {
+            err.println(directory + ": " + e.getMessage());
+            return EXIT_UNREADABLE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EXIT_UNREADABLE;
+        }
+    }
+
+    /**
+     * Prints all groups of files with identical content inside the given directories, largest savings first.
+     *
+     * @param roots the paths of the directories
+     * @return the exit code
+     */
+    private int dupes(List<String> roots) {
+        DuplicateFinder finder = new DuplicateFinder(checksums.iterator().next(), jobs, hddJobs);
+        finder.setHashCache(cache);
+        finder.setReadStrategy(readStrategy);
+
+        List<Path> paths = new ArrayList<>();
+        for (String root : roots) {
+            paths.add(Path.of(root));
+        }
+
+        try {
+            long reclaimable = 0;
+            List<DuplicateGroup> groups = finder.find(paths);
+
+            // print one block per group like 'fdupes' does
+            for (DuplicateGroup group : groups) {
+                reclaimable += group.getReclaimableBytes();
+                if (json) {
+                    StringBuilder files = new StringBuilder();
+                    for (Path file : group.getFiles()) {
+                        files.append(files.length() == 0 ? "" : ",").append(quote(file.toString()));
+                    }
+                    out.println("{\"size\":" + group.getSize() + ",\"checksum\":" + quote(group.getChecksum())
+                            + ",\"reclaimable\":" + group.getReclaimableBytes() + ",\"files\":[" + files + "]}");
+                } else {
+                    for (Path file : group.getFiles()) {
+                        out.println(group.getChecksum() + "  " + file);
+                    }
+                    out.println();
+                }
+            }
+
+            // print the summary
+            if (json) {
+                out.println("{\"summary\":{\"groups\":" + groups.size() + ",\"reclaimable\":" + reclaimable + "}}");
+            } else {
+                out.println(groups.size() + " duplicate groups, " + reclaimable + " bytes reclaimable");
+            }
+            return EXIT_OK;
+
+        } catch (IOException e) {
+            err.println(e.getMessage());
+            return EXIT_UNREADABLE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EXIT_UNREADABLE;
+        }
+    }
+
+    /**
+     * Verifies the files arriving in the given directory until the process is stopped.
+     *
+     * @param directory the directory to watch
+     * @param manifest the manifest providing expected checksums or null
+     * @return the exit code
+     */
+    private int watch(Path directory, Path manifest) {
+        try (FolderWatcher watcher = new FolderWatcher(directory, jobs, FolderWatcher.DEFAULT_QUIET_PERIOD)) {
+            watcher.setHashCache(cache);
+            watcher.setReadStrategy(readStrategy);
+            if (manifest != null) {
+                watcher.setManifest(manifest);
+            }
+
+            // print each result immediately, the output may be redirected into a results file
+            watcher.run(result -> {
+                printResult(result);
+                out.flush();
+            });
+            return EXIT_OK;
+
+        } catch (IOException e) {
+            err.println(directory + ": " + e.getMessage());
+            return EXIT_UNREADABLE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EXIT_OK;
+        }
+    }
+
+    /**
+     * Answers hash and verify requests of local services until the process is stopped.
+     *
+     * @param port the port on the loopback address
+     * @return the exit code
+     */
+    private int serve(int port) {
+        HashServer server;
+        try {
+            server = new HashServer(port, jobs);
+        } catch (IOException | IllegalArgumentException e) {
+            err.println("Cannot listen on port " + port + ": " + e.getMessage());
+            return EXIT_UNREADABLE;
+        }
+        server.setHashCache(cache);
+        server.setReadStrategy(readStrategy);
+        server.start();
+        out.println("Listening on http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+        out.flush();
+
+        // a daemon is stopped by a signal, so the cache must be saved by a shutdown hook
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            saveCache();
+        }));
+
+        try {
+            new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server.close();
+        return EXIT_OK;
+    }
+
+    /*==================================================*
+     *==                   OUTPUT                     ==*
+     *==================================================*/
+
+    /**
+     * Prints the result of a batch verification.
+     *
+     * @param result the result to print
+     */
+    private void printResult(VerificationResult result) {
+        printResult(result.getEntry().getFile().getPath(), result.getEntry().getChecksum(), result.getStatus());
+    }
+
+    /**
+     * Prints the status of a verified file in the style of 'sha256sum --check' or as JSON.
+     *
+     * @param path the path of the file
+     * @param checksum the algorithm used for the verification
+     * @param status the status of the verification
+     */
+    private void printResult(String path, Checksum checksum, VerificationStatus status) {
+        printResult(path, checksum.name(), status);
+    }
+
+    /**
+     * Prints the status of a verified file in the style of 'sha256sum --check' or as JSON.
+     *
+     * @param path the path of the file
+     * @param algorithm the name of the algorithm used for the verification
+     * @param status the status of the verification
+     */
+    private void printResult(String path, String algorithm, VerificationStatus status) {
+        if (json) {
+            out.println("{\"file\":" + quote(path) + ",\"algorithm\":" + quote(algorithm)
+                    + ",\"status\":" + quote(status.name()) + "}");
+        } else {
+            out.println(path + ": " + (status == VerificationStatus.OK ? "OK" : "FAILED " + status));
+        }
+    }
+
+    /**
+     * Prints that the checksums of a file could not be computed.
+     *
+     * @param path the path of the file
+     * @param status the reason
+     */
+    private void printError(String path, VerificationStatus status) {
+        if (json) {
+            out.println("{\"file\":" + quote(path) + ",\"status\":" + quote(status.name()) + "}");
+        } else {
+            err.println(path + ": " + status);
+        }
+    }
+
+    /**
+     * Prints the given problem together with the usage.
+     *
+     * @param message the problem
+     * @return the exit code for invalid usage
+     */
+    private int usageError(String message) {
+        err.println(message);
+        err.println(USAGE);
+        return EXIT_USAGE;
+    }
+
+    /**
+     * Quotes and escapes the given text as JSON string.
+     *
+     * @param text the text to quote
+     * @return the JSON string
+     */
+    static String quote(String text) {
+        StringBuilder result = new StringBuilder(text.length() + 2).append('"');
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '"':
+                    result.append("\\\"");
+                    break;
+                case '\\':
+                    result.append("\\\\");
+                    break;
+                case '\n':
+                    result.append("\\n");
+                    break;
+                case '\r':
+                    result.append("\\r");
+                    break;
+                case '\t':
+                    result.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        result.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    /*==================================================*
+     *==                  HELPERS                     ==*
+     *==================================================*/
+
+    /**
+     * Creates a computer using the hash cache if enabled.
+     *
+     * @param checksum the algorithm of the computer
+     * @return the created computer
+     */
+    private ChecksumComputer createComputer(Checksum checksum) {
+        ChecksumComputer comp = new ChecksumComputer(checksum, readStrategy);
+        comp.setHashCache(cache);
+        return comp;
+    }
+
+    /**
+     * Computes the checksums of all selected algorithms for the selected range of the given file.
+     *
+     * @param file the file to read
+     * @return the checksums as strings per algorithm or empty if reading failed
+     */
+    private Optional<EnumMap<Checksum, String>> computeRange(File file) {
+        EnumMap<Checksum, String> result = new EnumMap<>(Checksum.class);
+        for (Checksum checksum : checksums) {
+            Optional<String> value = createComputer(checksum).getChecksum(file, rangeOffset, rangeLength);
+            if (value.isEmpty()) {
+                return Optional.empty();
+            }
+            result.put(checksum, value.get());
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * Computes the checksums of all selected algorithms while reading the given channel only once.
+     *
+     * @param source the channel to read until its end
+     * @return the checksums as strings per algorithm or empty if reading failed
+     */
+    private Optional<EnumMap<Checksum, String>> computeStream(ReadableByteChannel source) {
+        try {
+            // nest one digesting channel per algorithm
+            Map<Checksum, DigestingChannel> channels = new EnumMap<>(Checksum.class);
+            ReadableByteChannel channel = source;
+            for (Checksum checksum : checksums) {
+                DigestingChannel digesting = new DigestingChannel(channel, checksum);
+                channels.put(checksum, digesting);
+                channel = digesting;
+            }
+
+            // drain the channel, the digesting channels see every byte
+            ByteBuffer buffer = ByteBuffer.allocate(ChannelReader.DEFAULT_BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                buffer.clear();
+            }
+
+            EnumMap<Checksum, String> result = new EnumMap<>(Checksum.class);
+            channels.forEach((checksum, digesting) -> result.put(checksum, digesting.getChecksum()));
+            return Optional.of(result);
+
+        } catch (Exception e) {
+            err.println(STDIN + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text format, to stderr or a file.
+     */
+    private void writeMetrics() {
+        String text = HashMetrics.global().toPrometheusText();
+        if ("-".equals(metricsFile)) {
+            err.print(text);
+            return;
+        }
+        try {
+            Files.writeString(Path.of(metricsFile), text);
+        } catch (IOException e) {
+            err.println("Cannot write metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the hash cache if enabled.
+     */
+    private void saveCache() {
+        if (cache != null) {
+            try {
+                cache.save();
+            } catch (IOException e) {
+                err.println("Cannot save hash cache: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Maps the status of a single verification to the exit code.
+     *
+     * @param status the status of the verification
+     * @return the exit code
+     */
+    private static int getExitCode(VerificationStatus status) {
+        switch (status) {
+            case OK:
+                return EXIT_OK;
+            case MISMATCH:
+                return EXIT_MISMATCH;
+            default:
+                return EXIT_UNREADABLE;
+        }
+    }
+
+    /**
+     * Parses a comma-separated list of algorithms like 'sha256,MD5' or 'SHA-512'.
+     *
+     * @param value the list of algorithms
+     * @return the parsed algorithms
+     * @throws IllegalArgumentException if an algorithm is unknown
+     */
+    static Set<Checksum> parseChecksums(String value) {
+        Set<Checksum> result = EnumSet.noneOf(Checksum.class);
+        for (String name : value.split(",")) {
+            String normalized = name.trim().replace("-", "").toUpperCase(Locale.ROOT);
+            try {
+                result.add(Checksum.valueOf(normalized));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown algorithm: " + name);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parses a size in bytes with an optional suffix, like '65536', '512K' or '4M'.
+     *
+     * @param value the size
+     * @return the size in bytes
+     * @throws IllegalArgumentException if the size is malformed, not positive or too large
+     */
+    private static int parseSize(String value) {
+        long size = parseLongSize(value);
+        if (size <= 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid size: " + value);
+        }
+        return (int) size;
+    }
+
+    /**
+     * Parses a size or position in bytes with an optional suffix, like '0', '512K', '4M' or '2G'.
+     *
+     * @param value the size
+     * @return the size in bytes
+     * @throws IllegalArgumentException if the size is malformed or negative
+     */
+    private static long parseLongSize(String value) {
+        String normalized = value.trim().toUpperCase(Locale.ROOT);
+        long factor = 1;
+        if (normalized.endsWith("K")) {
+            factor = 1024;
+        } else if (normalized.endsWith("M")) {
+            factor = 1024 * 1024;
+        } else if (normalized.endsWith("G")) {
+            factor = 1024 * 1024 * 1024;
+        }
+        if (factor > 1) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+
+        long size = Long.parseLong(normalized);
+        if (size < 0 || size > Long.MAX_VALUE / factor) {
+            throw new IllegalArgumentException("Invalid size: " + value);
+        }
+        return size * factor;
+    }
+
+    /**
+     * Returns the value of the option at the given index.
+     *
+     * @param args the program arguments
+     * @param index the index of the value
+     * @return the value
+     * @throws IllegalArgumentException if the value is missing
+     */
+    private static String requireValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+}
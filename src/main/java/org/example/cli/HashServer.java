@@ -0,0 +1,539 @@
+package org.example.cli;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.model.Checksum;
+import org.example.model.ReadStrategy;
+import org.example.model.VerificationEntry;
+import org.example.model.VerificationStatus;
+import org.example.utils.ChecksumComputer;
+import org.example.utils.HashCache;
+import org.example.utils.ManifestReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Long-running local server which computes and verifies checksums over HTTP, so that other services do not pay the
+ * startup of a JVM per file and profit from a warm JIT, pooled hashers and the hash cache.
+ *
+ * The server only listens on the loopback address. Concurrent requests for the same file and algorithms are coalesced,
+ * so that the file is read once and all requests receive the same result. The endpoints answer with JSON:
+ *
+ * <ul>
+ *     <li>{@code GET /hash?file=<path>&algorithm=SHA256,MD5} returns the checksums of the file.</li>
+ *     <li>{@code GET /verify?file=<path>&algorithm=SHA256&checksum=<hex>} returns the status of the file.</li>
+ *     <li>{@code POST /hash} with one path per line returns one JSON line per file.</li>
+ *     <li>{@code POST /verify} with manifest lines in GNU or BSD format returns one JSON line per entry. Relative paths
+ *     are resolved against the optional parameter {@code base}.</li>
+ * </ul>
+ *
+ * The server may read every file its process can read, which is why it must not be exposed beyond the host. Requests
+ * must name the loopback address with the server's port as host, e.g. '127.0.0.1:7187' or 'localhost:7187', and
+ * browsers may only send them from such an origin, so that web pages cannot reach the server through DNS rebinding.
+ * Request bodies are limited to {@link #MAX_BODY_SIZE} bytes.
+ */
+public class HashServer implements Closeable {
+
+    /*==================================================*
+     *==                   LOGGER                     ==*
+     *==================================================*/
+
+    private static final Logger LOGGER = LogManager.getLogger(HashServer.class);
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    /**
+     * The port used if none is given.
+     */
+    public static final int DEFAULT_PORT = 7187;
+
+    /**
+     * The maximum size of a request body in bytes.
+     */
+    public static final int MAX_BODY_SIZE = 16 * 1024 * 1024;
+
+    private static final List<String> LOCAL_HOSTS = List.of("localhost", "127.0.0.1", "[::1]");
+
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final int HTTP_FORBIDDEN = 403;
+    private static final int HTTP_NOT_FOUND = 404;
+    private static final int HTTP_BAD_METHOD = 405;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final ExecutorService handlers;
+
+    /**
+     * The maximum number of files of one request submitted to the workers at once.
+     */
+    private final int maxPending;
+
+    private HashCache cache;
+    private ReadStrategy readStrategy = ReadStrategy.AUTO;
+
+    /**
+     * The computations which are still running, by algorithms and file.
+     */
+    private final Map<String, CompletableFuture<Optional<EnumMap<Checksum, String>>>> inFlight =
+            new ConcurrentHashMap<>();
+    private final LongAdder coalescedRequests = new LongAdder();
+
+    /**
+     * Each worker reuses its own computer since those are not thread-safe.
+     */
+    private final ThreadLocal<ChecksumComputer> computers;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    /**
+     * Binds the server to the given port of the loopback address without starting it yet.
+     *
+     * @param port the port or 0 for any free port
+     * @param concurrency the maximum number of files read at the same time
+     * @throws IOException if the port cannot be bound
+     */
+    public HashServer(int port, int concurrency) throws IOException {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+        }
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.workers = Executors.newFixedThreadPool(concurrency);
+        this.maxPending = concurrency * 2;
+
+        // the handlers only wait for the workers, so a few more of them keep the queue of the workers filled
+        this.handlers = Executors.newFixedThreadPool(concurrency * 2);
+        this.computers = ThreadLocal.withInitial(() -> new ChecksumComputer(Checksum.SHA256, readStrategy));
+
+        server.setExecutor(handlers);
+        server.createContext("/hash", exchange -> handle(exchange, this::hash));
+        server.createContext("/verify", exchange -> handle(exchange, this::verify));
+    }
+
+    /*==================================================*
+     *==                 ACCESSORS                    ==*
+     *==================================================*/
+
+    /**
+     * Sets the cache used to look up the checksums of unchanged files instead of reading them again.
+     *
+     * @param cache the cache to use or null to always read the files
+     */
+    public void setHashCache(HashCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Sets how the files are read. Must be set before starting.
+     *
+     * @param readStrategy the strategy used by all workers
+     */
+    public void setReadStrategy(ReadStrategy readStrategy) {
+        this.readStrategy = readStrategy;
+    }
+
+    /**
+     * Returns the address the server is listening on.
+     *
+     * @return the loopback address and the bound port
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Returns how many requests have been answered with the result of a computation started for another request.
+     *
+     * @return the number of coalesced requests
+     */
+    public long getCoalescedRequests() {
+        return coalescedRequests.sum();
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Starts answering requests in the background.
+     */
+    public void start() {
+        server.start();
+        LOGGER.info("Listening on http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    }
+
+    /**
+     * Stops the server, running requests are cancelled.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /*==================================================*
+     *==                  ENDPOINTS                   ==*
+     *==================================================*/
+
+    /**
+     * Answers a request with the given endpoint and turns invalid requests into error responses.
+     *
+     * @param exchange the request
+     * @param endpoint the endpoint
+     * @throws IOException if the response cannot be sent
+     */
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        try (exchange) {
+            if (!isLocalRequest(exchange)) {
+                respond(exchange, HTTP_FORBIDDEN, error("Requests must be addressed to "
+                        + "localhost:" + server.getAddress().getPort()));
+                return;
+            }
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("POST")) {
+                respond(exchange, HTTP_BAD_METHOD, error("Unsupported method: " + method));
+                return;
+            }
+            if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                respond(exchange, HTTP_NOT_FOUND, error("Unknown endpoint: " + exchange.getRequestURI().getPath()));
+                return;
+            }
+
+            // the exchange must stay open for sending an error response
+            try {
+                String body = endpoint.answer(exchange, parseQuery(exchange.getRequestURI().getRawQuery()));
+                respond(exchange, HTTP_OK, body);
+            } catch (IllegalArgumentException e) {
+                respond(exchange, HTTP_BAD_REQUEST, error(e.getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Computes the checksums of one file or, for a POST request, of each file listed in the body.
+     *
+     * @param exchange the request
+     * @param query the parameters of the request
+     * @return the response body
+     * @throws IOException if the request body cannot be read
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    private String hash(HttpExchange exchange, Map<String, String> query) throws IOException, InterruptedException {
+        Set<Checksum> checksums = CommandLineApp.parseChecksums(query.getOrDefault("algorithm", "SHA256"));
+
+        List<Path> files = new ArrayList<>();
+        if (exchange.getRequestMethod().equals("POST")) {
+            for (String line : readLines(exchange)) {
+                files.add(Path.of(line));
+            }
+        } else {
+            files.add(Path.of(requireParameter(query, "file")));
+        }
+
+        // keep a few files submitted ahead, so that they are read concurrently without flooding the workers
+        Deque<CompletableFuture<Optional<EnumMap<Checksum, String>>>> results = new ArrayDeque<>();
+        int submitted = 0;
+
+        StringBuilder response = new StringBuilder();
+        for (int i = 0; i < files.size(); i++) {
+            for (; submitted < files.size() && submitted - i < maxPending; submitted++) {
+                results.add(compute(files.get(submitted), checksums));
+            }
+            String path = files.get(i).toString();
+            Optional<EnumMap<Checksum, String>> result = await(results.poll());
+
+            if (result.isEmpty()) {
+                response.append("{\"file\":").append(CommandLineApp.quote(path)).append(",\"status\":")
+                        .append(CommandLineApp.quote(getFailure(files.get(i)).name())).append("}\n");
+            } else {
+                StringBuilder values = new StringBuilder();
+                for (Map.Entry<Checksum, String> entry : result.get().entrySet()) {
+                    values.append(values.length() == 0 ? "" : ",").append(CommandLineApp.quote(entry.getKey().name()))
+                            .append(":").append(CommandLineApp.quote(entry.getValue()));
+                }
+                response.append("{\"file\":").append(CommandLineApp.quote(path)).append(",\"checksums\":{")
+                        .append(values).append("}}\n");
+            }
+        }
+        return response.toString();
+    }
+
+    /**
+     * Verifies one file or, for a POST request, each entry of the manifest in the body.
+     *
+     * @param exchange the request
+     * @param query the parameters of the request
+     * @return the response body
+     * @throws IOException if the request body cannot be read
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    private String verify(HttpExchange exchange, Map<String, String> query) throws IOException, InterruptedException {
+        List<VerificationEntry> entries = new ArrayList<>();
+
+        if (exchange.getRequestMethod().equals("POST")) {
+            Path baseDir = Path.of(query.getOrDefault("base", "")).toAbsolutePath();
+            Checksum defaultChecksum = query.containsKey("algorithm")
+                    ? CommandLineApp.parseChecksums(query.get("algorithm")).iterator().next() : null;
+            for (String line : readLines(exchange)) {
+                entries.add(ManifestReader.parseLine(line, baseDir, defaultChecksum)
+                        .orElseThrow(() -> new IllegalArgumentException("Malformed manifest line: " + line)));
+            }
+        } else {
+            Set<Checksum> checksums = CommandLineApp.parseChecksums(query.getOrDefault("algorithm", "SHA256"));
+            if (checksums.size() != 1) {
+                throw new IllegalArgumentException("Expected one algorithm");
+            }
+            entries.add(new VerificationEntry(Path.of(requireParameter(query, "file")).toFile(),
+                    checksums.iterator().next(), requireParameter(query, "checksum")));
+        }
+
+        // keep a few entries submitted ahead, so that they are read concurrently without flooding the workers
+        Deque<CompletableFuture<Optional<EnumMap<Checksum, String>>>> results = new ArrayDeque<>();
+        int submitted = 0;
+
+        StringBuilder response = new StringBuilder();
+        for (int i = 0; i < entries.size(); i++) {
+            for (; submitted < entries.size() && submitted - i < maxPending; submitted++) {
+                VerificationEntry next = entries.get(submitted);
+                results.add(compute(next.getFile().toPath(), Set.of(next.getChecksum())));
+            }
+            VerificationEntry entry = entries.get(i);
+            Optional<EnumMap<Checksum, String>> result = await(results.poll());
+
+            // compare like the batch verification does, regardless of the expected checksum's case
+            VerificationStatus status = result.isEmpty() ? getFailure(entry.getFile().toPath())
+                    : ChecksumComputer.isSameChecksum(result.get().get(entry.getChecksum()), entry.getExpectedChecksum())
+                    ? VerificationStatus.OK : VerificationStatus.MISMATCH;
+
+            response.append("{\"file\":").append(CommandLineApp.quote(entry.getFile().getPath()))
+                    .append(",\"algorithm\":").append(CommandLineApp.quote(entry.getChecksum().name()))
+                    .append(",\"status\":").append(CommandLineApp.quote(status.name())).append("}\n");
+        }
+        return response.toString();
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Checks that the request names the loopback address and the port of this server as host and, if sent by a
+     * browser, comes from such an origin.
+     *
+     * @param exchange the request
+     * @return true if the request may be answered
+     */
+    private boolean isLocalRequest(HttpExchange exchange) {
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        String origin = exchange.getRequestHeaders().getFirst("Origin");
+        return host != null && isLocalAuthority(host)
+                && (origin == null || origin.startsWith("http://") && isLocalAuthority(origin.substring(7)));
+    }
+
+    /**
+     * Checks whether the given authority is a name of the loopback address together with the port of this server.
+     *
+     * @param authority the host and port, e.g. 'localhost:7187'
+     * @return true if the authority addresses this server
+     */
+    private boolean isLocalAuthority(String authority) {
+        int port = server.getAddress().getPort();
+        return LOCAL_HOSTS.stream().anyMatch(host -> authority.equalsIgnoreCase(host + ":" + port));
+    }
+
+    /**
+     * Computes the checksums of the given file on a worker or joins the computation already running for it.
+     *
+     * @param file the file to hash
+     * @param checksums the algorithms
+     * @return the future checksums as strings per algorithm or empty if the file cannot be read
+     */
+    private CompletableFuture<Optional<EnumMap<Checksum, String>>> compute(Path file, Set<Checksum> checksums) {
+        String key = checksums + " " + file.toAbsolutePath().normalize();
+
+        // share the result of a running computation instead of reading the file once more
+        CompletableFuture<Optional<EnumMap<Checksum, String>>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<EnumMap<Checksum, String>>> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            coalescedRequests.increment();
+            return running;
+        }
+
+        workers.execute(() -> {
+            Optional<EnumMap<Checksum, String>> result = Optional.empty();
+            try {
+                ChecksumComputer comp = computers.get();
+                comp.setHashCache(cache);
+                result = comp.getChecksums(file.toFile(), checksums);
+            } finally {
+
+                // later requests must read the file again, since it may have changed
+                inFlight.remove(key, future);
+                future.complete(result);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Waits for the result of a computation.
+     *
+     * @param future the computation
+     * @return the result
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static Optional<EnumMap<Checksum, String>> await(CompletableFuture<Optional<EnumMap<Checksum, String>>> future)
+            throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Determines why the checksum of a file could not be computed.
+     *
+     * @param file the file
+     * @return {@link VerificationStatus#MISSING} or {@link VerificationStatus#UNREADABLE}
+     */
+    private static VerificationStatus getFailure(Path file) {
+        return Files.exists(file) ? VerificationStatus.UNREADABLE : VerificationStatus.MISSING;
+    }
+
+    /**
+     * Reads the non-blank lines of the request body.
+     *
+     * @param exchange the request
+     * @return the lines
+     * @throws IOException if the body cannot be read
+     * @throws IllegalArgumentException if the body exceeds {@link #MAX_BODY_SIZE}
+     */
+    private static List<String> readLines(HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(MAX_BODY_SIZE + 1);
+        }
+        if (body.length > MAX_BODY_SIZE) {
+            throw new IllegalArgumentException("Request body exceeds " + MAX_BODY_SIZE + " bytes");
+        }
+
+        List<String> lines = new ArrayList<>();
+        for (String line : new String(body, StandardCharsets.UTF_8).split("\\R")) {
+            if (!line.isBlank()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Parses the parameters of a query like 'file=%2Ftmp%2Fa&algorithm=SHA256'.
+     *
+     * @param rawQuery the encoded query or null
+     * @return the decoded parameters
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> result = new HashMap<>();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                String[] pair = parameter.split("=", 2);
+                result.put(URLDecoder.decode(pair[0], StandardCharsets.UTF_8),
+                        pair.length == 2 ? URLDecoder.decode(pair[1], StandardCharsets.UTF_8) : "");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the value of a required parameter.
+     *
+     * @param query the parameters
+     * @param name the name of the parameter
+     * @return the value
+     * @throws IllegalArgumentException if the parameter is missing
+     */
+    private static String requireParameter(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Sends the given body as the response.
+     *
+     * @param exchange the request
+     * @param status the HTTP status
+     * @param body the JSON body
+     * @throws IOException if the response cannot be sent
+     */
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Formats an error message as JSON.
+     *
+     * @param message the message
+     * @return the JSON line
+     */
+    private static String error(String message) {
+        return "{\"error\":" + CommandLineApp.quote(String.valueOf(message)) + "}\n";
+    }
+
+    /*==================================================*
+     *==                INNER CLASSES                 ==*
+     *==================================================*/
+
+    /**
+     * Answers a request with the body of the response.
+     */
+    private interface Endpoint {
+
+        String answer(HttpExchange exchange, Map<String, String> query) throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.controller;
+
+import javafx.concurrent.Task;
+import org.example.utils.ChecksumComputer;
+
+import java.io.File;
+import java.text.MessageFormat;
+import java.util.Optional;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies the checksum of a file in the background while reporting the bytes hashed, the throughput and the
+ * remaining time as progress and message of the task.
+ *
+ * Cancelling the task interrupts its thread, which stops reading the file at the next block.
+ */
+public class VerificationTask extends Task<Optional<Boolean>> {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    /**
+     * The minimum time between two progress updates, so that updating the GUI does not slow down hashing.
+     */
+    private static final long UPDATE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final double BYTES_PER_MB = 1024 * 1024;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final ChecksumComputer comp;
+    private final File file;
+    private final String targetChecksum;
+    private final ResourceBundle bundle;
+
+    private long startTime;
+    private long lastUpdate;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    public VerificationTask(ChecksumComputer comp, File file, String targetChecksum, ResourceBundle bundle) {
+        this.comp = comp;
+        this.file = file;
+        this.targetChecksum = targetChecksum;
+        this.bundle = bundle;
+    }
+
+    /*==================================================*
+     *==                 EXECUTION                    ==*
+     *==================================================*/
+
+    @Override
+    protected Optional<Boolean> call() {
+        startTime = System.nanoTime();
+        lastUpdate = startTime;
+
+        // compare while reporting the progress
+        Optional<Boolean> result = comp.verifyChecksum(file, targetChecksum, this::onProgress);
+
+        // show the final state regardless of the throttling
+        if (!isCancelled()) {
+            long size = file.length();
+            updateProgress(size, size);
+            updateMessage(formatProgress(size, size, System.nanoTime()));
+        }
+
+        return result;
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Updates the progress and message of the task, at most once per {@link #UPDATE_INTERVAL_NANOS}.
+     *
+     * @param bytesProcessed the number of bytes hashed so far
+     * @param totalBytes the size of the file
+     */
+    private void onProgress(long bytesProcessed, long totalBytes) {
+        long now = System.nanoTime();
+        if (now - lastUpdate >= UPDATE_INTERVAL_NANOS) {
+            lastUpdate = now;
+            updateProgress(bytesProcessed, totalBytes);
+            updateMessage(formatProgress(bytesProcessed, totalBytes, now));
+        }
+    }
+
+    /**
+     * Creates the message presenting the bytes hashed, the throughput and the estimated remaining time.
+     *
+     * @param bytesProcessed the number of bytes hashed so far
+     * @param totalBytes the size of the file
+     * @param now the current time in nanoseconds
+     * @return the message to present
+     */
+    private String formatProgress(long bytesProcessed, long totalBytes, long now) {
+        double seconds = Math.max(now - startTime, 1) / 1e9;
+        double mbPerSecond = bytesProcessed / BYTES_PER_MB / seconds;
+        long remainingSeconds = mbPerSecond > 0
+                ? Math.round((totalBytes - bytesProcessed) / BYTES_PER_MB / mbPerSecond)
+                : 0;
+
+        return MessageFormat.format(bundle.getString("pane.progress"),
+                String.format("%.1f", bytesProcessed / BYTES_PER_MB),
+                String.format("%.1f", totalBytes / BYTES_PER_MB),
+                String.format("%.1f", mbPerSecond),
+                remainingSeconds);
+    }
+}
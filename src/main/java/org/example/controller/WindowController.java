@@ -18,8 +18,12 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class WindowController implements Initializable {
 
@@ -29,6 +33,26 @@ public class WindowController implements Initializable {
 
     private ResourceBundle bundle;
 
+    /*==================================================*
+     *==               BACKGROUND TASKS               ==*
+     *==================================================*/
+
+    /**
+     * Runs the verifications, so that the GUI stays responsive while hashing large files.
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "verification");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private VerificationTask runningTask;
+
+    /**
+     * The computer per algorithm, reused for all verifications to keep their hashers and buffers.
+     */
+    private final Map<Checksum, ChecksumComputer> computers = new EnumMap<>(Checksum.class);
+
     /*==================================================*
      *==                GUI-COMPONENTS                ==*
      *==================================================*/
@@ -51,6 +75,15 @@ public class WindowController implements Initializable {
     @FXML
     private Button verify;
 
+    @FXML
+    private ProgressBar progress;
+
+    @FXML
+    private Label progressInfo;
+
+    @FXML
+    private Button cancel;
+
     /*==================================================*
      *==               INITIALIZATION                 ==*
      *==================================================*/
@@ -96,13 +129,22 @@ public class WindowController implements Initializable {
             result.setText("");
 
             // enable submit button when a valid file and a target checksum are given, else disable
-            Path givenPath = Paths.get(outFile.textProperty().get());
+            verify.setDisable(!isInputValid() || runningTask != null);
+        });
+    }
+
+    /**
+     * Checks whether a valid file and a target checksum are given.
+     *
+     * @return true if the input is valid, else false
+     */
+    private boolean isInputValid() {
+        Path givenPath = Paths.get(outFile.textProperty().get());
 
-            boolean fileExists = !outFile.textProperty().isEmpty().get() && Files.exists(givenPath);
-            boolean checksumGiven = !inTarget.textProperty().get().isEmpty();
+        boolean fileExists = !outFile.textProperty().isEmpty().get() && Files.exists(givenPath);
+        boolean checksumGiven = !inTarget.textProperty().get().isEmpty();
 
-            verify.setDisable(!fileExists || !checksumGiven);
-        });
+        return fileExists && checksumGiven;
     }
 
     /**
@@ -153,6 +195,7 @@ public class WindowController implements Initializable {
     /**
      * Compare the actual checksum with the target checksum of the file given in the gui.
      *
+     * The comparison runs in the background while presenting its progress, so it can be cancelled by the user.
      * Should only be used when both the target checksum and the file are given and valid.
      *
      * @param actionEvent the event initiating the comparison
@@ -160,18 +203,68 @@ public class WindowController implements Initializable {
     @FXML
     public void verifyChecksum(ActionEvent actionEvent) {
 
-        // prepare comparing
-        ChecksumComputer comp = new ChecksumComputer(algorithms.getValue());
+        // prepare comparing, the computers are reused since only one comparison runs at a time
+        ChecksumComputer comp = computers.computeIfAbsent(algorithms.getValue(), ChecksumComputer::new);
 
         File givenFile = new File(outFile.textProperty().get().trim());
         String targetChecksum = inTarget.textProperty().get().trim();
 
-        // compare
-        Optional<Boolean> checksumsIdentical = comp.verifyChecksum(givenFile, targetChecksum);
+        VerificationTask task = new VerificationTask(comp, givenFile, targetChecksum, bundle);
+
+        // adjust GUI to the result as soon as the comparison has finished
+        task.setOnSucceeded(evt -> {
+            Optional<Boolean> checksumsIdentical = task.getValue();
+            boolean correctChecksum = checksumsIdentical.isPresent() && checksumsIdentical.get();
+            finishVerification();
+            setResult(correctChecksum);
+        });
+        task.setOnFailed(evt -> {
+            finishVerification();
+            setResult(false);
+        });
+        task.setOnCancelled(evt -> {
+            finishVerification();
+            result.setTextFill(Color.BLACK);
+            result.setText(bundle.getString("pane.cancelled"));
+        });
+
+        // present the progress while comparing
+        result.setText("");
+        progress.progressProperty().bind(task.progressProperty());
+        progressInfo.textProperty().bind(task.messageProperty());
+        progress.setVisible(true);
+        verify.setDisable(true);
+        cancel.setDisable(false);
+
+        // compare in the background
+        runningTask = task;
+        executor.execute(task);
+    }
+
+    /**
+     * Cancels the running comparison.
+     *
+     * @param actionEvent the event initiating the cancellation
+     */
+    @FXML
+    public void cancelVerification(ActionEvent actionEvent) {
+        if (runningTask != null) {
+            runningTask.cancel();
+        }
+    }
+
+    /**
+     * Resets the GUI components presenting the progress after a comparison has finished in any way.
+     */
+    private void finishVerification() {
+        runningTask = null;
+
+        progress.progressProperty().unbind();
+        progressInfo.textProperty().unbind();
+        progress.setVisible(false);
 
-        // compare and adjust GUI to the result
-        boolean correctChecksum = checksumsIdentical.isPresent() && checksumsIdentical.get();
-        setResult(correctChecksum);
+        cancel.setDisable(true);
+        verify.setDisable(!isInputValid());
     }
 
     /**
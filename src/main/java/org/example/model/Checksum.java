@@ -6,23 +6,30 @@ public enum Checksum {
      *==                ENUM VALUES                   ==*
      *==================================================*/
 
-    MD5("MD5"),
-    SHA1("SHA1"),
-    SHA256("SHA-256"),
-    SHA512("SHA-512");
+    MD5("MD5", "md5", 16),
+    SHA1("SHA1", "sha1", 20),
+    SHA256("SHA-256", "sha256", 32),
+    SHA512("SHA-512", "sha512", 64),
+    CRC32C("CRC32C", "crc32c", 4),
+    XXH64("XXH64", "xxh64", 8),
+    BLAKE3("BLAKE3", "blake3", 32);
 
     /*==================================================*
      *==                   FIELDS                     ==*
      *==================================================*/
 
     private String algorithm;
+    private String fileExtension;
+    private int digestLength;
 
     /*==================================================*
      *==                CONSTRUCTORS                  ==*
      *==================================================*/
 
-    Checksum(String algorithm) {
+    Checksum(String algorithm, String fileExtension, int digestLength) {
         this.algorithm = algorithm;
+        this.fileExtension = fileExtension;
+        this.digestLength = digestLength;
     }
 
     /*==================================================*
@@ -32,4 +39,24 @@ public enum Checksum {
     public String getAlgorithm() {
         return algorithm;
     }
+
+    /**
+     * Returns the extension of sidecar files containing a checksum of this algorithm, e.g. 'sha256' for
+     * 'image.iso.sha256'.
+     *
+     * @return the file extension without leading dot
+     */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * Returns the length of a checksum of this algorithm in bytes, its hexadecimal representation has twice as many
+     * characters.
+     *
+     * @return the length of the checksum in bytes
+     */
+    public int getDigestLength() {
+        return digestLength;
+    }
 }
@@ -0,0 +1,67 @@
+package org.example.model;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Files with identical content, found by the duplicate search.
+ */
+public class DuplicateGroup {
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final long size;
+    private final String checksum;
+    private final List<Path> files;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    /**
+     * @param size the size of each file
+     * @param checksum the full checksum shared by all files
+     * @param files at least two files, sorted by path
+     */
+    public DuplicateGroup(long size, String checksum, List<Path> files) {
+        this.size = size;
+        this.checksum = checksum;
+        this.files = List.copyOf(files);
+    }
+
+    /*==================================================*
+     *==                 ACCESSORS                    ==*
+     *==================================================*/
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public List<Path> getFiles() {
+        return files;
+    }
+
+    /**
+     * Returns the bytes freed by keeping only one of the files.
+     *
+     * @return the size of all but one file
+     */
+    public long getReclaimableBytes() {
+        return size * (files.size() - 1);
+    }
+
+    /*==================================================*
+     *==                   OBJECT                     ==*
+     *==================================================*/
+
+    @Override
+    public String toString() {
+        return files.size() + " x " + size + " bytes " + checksum;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.model;
+
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * The checksum of a file computed by the asynchronous API of the {@link org.example.utils.ChecksumComputer}.
+ */
+public class HashResult {
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final Path file;
+    private final Checksum checksum;
+    private final byte[] hash;
+    private final long bytes;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    /**
+     * @param file the hashed file
+     * @param checksum the algorithm
+     * @param hash the raw checksum
+     * @param bytes the number of bytes hashed or -1 if the checksum was taken from the hash cache
+     */
+    public HashResult(Path file, Checksum checksum, byte[] hash, long bytes) {
+        this.file = file;
+        this.checksum = checksum;
+        this.hash = hash.clone();
+        this.bytes = bytes;
+    }
+
+    /*==================================================*
+     *==                 ACCESSORS                    ==*
+     *==================================================*/
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Checksum getChecksum() {
+        return checksum;
+    }
+
+    public byte[] getHash() {
+        return hash.clone();
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the checksum as lowercase hexadecimal string.
+     *
+     * @return the checksum as string
+     */
+    public String getValue() {
+        return HexFormat.of().formatHex(hash);
+    }
+
+    /**
+     * Compares the checksum with the given one, regardless of its upper or lower case.
+     *
+     * @param expectedChecksum the expected checksum as hexadecimal string
+     * @return true if both are equal, false if they differ or the expected checksum is malformed
+     */
+    public boolean matches(String expectedChecksum) {
+        try {
+            return MessageDigest.isEqual(hash, HexFormat.of().parseHex(expectedChecksum.trim()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /*==================================================*
+     *==                   OBJECT                     ==*
+     *==================================================*/
+
+    @Override
+    public String toString() {
+        return getValue() + "  " + file;
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.model;
+
+public enum ReadStrategy {
+
+    /*==================================================*
+     *==                ENUM VALUES                   ==*
+     *==================================================*/
+
+    /**
+     * Chooses {@link #MAPPED} for large files and {@link #BUFFERED} for small ones.
+     */
+    AUTO,
+
+    /**
+     * Maps the file window by window into memory so that the digest reads directly from the page cache.
+     */
+    MAPPED,
+
+    /**
+     * Reads the file through a reusable direct buffer.
+     */
+    BUFFERED,
+
+    /**
+     * Reads the file with direct I/O bypassing the page cache, so that verifying cold data does not evict the cached
+     * data of other processes. Falls back to {@link #BUFFERED} if the file system does not support direct I/O.
+     */
+    DIRECT
+}
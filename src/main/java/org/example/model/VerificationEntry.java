@@ -0,0 +1,52 @@
+package org.example.model;
+
+import java.io.File;
+
+/**
+ * A file together with the checksum it is expected to have.
+ */
+public class VerificationEntry {
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final File file;
+    private final Checksum checksum;
+    private final String expectedChecksum;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    public VerificationEntry(File file, Checksum checksum, String expectedChecksum) {
+        this.file = file;
+        this.checksum = checksum;
+        this.expectedChecksum = expectedChecksum;
+    }
+
+    /*==================================================*
+     *==                 ACCESSORS                    ==*
+     *==================================================*/
+
+    public File getFile() {
+        return file;
+    }
+
+    public Checksum getChecksum() {
+        return checksum;
+    }
+
+    public String getExpectedChecksum() {
+        return expectedChecksum;
+    }
+
+    /*==================================================*
+     *==                   OBJECT                     ==*
+     *==================================================*/
+
+    @Override
+    public String toString() {
+        return checksum + " " + expectedChecksum + " " + file;
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.model;
+
+/**
+ * The outcome of verifying a single {@link VerificationEntry}.
+ */
+public class VerificationResult {
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final VerificationEntry entry;
+    private final VerificationStatus status;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    public VerificationResult(VerificationEntry entry, VerificationStatus status) {
+        this.entry = entry;
+        this.status = status;
+    }
+
+    /*==================================================*
+     *==                 ACCESSORS                    ==*
+     *==================================================*/
+
+    public VerificationEntry getEntry() {
+        return entry;
+    }
+
+    public VerificationStatus getStatus() {
+        return status;
+    }
+
+    /*==================================================*
+     *==                   OBJECT                     ==*
+     *==================================================*/
+
+    @Override
+    public String toString() {
+        return status + " " + entry.getFile();
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.model;
+
+public enum VerificationStatus {
+
+    /*==================================================*
+     *==                ENUM VALUES                   ==*
+     *==================================================*/
+
+    /**
+     * The actual checksum equals the expected checksum.
+     */
+    OK,
+
+    /**
+     * The actual checksum differs from the expected checksum.
+     */
+    MISMATCH,
+
+    /**
+     * The file to verify does not exist.
+     */
+    MISSING,
+
+    /**
+     * The file exists but its checksum could not be computed.
+     */
+    UNREADABLE
+}
@@ -0,0 +1,102 @@
+package org.example.model;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the results of a batch verification per {@link VerificationStatus}.
+ *
+ * Results may be recorded by multiple threads at once.
+ */
+public class VerificationSummary {
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final Map<VerificationStatus, LongAdder> counts = new EnumMap<>(VerificationStatus.class);
+    private final LongAdder skipped = new LongAdder();
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    public VerificationSummary() {
+        for (VerificationStatus status : VerificationStatus.values()) {
+            counts.put(status, new LongAdder());
+        }
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Counts the given result.
+     *
+     * @param result the result to count
+     */
+    public void record(VerificationResult result) {
+        counts.get(result.getStatus()).increment();
+    }
+
+    /**
+     * Counts manifest lines which have been skipped since they could not be parsed.
+     *
+     * @param count the number of skipped lines
+     */
+    public void recordSkipped(long count) {
+        skipped.add(count);
+    }
+
+    /**
+     * Returns the number of results with the given status.
+     *
+     * @param status the status to count
+     * @return the number of results with the status
+     */
+    public long getCount(VerificationStatus status) {
+        return counts.get(status).sum();
+    }
+
+    /**
+     * Returns the number of all results.
+     *
+     * @return the number of all results
+     */
+    public long getTotal() {
+        return counts.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Returns the number of manifest lines which have been skipped since they could not be parsed.
+     *
+     * @return the number of skipped lines
+     */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    /**
+     * Checks whether every recorded result is {@link VerificationStatus#OK} and no manifest line has been skipped.
+     *
+     * @return true if no result failed and no line was skipped, else false
+     */
+    public boolean isAllOk() {
+        return getCount(VerificationStatus.OK) == getTotal() && getSkipped() == 0;
+    }
+
+    /*==================================================*
+     *==                   OBJECT                     ==*
+     *==================================================*/
+
+    @Override
+    public String toString() {
+        return "ok: " + getCount(VerificationStatus.OK)
+                + ", mismatch: " + getCount(VerificationStatus.MISMATCH)
+                + ", missing: " + getCount(VerificationStatus.MISSING)
+                + ", unreadable: " + getCount(VerificationStatus.UNREADABLE)
+                + ", skipped: " + getSkipped();
+    }
+}
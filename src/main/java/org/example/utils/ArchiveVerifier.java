@@ -0,0 +1,314 @@
+package org.example.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.model.Checksum;
+import org.example.model.VerificationEntry;
+import org.example.model.VerificationResult;
+import org.example.model.VerificationStatus;
+import org.example.model.VerificationSummary;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Verifies the files inside ZIP, JAR and TAR archives against a manifest without extracting them.
+ *
+ * Each entry is streamed directly into its digest, so no temporary files are written and the memory does not depend on
+ * the size of the archive. The paths of the manifest are matched against the entry names relative to the manifest's
+ * directory, e.g. the line 'hex  lib/a.class' matches the entry 'lib/a.class'.
+ *
+ * <ul>
+ *     <li>ZIP and JAR archives allow random access, so their entries are verified concurrently while the manifest is
+ *     read lazily.</li>
+ *     <li>TAR archives, optionally compressed with gzip, can only be read sequentially. Their manifest is loaded into
+ *     memory and each entry is verified as the archive passes by.</li>
+ * </ul>
+ */
+public class ArchiveVerifier {
+
+    /*==================================================*
+     *==                   LOGGER                     ==*
+     *==================================================*/
+
+    private static final Logger LOGGER = LogManager.getLogger(ArchiveVerifier.class);
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final int USTAR_MAGIC_OFFSET = 257;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final int concurrency;
+
+    /**
+     * Each worker reuses its own computers since those are not thread-safe.
+     */
+    private final ThreadLocal<EnumMap<Checksum, ChecksumComputer>> computers =
+            ThreadLocal.withInitial(() -> new EnumMap<>(Checksum.class));
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    public ArchiveVerifier() {
+        this(BatchVerifier.DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * @param concurrency the maximum number of entries verified at the same time in archives with random access
+     */
+    public ArchiveVerifier(int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+        }
+        this.concurrency = concurrency;
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Verifies all entries of the given manifest against the files inside the given archive.
+     *
+     * The format of the archive is detected by its content. The callback is never called by more than one thread at
+     * once, entries of the manifest without a file in the archive are reported as {@link VerificationStatus#MISSING}.
+     *
+     * @param archive the ZIP, JAR, TAR or gzip-compressed TAR archive
+     * @param manifest the manifest in GNU or BSD format
+     * @param callback receives the result of each entry as soon as it is available
+     * @return the summary of all results
+     * @throws IOException if the archive or the manifest cannot be read or the archive format is not supported
+     * @throws InterruptedException if interrupted while waiting for the workers
+     * @see ManifestReader
+     */
+    public VerificationSummary verify(Path archive, Path manifest, Consumer<VerificationResult> callback)
+            throws IOException, InterruptedException {
+
+        byte[] magic = new byte[USTAR_MAGIC_OFFSET + 5];
+        int length;
+        try (InputStream in = Files.newInputStream(archive)) {
+            length = in.readNBytes(magic, 0, magic.length);
+        }
+
+        // detect the format by its magic bytes instead of the file extension
+        try {
+            if (length >= 4 && magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4) {
+                return verifyZip(archive, manifest, callback);
+            }
+            if (length >= 2 && (magic[0] & 0xFF) == 0x1F && (magic[1] & 0xFF) == 0x8B) {
+                return verifyTar(new GZIPInputStream(Files.newInputStream(archive)), manifest, callback);
+            }
+            if (length == magic.length && new String(magic, USTAR_MAGIC_OFFSET, 5).equals("ustar")) {
+                return verifyTar(Files.newInputStream(archive), manifest, callback);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        throw new IOException("Unsupported archive format: " + archive);
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Verifies the entries of a ZIP archive concurrently, with at most twice {@link #concurrency} entries in flight.
+     *
+     * @param archive the archive
+     * @param manifest the manifest
+     * @param callback receives the result of each entry
+     * @return the summary of all results
+     * @throws IOException if the archive or the manifest cannot be read
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    private VerificationSummary verifyZip(Path archive, Path manifest, Consumer<VerificationResult> callback)
+            throws IOException, InterruptedException {
+
+        VerificationSummary summary = new VerificationSummary();
+        Path baseDir = manifest.toAbsolutePath().getParent();
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        Semaphore window = new Semaphore(concurrency * 2);
+
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            try (ManifestReader entries = new ManifestReader(manifest)) {
+                while (entries.hasNext()) {
+                    VerificationEntry entry = entries.next();
+                    String name = getEntryName(baseDir, entry.getFile().toPath());
+
+                    // the central directory has been read already, so the lookup needs no I/O
+                    ZipEntry zipEntry = zip.getEntry(name);
+                    if (zipEntry == null || zipEntry.isDirectory()) {
+                        report(summary, callback, entry, name, VerificationStatus.MISSING);
+                        continue;
+                    }
+
+                    window.acquire();
+                    pool.execute(() -> {
+                        try (InputStream in = zip.getInputStream(zipEntry)) {
+                            report(summary, callback, entry, name, verifyStream(in, entry));
+                        } catch (IOException e) {
+                            LOGGER.error(e.getMessage());
+                            report(summary, callback, entry, name, VerificationStatus.UNREADABLE);
+                        } finally {
+                            window.release();
+                        }
+                    });
+                }
+                summary.recordSkipped(entries.getMalformedLines());
+            } finally {
+
+                // the archive must stay open until all workers are finished, even if the manifest is malformed
+                pool.shutdown();
+                awaitTermination(pool);
+            }
+        }
+
+        return summary;
+    }
+
+    /**
+     * Waits until the running tasks of the given pool have finished, dropping the queued ones if interrupted.
+     *
+     * @param pool the pool which has been shut down
+     */
+    private static void awaitTermination(ExecutorService pool) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+                pool.shutdownNow();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Verifies the entries of a TAR archive sequentially while reading it once from start to end.
+     *
+     * @param archive the uncompressed stream of the archive
+     * @param manifest the manifest
+     * @param callback receives the result of each entry
+     * @return the summary of all results
+     * @throws IOException if the archive or the manifest cannot be read
+     */
+    private VerificationSummary verifyTar(InputStream archive, Path manifest, Consumer<VerificationResult> callback)
+            throws IOException {
+
+        VerificationSummary summary = new VerificationSummary();
+        Path baseDir = manifest.toAbsolutePath().getParent();
+
+        // the entries arrive in the archive's order, so the expected checksums must be looked up by name
+        Map<String, VerificationEntry> expected = new LinkedHashMap<>();
+        try (ManifestReader entries = new ManifestReader(manifest)) {
+            entries.forEachRemaining(entry -> expected.put(getEntryName(baseDir, entry.getFile().toPath()), entry));
+            summary.recordSkipped(entries.getMalformedLines());
+        }
+
+        try (TarReader tar = new TarReader(new BufferedInputStream(archive))) {
+            String next;
+            while (!expected.isEmpty() && (next = tar.nextFile()) != null) {
+                String name = normalizeEntryName(next);
+                VerificationEntry entry = expected.remove(name);
+                if (entry != null) {
+                    report(summary, callback, entry, name, verifyStream(tar.openFile(), entry));
+                }
+            }
+        }
+
+        for (Map.Entry<String, VerificationEntry> missing : expected.entrySet()) {
+            report(summary, callback, missing.getValue(), missing.getKey(), VerificationStatus.MISSING);
+        }
+        return summary;
+    }
+
+    /**
+     * Verifies the content of a single entry with the computer of the current thread.
+     *
+     * @param in the content of the entry
+     * @param entry the expected checksum
+     * @return the status of the verification
+     */
+    private VerificationStatus verifyStream(InputStream in, VerificationEntry entry) {
+        ChecksumComputer comp = computers.get().computeIfAbsent(entry.getChecksum(), ChecksumComputer::new);
+        Optional<Boolean> identical = comp.verifyChecksum(in, entry.getExpectedChecksum());
+
+        if (identical.isEmpty()) {
+            return VerificationStatus.UNREADABLE;
+        }
+        return identical.get() ? VerificationStatus.OK : VerificationStatus.MISMATCH;
+    }
+
+    /**
+     * Counts the result of an entry and passes it to the callback, with the entry name as file.
+     *
+     * @param summary the summary to update
+     * @param callback receives the result
+     * @param entry the entry of the manifest
+     * @param name the name of the entry inside the archive
+     * @param status the status of the verification
+     */
+    private static void report(VerificationSummary summary, Consumer<VerificationResult> callback,
+                               VerificationEntry entry, String name, VerificationStatus status) {
+        VerificationEntry archived = new VerificationEntry(new File(name), entry.getChecksum(),
+                entry.getExpectedChecksum());
+        VerificationResult result = new VerificationResult(archived, status);
+        summary.record(result);
+        synchronized (callback) {
+            callback.accept(result);
+        }
+    }
+
+    /**
+     * Converts a file resolved by the {@link ManifestReader} back into the name of an archive entry.
+     *
+     * @param baseDir the directory of the manifest
+     * @param file the resolved file
+     * @return the name relative to the manifest with '/' as separator
+     */
+    private static String getEntryName(Path baseDir, Path file) {
+        return normalizeEntryName(baseDir.relativize(file.normalize()).toString().replace(File.separatorChar, '/'));
+    }
+
+    /**
+     * Removes redundant parts like './' from an entry name, since archivers differ in how they write them.
+     *
+     * @param name the name of the entry
+     * @return the normalized name
+     */
+    private static String normalizeEntryName(String name) {
+        String normalized = Path.of(name).normalize().toString().replace(File.separatorChar, '/');
+        while (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        return normalized;
+    }
+}
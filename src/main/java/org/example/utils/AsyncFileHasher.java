@@ -0,0 +1,161 @@
+package org.example.utils;
+
+import org.example.utils.engine.Hasher;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hashes a file read through an {@link AsynchronousFileChannel} with two buffers, so that the next block is already
+ * being read while the current one is digested.
+ *
+ * A buffer is digested as soon as both its read has completed and the previous buffer has been digested. Whichever of
+ * both happens last continues with the digest, so no thread ever waits for the other one. The digests thus run on the
+ * threads completing the reads, i.e. the executor of the channel.
+ */
+final class AsyncFileHasher implements CompletionHandler<Integer, Integer> {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    /**
+     * The size of each of both buffers for files which are larger.
+     */
+    static final int BUFFER_SIZE = 1024 * 1024;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final AsynchronousFileChannel channel;
+    private final Hasher hasher;
+    private final Consumer<ByteBuffer> consumer;
+    private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+    private final ByteBuffer[] buffers;
+    private final int[] lengths = new int[2];
+
+    /**
+     * The number of conditions each buffer still waits for before it is digested.
+     */
+    private final AtomicInteger[] gates = { new AtomicInteger(), new AtomicInteger() };
+
+    /**
+     * Only used by the thread digesting, the gates pass it safely from one thread to the next.
+     */
+    private long position;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    /**
+     * @param channel the channel to read from its start until its end
+     * @param hasher the hasher to finish at the end
+     * @param consumer updates the hasher with each block
+     * @param bufferSize the size of each buffer
+     */
+    AsyncFileHasher(AsynchronousFileChannel channel, Hasher hasher, Consumer<ByteBuffer> consumer, int bufferSize) {
+        this.channel = channel;
+        this.hasher = hasher;
+        this.consumer = consumer;
+        this.buffers = new ByteBuffer[] { ByteBuffer.allocateDirect(bufferSize), ByteBuffer.allocateDirect(bufferSize) };
+    }
+
+    /*==================================================*
+     *==              PACKAGE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Starts reading the first block.
+     *
+     * @return the future hash, which fails with the cause of the first failed read and stops reading if cancelled
+     */
+    CompletableFuture<byte[]> start() {
+        gates[0].set(1);
+        read(0);
+        return result;
+    }
+
+    /**
+     * Returns the number of bytes read so far.
+     *
+     * @return the number of bytes, which is the size of the file after the hash has been completed
+     */
+    long getBytes() {
+        return position;
+    }
+
+    /*==================================================*
+     *==              COMPLETION HANDLER              ==*
+     *==================================================*/
+
+    @Override
+    public void completed(Integer length, Integer slot) {
+        lengths[slot] = length;
+        if (gates[slot].decrementAndGet() == 0) {
+            digestFrom(slot);
+        }
+    }
+
+    @Override
+    public void failed(Throwable e, Integer slot) {
+        result.completeExceptionally(e);
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Starts reading the next block into the given buffer.
+     *
+     * @param slot the index of the buffer
+     */
+    private void read(int slot) {
+        buffers[slot].clear();
+        try {
+            channel.read(buffers[slot], position, slot, this);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Digests the given buffer and each following one whose read has already completed meanwhile.
+     *
+     * @param slot the index of the first buffer to digest
+     */
+    private void digestFrom(int slot) {
+        try {
+            while (!result.isDone()) {
+
+                // the end of the file has been reached
+                if (lengths[slot] <= 0) {
+                    result.complete(hasher.digest());
+                    return;
+                }
+
+                // read ahead into the other buffer before digesting this one
+                int next = 1 - slot;
+                position += lengths[slot];
+                gates[next].set(2);
+                read(next);
+                consumer.accept(buffers[slot].flip());
+
+                // continue only if the next read has already completed, else its completion continues
+                if (gates[next].decrementAndGet() != 0) {
+                    return;
+                }
+                slot = next;
+            }
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+}
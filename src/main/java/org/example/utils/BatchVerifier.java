@@ -0,0 +1,278 @@
+package org.example.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.model.Checksum;
+import org.example.model.ReadStrategy;
+import org.example.model.VerificationEntry;
+import org.example.model.VerificationResult;
+import org.example.model.VerificationStatus;
+import org.example.model.VerificationSummary;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Verifies many files concurrently on a bounded pool of workers.
+ *
+ * The entries to verify are consumed lazily, so arbitrarily long lists can be verified with constant memory. Each
+ * result is passed to a callback as soon as it is available and counted in a {@link VerificationSummary}.
+ */
+public class BatchVerifier {
+
+    /*==================================================*
+     *==                   LOGGER                     ==*
+     *==================================================*/
+
+    private static final Logger LOGGER = LogManager.getLogger(BatchVerifier.class);
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    /**
+     * The default number of files read at the same time, per solid-state drive when verifying batches.
+     */
+    public static final int DEFAULT_CONCURRENCY = Math.min(8, Runtime.getRuntime().availableProcessors());
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final IoScheduler scheduler;
+    private HashCache cache;
+    private ReadStrategy readStrategy = ReadStrategy.AUTO;
+
+    /**
+     * Each worker reuses its own computers since those are not thread-safe.
+     */
+    private final ThreadLocal<EnumMap<Checksum, ChecksumComputer>> computers =
+            ThreadLocal.withInitial(() -> new EnumMap<>(Checksum.class));
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    public BatchVerifier() {
+        this(DEFAULT_CONCURRENCY);
+    }
+
+    public BatchVerifier(int concurrency) {
+        this(concurrency, IoScheduler.DEFAULT_HDD_CONCURRENCY);
+    }
+
+    /**
+     * @param concurrency the maximum number of files read at the same time per solid-state drive
+     * @param hddConcurrency the maximum number of files read at the same time per rotational disk or network volume
+     */
+    public BatchVerifier(int concurrency, int hddConcurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+        }
+        this.scheduler = new IoScheduler(concurrency, hddConcurrency);
+    }
+
+    /*==================================================*
+     *==                 ACCESSORS                    ==*
+     *==================================================*/
+
+    /**
+     * Sets the cache used to look up the checksums of unchanged files instead of reading them again.
+     *
+     * @param cache the cache to use or null to always read the files
+     */
+    public void setHashCache(HashCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Sets how the files are read, e.g. {@link ReadStrategy#DIRECT} for verifying cold data without evicting the page
+     * cache of other processes. Must be set before verifying.
+     *
+     * @param readStrategy the strategy used by all workers
+     */
+    public void setReadStrategy(ReadStrategy readStrategy) {
+        this.readStrategy = readStrategy;
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Verifies all given entries concurrently.
+     *
+     * The entries are only requested as fast as the workers process them. The callback is never called by more than
+     * one thread at once.
+     *
+     * @param entries the entries to verify
+     * @param callback receives the result of each entry as soon as it is available
+     * @return the summary of all results
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public VerificationSummary verify(Iterable<VerificationEntry> entries, Consumer<VerificationResult> callback)
+            throws InterruptedException {
+        return verify(entries.iterator(), callback);
+    }
+
+    /**
+     * Verifies all files inside the given directory tree for which a sidecar file like 'file.sha256' exists.
+     *
+     * Each sidecar file is verified against the file with the same name without the sidecar's extension.
+     *
+     * @param root the directory to verify
+     * @param callback receives the result of each file as soon as it is available
+     * @return the summary of all results
+     * @throws IOException if the directory cannot be traversed
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public VerificationSummary verifyDirectory(Path root, Consumer<VerificationResult> callback)
+            throws IOException, InterruptedException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            Iterator<VerificationEntry> entries = paths
+                    .filter(Files::isRegularFile)
+                    .map(BatchVerifier::readSidecar)
+                    .flatMap(Optional::stream)
+                    .iterator();
+            return verify(entries, callback);
+        }
+    }
+
+    /**
+     * Verifies all entries of the given manifest like 'SHA256SUMS' while reading the manifest lazily.
+     *
+     * @param manifest the manifest in GNU or BSD format
+     * @param callback receives the result of each entry as soon as it is available
+     * @return the summary of all results including the number of skipped malformed lines
+     * @throws IOException if the manifest cannot be read
+     * @throws InterruptedException if interrupted while waiting for the workers
+     * @see ManifestReader
+     */
+    public VerificationSummary verifyManifest(Path manifest, Consumer<VerificationResult> callback)
+            throws IOException, InterruptedException {
+        try (ManifestReader entries = new ManifestReader(manifest)) {
+            VerificationSummary summary = verify(entries, callback);
+            summary.recordSkipped(entries.getMalformedLines());
+            return summary;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Creates the entry described by the given sidecar file, e.g. 'image.iso.sha256' for the file 'image.iso'.
+     *
+     * The sidecar's algorithm is determined by its extension and its checksum is the first word of its content, so
+     * both plain checksums and the output of tools like 'sha256sum' are supported.
+     *
+     * @param sidecar the possible sidecar file
+     * @return the entry described by the sidecar or empty if the file is not a valid sidecar
+     */
+    public static Optional<VerificationEntry> readSidecar(Path sidecar) {
+
+        // check if the file extension belongs to a known algorithm
+        String name = sidecar.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+
+        String extension = name.substring(dot + 1);
+        for (Checksum alg : Checksum.values()) {
+            if (alg.getFileExtension().equalsIgnoreCase(extension)) {
+
+                // read the first word of the sidecar as expected checksum
+                Optional<String> expected = readFirstWord(sidecar);
+                if (expected.isPresent()) {
+                    Path target = sidecar.resolveSibling(name.substring(0, dot));
+                    return Optional.of(new VerificationEntry(target.toFile(), alg, expected.get()));
+                }
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Verifies the entries provided by the given iterator through the {@link #scheduler}, reading up to the
+     * concurrency given to the constructor per solid-state drive and fewer files per rotational disk.
+     *
+     * @param entries the entries to verify
+     * @param callback receives the result of each entry
+     * @return the summary of all results
+     * @throws InterruptedException if interrupted while waiting for the workers
+     * @see IoScheduler
+     */
+    private VerificationSummary verify(Iterator<VerificationEntry> entries, Consumer<VerificationResult> callback)
+            throws InterruptedException {
+
+        VerificationSummary summary = new VerificationSummary();
+
+        // the scheduler only requests as many entries as fit into its window
+        scheduler.run(entries, entry -> entry.getFile().toPath(), entry -> {
+            VerificationResult result = new VerificationResult(entry, verifyEntry(entry));
+            summary.record(result);
+            synchronized (callback) {
+                callback.accept(result);
+            }
+        });
+
+        return summary;
+    }
+
+    /**
+     * Verifies a single entry with the computer of the current worker.
+     *
+     * @param entry the entry to verify
+     * @return the status of the verification
+     */
+    private VerificationStatus verifyEntry(VerificationEntry entry) {
+
+        // no need to read anything for non-existing files
+        if (!entry.getFile().exists()) {
+            return VerificationStatus.MISSING;
+        }
+
+        // compare with the expected checksum
+        ChecksumComputer comp = computers.get().computeIfAbsent(entry.getChecksum(),
+                checksum -> new ChecksumComputer(checksum, readStrategy));
+        comp.setHashCache(cache);
+        Optional<Boolean> identical = comp.verifyChecksum(entry.getFile(), entry.getExpectedChecksum());
+
+        if (identical.isEmpty()) {
+            return VerificationStatus.UNREADABLE;
+        }
+        return identical.get() ? VerificationStatus.OK : VerificationStatus.MISMATCH;
+    }
+
+    /**
+     * Reads the first word of the given text file.
+     *
+     * @param file the file to read
+     * @return the first word or empty if the file is empty or cannot be read
+     */
+    private static Optional<String> readFirstWord(Path file) {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line != null && !line.isBlank()) {
+                return Optional.of(line.trim().split("\\s+", 2)[0]);
+            }
+        } catch (IOException e) {
+            LOGGER.error(e.getMessage());
+        }
+        return Optional.empty();
+    }
+}
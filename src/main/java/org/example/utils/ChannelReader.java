@@ -0,0 +1,368 @@
+package org.example.utils;
+
+import com.sun.nio.file.ExtendedOpenOption;
+import org.example.model.ReadStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Reads files through a {@link FileChannel} and passes the content block by block to a consumer, e.g. a
+ * {@link java.security.MessageDigest}.
+ *
+ * Large files are mapped into memory window by window, small files are read through a direct buffer. Each thread keeps
+ * its idle buffer for the next read of any instance, since allocating direct memory is expensive compared to reading a
+ * small file. Therefore, an instance may be used by multiple threads at once.
+ *
+ * With {@link ReadStrategy#DIRECT}, files are read with direct I/O into a buffer aligned to the block size of the file
+ * system. This keeps bulk reads out of the page cache at the cost of the kernel's read-ahead, so it is usually slower
+ * for a single file on a fast device, see the 'ColdReadBenchmark'.
+ */
+public class ChannelReader {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    /**
+     * Files of at least this size are memory-mapped when using {@link ReadStrategy#AUTO}.
+     */
+    public static final long MAPPING_THRESHOLD = 16L * 1024 * 1024;
+
+    /**
+     * The size of a single memory-mapped window.
+     */
+    public static final long MAPPING_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Mapped windows are passed to the consumer in slices of this size, so that progress is reported and
+     * cancellation is checked regularly.
+     */
+    public static final int MAPPING_SLICE_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * The default size of the direct buffer used for {@link ReadStrategy#BUFFERED}.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 128 * 1024;
+
+    /**
+     * The minimum size of the aligned buffer used for {@link ReadStrategy#DIRECT}, which is larger than the default
+     * buffer since direct reads are not complemented by read-ahead.
+     */
+    public static final int DIRECT_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * The idle buffers of each thread, a buffer is removed while in use so that nested reads get their own one.
+     */
+    private static final ThreadLocal<ByteBuffer> IDLE_BUFFERS = new ThreadLocal<>();
+    private static final ThreadLocal<ByteBuffer> IDLE_ALIGNED_BUFFERS = new ThreadLocal<>();
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final ReadStrategy strategy;
+    private final int bufferSize;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    public ChannelReader(ReadStrategy strategy) {
+        this(strategy, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ChannelReader(ReadStrategy strategy, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        this.strategy = strategy;
+        this.bufferSize = bufferSize;
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Reads the whole given file and passes each block to the given consumer.
+     *
+     * The consumer is expected to process all remaining bytes of a block before returning since the buffer may be
+     * refilled afterwards.
+     *
+     * @param file the file to read
+     * @param consumer the consumer receiving each block of the file
+     * @throws IOException if the file cannot be opened or read
+     */
+    public void read(File file, Consumer<ByteBuffer> consumer) throws IOException {
+        read(file, consumer, ProgressListener.NONE);
+    }
+
+    /**
+     * Reads the whole given file, passes each block to the given consumer and reports the progress.
+     *
+     * Reading stops with an {@link InterruptedIOException} as soon as the current thread is interrupted.
+     *
+     * @param file the file to read
+     * @param consumer the consumer receiving each block of the file
+     * @param listener the listener receiving the progress after each block
+     * @throws IOException if the file cannot be opened or read or reading is interrupted
+     */
+    public void read(File file, Consumer<ByteBuffer> consumer, ProgressListener listener) throws IOException {
+
+        // bypass the page cache if requested and supported, else read like BUFFERED
+        if (strategy == ReadStrategy.DIRECT && readDirect(file.toPath(), consumer, listener)) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+
+            // choose the read strategy by the file size if not set explicitly
+            long size = channel.size();
+
+            if (resolveStrategy(size) == ReadStrategy.MAPPED) {
+                readMapped(channel, 0, size, consumer, listener);
+            } else {
+                readBuffered(channel, -1, size, consumer, listener);
+            }
+        }
+    }
+
+    /**
+     * Reads the given range of the file, passes each block to the given consumer and reports the progress within the
+     * range.
+     *
+     * Ranges are read like {@link ReadStrategy#AUTO} chooses for their length, {@link ReadStrategy#DIRECT} is not
+     * supported since the range is not aligned to the file system's blocks in general. A range reaching beyond the end
+     * of the file ends with the file.
+     *
+     * @param file the file to read
+     * @param offset the position of the first byte to read
+     * @param length the maximum number of bytes to read
+     * @param consumer the consumer receiving each block of the range
+     * @param listener the listener receiving the progress after each block
+     * @throws IOException if the file cannot be opened or read or reading is interrupted
+     */
+    public void read(File file, long offset, long length, Consumer<ByteBuffer> consumer, ProgressListener listener)
+            throws IOException {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Invalid range: " + offset + "+" + length);
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long end = offset + Math.min(length, Math.max(0, channel.size() - offset));
+            ReadStrategy resolved = strategy == ReadStrategy.MAPPED ? strategy
+                    : end - offset >= MAPPING_THRESHOLD ? ReadStrategy.MAPPED : ReadStrategy.BUFFERED;
+
+            if (resolved == ReadStrategy.MAPPED) {
+                readMapped(channel, offset, end, consumer, listener);
+            } else {
+                readBuffered(channel.position(offset), end - offset, end - offset, consumer, listener);
+            }
+        }
+    }
+
+    /**
+     * Reads the given channel until its end through the reusable direct buffer and passes each block to the given
+     * consumer, e.g. for data from a pipe or a socket which cannot be mapped.
+     *
+     * The channel is not closed.
+     *
+     * @param channel the channel to read
+     * @param consumer the consumer receiving each block of the channel
+     * @throws IOException if the channel cannot be read or reading is interrupted
+     */
+    public void read(ReadableByteChannel channel, Consumer<ByteBuffer> consumer) throws IOException {
+        readBuffered(channel, -1, -1, consumer, ProgressListener.NONE);
+    }
+
+    /**
+     * Returns the strategy actually used for a file of the given size.
+     *
+     * @param size the size of the file in bytes
+     * @return {@link ReadStrategy#MAPPED}, {@link ReadStrategy#BUFFERED} or {@link ReadStrategy#DIRECT}
+     */
+    public ReadStrategy resolveStrategy(long size) {
+        if (strategy == ReadStrategy.AUTO) {
+            return size >= MAPPING_THRESHOLD ? ReadStrategy.MAPPED : ReadStrategy.BUFFERED;
+        }
+        return strategy;
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Maps the given range of the channel window by window into memory and passes each window slice by slice to the
+     * consumer.
+     *
+     * @param channel the channel to read
+     * @param start the position of the first byte to read
+     * @param end the position after the last byte to read, at most the size of the channel's file
+     * @param consumer the consumer receiving each window
+     * @param listener the listener receiving the progress within the range
+     * @throws IOException if a window cannot be mapped or reading is interrupted
+     */
+    private void readMapped(FileChannel channel, long start, long end, Consumer<ByteBuffer> consumer,
+                            ProgressListener listener) throws IOException {
+        for (long position = start; position < end; position += MAPPING_WINDOW_SIZE) {
+            long length = Math.min(MAPPING_WINDOW_SIZE, end - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+            // pass the window slice by slice
+            for (int offset = 0; offset < length; offset += MAPPING_SLICE_SIZE) {
+                checkInterrupted();
+                int sliceLength = (int) Math.min(MAPPING_SLICE_SIZE, length - offset);
+                consumer.accept(window.slice(offset, sliceLength));
+                listener.onProgress(position - start + offset + sliceLength, end - start);
+            }
+        }
+    }
+
+    /**
+     * Reads the channel through the reusable direct buffer and passes each filled buffer to the consumer.
+     *
+     * @param channel the channel to read
+     * @param limit the maximum number of bytes to read or -1 for reading until the end of the channel
+     * @param size the size of the channel's file or -1 if unknown
+     * @param consumer the consumer receiving each block
+     * @param listener the listener receiving the progress
+     * @throws IOException if the channel cannot be read or reading is interrupted
+     */
+    private void readBuffered(ReadableByteChannel channel, long limit, long size, Consumer<ByteBuffer> consumer,
+                              ProgressListener listener) throws IOException {
+
+        // borrow the idle buffer of this thread since allocating direct memory is expensive
+        ByteBuffer idle = IDLE_BUFFERS.get();
+        IDLE_BUFFERS.remove();
+        ByteBuffer buffer = idle != null && idle.capacity() == bufferSize ? idle : ByteBuffer.allocateDirect(bufferSize);
+
+        try {
+            // go through each block and pass it to the consumer
+            long position = 0;
+            int length;
+
+            while (limit < 0 || position < limit) {
+
+                // never read beyond the limit, so that ranges end exactly
+                buffer.clear();
+                if (limit >= 0) {
+                    buffer.limit((int) Math.min(buffer.capacity(), limit - position));
+                }
+                if ((length = channel.read(buffer)) < 0) {
+                    break;
+                }
+
+                buffer.flip();
+                consumer.accept(buffer);
+
+                position += length;
+                listener.onProgress(position, size);
+            }
+        } finally {
+            IDLE_BUFFERS.set(buffer);
+        }
+    }
+
+    /**
+     * Reads the file with direct I/O through the reusable aligned buffer and passes each filled buffer to the consumer.
+     *
+     * Direct I/O requires the buffer, the file position and the length of each read to be aligned to the block size.
+     * Therefore, the buffer is always filled completely, only the last read at the end of the file may be shorter.
+     *
+     * @param path the file to read
+     * @param consumer the consumer receiving each block
+     * @param listener the listener receiving the progress
+     * @return false if the file system does not support direct I/O and nothing has been read, else true
+     * @throws IOException if the file cannot be read or reading is interrupted
+     */
+    private boolean readDirect(Path path, Consumer<ByteBuffer> consumer, ProgressListener listener) throws IOException {
+        int blockSize;
+        FileChannel channel;
+        try {
+            blockSize = Math.toIntExact(Files.getFileStore(path).getBlockSize());
+            channel = FileChannel.open(path, StandardOpenOption.READ, ExtendedOpenOption.DIRECT);
+        } catch (UnsupportedOperationException | ArithmeticException | IOException e) {
+            return false;
+        }
+
+        ByteBuffer aligned = borrowAlignedBuffer(blockSize);
+        try (channel) {
+            long size = channel.size();
+            long position = 0;
+
+            while (position < size) {
+                aligned.clear();
+                try {
+                    while (aligned.hasRemaining() && channel.read(aligned, position + aligned.position()) > 0) {
+                        // continue until the buffer is full or the end of the file has been reached
+                    }
+                } catch (ClosedChannelException e) {
+                    throw e;
+                } catch (IOException e) {
+
+                    // some file systems accept the option, but reject the reads
+                    if (position == 0) {
+                        return false;
+                    }
+                    throw e;
+                }
+
+                if (aligned.position() == 0) {
+                    break;
+                }
+                aligned.flip();
+                position += aligned.remaining();
+                consumer.accept(aligned);
+                listener.onProgress(position, size);
+            }
+        } finally {
+            IDLE_ALIGNED_BUFFERS.set(aligned);
+        }
+        return true;
+    }
+
+    /**
+     * Borrows the idle buffer for direct I/O of this thread if it is aligned to the given block size, else allocates a
+     * new one.
+     *
+     * @param blockSize the block size of the file system
+     * @return the aligned buffer with a capacity of a multiple of the block size
+     */
+    private ByteBuffer borrowAlignedBuffer(int blockSize) {
+        int size = Math.max(bufferSize, DIRECT_BUFFER_SIZE);
+        size += (blockSize - size % blockSize) % blockSize;
+
+        // allocate one block more, so that the aligned slice has the full size
+        ByteBuffer idle = IDLE_ALIGNED_BUFFERS.get();
+        IDLE_ALIGNED_BUFFERS.remove();
+        if (idle != null && idle.capacity() == size && idle.alignmentOffset(0, blockSize) == 0) {
+            return idle;
+        }
+        return ByteBuffer.allocateDirect(size + blockSize).alignedSlice(blockSize).limit(size).slice();
+    }
+
+    /**
+     * Stops reading if the current thread has been interrupted, e.g. because the user cancelled the computation.
+     *
+     * Reading from the channel checks this by itself, but processing mapped memory does not.
+     *
+     * @throws InterruptedIOException if the current thread has been interrupted
+     */
+    private static void checkInterrupted() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Reading has been interrupted");
+        }
+    }
+}
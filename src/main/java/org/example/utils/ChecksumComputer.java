@@ -3,12 +3,33 @@ package org.example.utils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.example.model.Checksum;
+import org.example.model.HashResult;
+import org.example.model.ReadStrategy;
+import org.example.utils.engine.HashEngine;
+import org.example.utils.engine.HashEngines;
+import org.example.utils.engine.Hasher;
+import org.example.utils.metrics.HashMetrics;
 
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 
 public class ChecksumComputer {
 
@@ -18,18 +39,69 @@ public class ChecksumComputer {
 
     private static final Logger LOGGER = LogManager.getLogger(ChecksumComputer.class);
 
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    /**
+     * Files of at least this size are hashed on one thread per algorithm when computing multiple checksums at once.
+     */
+    public static final long PARALLEL_DIGEST_THRESHOLD = 4L * 1024 * 1024;
+
+    private static final HexFormat HEX = HexFormat.of();
+
     /*==================================================*
      *==                   FIELDS                     ==*
      *==================================================*/
 
     private Checksum checksum;
+    private ChannelReader reader;
+    private HashCache cache;
+    private HashMetrics metrics = HashMetrics.global();
+    private ExecutorService executor;
 
     /*==================================================*
      *==                CONSTRUCTORS                  ==*
      *==================================================*/
 
     public ChecksumComputer(Checksum checksum) {
+        this(checksum, ReadStrategy.AUTO);
+    }
+
+    public ChecksumComputer(Checksum checksum, ReadStrategy readStrategy) {
         this.checksum = checksum;
+        this.reader = new ChannelReader(readStrategy);
+    }
+
+    /*==================================================*
+     *==                 ACCESSORS                    ==*
+     *==================================================*/
+
+    /**
+     * Sets the cache used to look up the checksums of unchanged files instead of reading them again.
+     *
+     * @param cache the cache to use or null to always read the files
+     */
+    public void setHashCache(HashCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Sets the metrics recording the bytes, latencies and errors, by default the {@link HashMetrics#global()} ones.
+     *
+     * @param metrics the metrics to record
+     */
+    public void setMetrics(HashMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the executor which reads and digests the files of the asynchronous methods.
+     *
+     * @param executor the executor or null for the default thread pool of asynchronous channels
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
     }
 
     /*==================================================*
@@ -43,12 +115,25 @@ public class ChecksumComputer {
      * @return the checksum as string or empty
      */
     public Optional<String> getChecksum(File file) {
+        return getChecksum(file, ProgressListener.NONE);
+    }
+
+    /**
+     * Computes the checksum for the given file and returns it as string while reporting the progress.
+     *
+     * The computation stops and returns empty as soon as the current thread is interrupted.
+     *
+     * @param file the file for which the checksum is to be computed
+     * @param listener the listener receiving the progress after each processed block
+     * @return the checksum as string or empty
+     */
+    public Optional<String> getChecksum(File file, ProgressListener listener) {
 
         // init return value with empty for the case there occurs an error while processing the file
         Optional<String> checksum = Optional.empty();
 
         // get hash of file as byte array
-        Optional<byte[]> hash = this.getByteChecksumFromFile(this.checksum.getAlgorithm(), file);
+        Optional<byte[]> hash = this.getByteChecksumFromFile(this.checksum, file, listener);
 
         // convert the byte array to the string to be returned
         if (hash.isPresent()) {
@@ -59,6 +144,105 @@ public class ChecksumComputer {
         return checksum;
     }
 
+    /**
+     * Computes the checksum of a range of the given file, e.g. the used part of a disk image or one part of a split
+     * download.
+     *
+     * The bytes of the range are hashed exactly like a file with the same content. Ranges are never looked up in the
+     * hash cache.
+     *
+     * @param file the file for which the checksum is to be computed
+     * @param offset the position of the first byte to hash
+     * @param length the maximum number of bytes to hash, a range beyond the end of the file ends with the file
+     * @return the checksum as string or empty
+     */
+    public Optional<String> getChecksum(File file, long offset, long length) {
+        return this.getByteChecksumFromRange(file, offset, length).map(this::convertByteArrayToHexString);
+    }
+
+    /**
+     * Computes the checksum of all data of the given stream, e.g. stdin or a decompressor, without storing it.
+     *
+     * The stream is read until its end but not closed.
+     *
+     * @param in the stream to hash
+     * @return the checksum as string or empty
+     */
+    public Optional<String> getChecksum(InputStream in) {
+        return getChecksum(Channels.newChannel(in));
+    }
+
+    /**
+     * Computes the checksum of all data of the given channel, e.g. a pipe or a socket, without storing it.
+     *
+     * The channel is read until its end but not closed.
+     *
+     * @param channel the channel to hash
+     * @return the checksum as string or empty
+     */
+    public Optional<String> getChecksum(ReadableByteChannel channel) {
+        return this.getByteChecksumFromChannel(channel).map(this::convertByteArrayToHexString);
+    }
+
+    /**
+     * Computes the checksums of all given algorithms for the given file while reading the file only once.
+     *
+     * Large files are hashed by one thread per algorithm, so the time needed is close to the time of the slowest
+     * algorithm alone.
+     *
+     * @param file the file for which the checksums are to be computed
+     * @param checksums the algorithms to compute
+     * @return the checksums as strings per algorithm or empty
+     */
+    public Optional<EnumMap<Checksum, String>> getChecksums(File file, Set<Checksum> checksums) {
+
+        // init return value with empty for the case there occurs an error while processing the file
+        Optional<EnumMap<Checksum, String>> result = Optional.empty();
+
+        // get hashes of file as byte arrays
+        Optional<EnumMap<Checksum, byte[]>> hashes = this.getByteChecksumsFromFile(checksums, file);
+
+        // convert the byte arrays to the strings to be returned
+        if (hashes.isPresent()) {
+            EnumMap<Checksum, String> converted = new EnumMap<>(Checksum.class);
+            hashes.get().forEach((alg, hash) -> converted.put(alg, this.convertByteArrayToHexString(hash)));
+            result = Optional.of(converted);
+        }
+
+        // return the checksums as strings or empty if an error had occurred
+        return result;
+    }
+
+    /**
+     * Computes the checksum of the given file with the engine of the given name, which is resolved through
+     * {@link HashEngines}, so that also engines registered as service by other libraries and all
+     * {@link MessageDigest} algorithms like 'SHA3-256' can be used.
+     *
+     * The algorithm of this computer is not used and the checksum is neither looked up in nor added to the hash cache.
+     *
+     * @param file the file for which the checksum is to be computed
+     * @param algorithm the name of the engine, e.g. 'SHA3-256'
+     * @return the checksum as string or empty if no engine supports the algorithm or an error occurred
+     */
+    public Optional<String> getChecksum(File file, String algorithm) {
+        return this.getByteChecksumFromEngine(algorithm, file).map(this::convertByteArrayToHexString);
+    }
+
+    /**
+     * Compares the checksum of the given file computed with the engine of the given name with the target checksum, see
+     * {@link #getChecksum(File, String)}.
+     *
+     * @param file the file for which the checksum should be verified
+     * @param algorithm the name of the engine, e.g. 'SHA3-256'
+     * @param targetChecksum the should-be checksum
+     * @return true or false when comparison succeeds, else empty
+     */
+    public Optional<Boolean> verifyChecksum(File file, String algorithm, String targetChecksum) {
+        Optional<byte[]> targetHash = convertHexStringToByteArray(targetChecksum);
+        return this.getByteChecksumFromEngine(algorithm, file)
+                .map(actualHash -> targetHash.isPresent() && MessageDigest.isEqual(targetHash.get(), actualHash));
+    }
+
     /**
      * Compares the checksum of the given file with the given target checksum.
      *
@@ -67,20 +251,167 @@ public class ChecksumComputer {
      * @return true or false when comparison succeeds, else empty
      */
     public Optional<Boolean> verifyChecksum(File file, String targetChecksum) {
+        return verifyChecksum(file, targetChecksum, ProgressListener.NONE);
+    }
+
+    /**
+     * Compares the checksum of the given file with the given target checksum while reporting the progress.
+     *
+     * The computation stops and returns empty as soon as the current thread is interrupted.
+     *
+     * @param file the file for which the checksum should be verified
+     * @param targetChecksum the should-be checksum
+     * @param listener the listener receiving the progress after each processed block
+     * @return true or false when comparison succeeds, else empty
+     */
+    public Optional<Boolean> verifyChecksum(File file, String targetChecksum, ProgressListener listener) {
 
         // init result with empty if an error occurs while comparing
         Optional<Boolean> result = Optional.empty();
 
-        // compare if possible
-        Optional<String> actualChecksum = getChecksum(file);
-        if (actualChecksum.isPresent()) {
-            result = Optional.of(targetChecksum.equals(actualChecksum.get()));
+        // decode the target checksum once, a malformed one can never match so the file does not need to be read
+        Optional<byte[]> targetHash = convertHexStringToByteArray(targetChecksum);
+        if (targetHash.isEmpty() && file.isFile()) {
+            return Optional.of(false);
+        }
+
+        // compare the raw checksums if possible, regardless of the target's upper or lower case
+        Optional<byte[]> actualHash = this.getByteChecksumFromFile(this.checksum, file, listener);
+        if (actualHash.isPresent()) {
+            result = Optional.of(targetHash.isPresent() && MessageDigest.isEqual(targetHash.get(), actualHash.get()));
         }
 
         // return true or false when comparison succeeded, else empty
         return result;
     }
 
+    /**
+     * Compares the checksum of a range of the given file with the given target checksum.
+     *
+     * @param file the file for which the checksum should be verified
+     * @param offset the position of the first byte to hash
+     * @param length the maximum number of bytes to hash
+     * @param targetChecksum the should-be checksum
+     * @return true or false when comparison succeeds, else empty
+     * @see #getChecksum(File, long, long)
+     */
+    public Optional<Boolean> verifyChecksum(File file, long offset, long length, String targetChecksum) {
+        Optional<byte[]> targetHash = convertHexStringToByteArray(targetChecksum);
+        return this.getByteChecksumFromRange(file, offset, length)
+                .map(actualHash -> targetHash.isPresent() && MessageDigest.isEqual(targetHash.get(), actualHash));
+    }
+
+    /**
+     * Compares the checksum of all data of the given stream with the given target checksum.
+     *
+     * The stream is read until its end but not closed.
+     *
+     * @param in the stream to verify
+     * @param targetChecksum the should-be checksum
+     * @return true or false when comparison succeeds, else empty
+     */
+    public Optional<Boolean> verifyChecksum(InputStream in, String targetChecksum) {
+        Optional<byte[]> targetHash = convertHexStringToByteArray(targetChecksum);
+
+        // the stream is read anyway, so that a producer writing into a pipe does not block
+        return this.getByteChecksumFromChannel(Channels.newChannel(in))
+                .map(actualHash -> targetHash.isPresent() && MessageDigest.isEqual(targetHash.get(), actualHash));
+    }
+
+    /**
+     * Computes the checksum of the given file without blocking the calling thread.
+     *
+     * The file is read through an {@link AsynchronousFileChannel} on the configured executor, while one block is
+     * digested the next one is already being read. Unlike the synchronous methods, errors are not logged but complete
+     * the future exceptionally with their cause, e.g. a {@link java.nio.file.NoSuchFileException} or an
+     * {@link java.nio.file.AccessDeniedException}. Cancelling the future stops reading.
+     *
+     * @param file the file for which the checksum is to be computed
+     * @return the future checksum
+     */
+    public CompletableFuture<HashResult> getChecksumAsync(Path file) {
+        Checksum checksum = this.checksum;
+        HashCache cache = this.cache;
+        HashMetrics metrics = this.metrics;
+
+        // use the cached checksum if the file has not changed
+        Optional<HashCache.FileState> state = this.getFileState(file.toFile());
+        if (state.isPresent()) {
+            Optional<byte[]> cached = cache.get(state.get(), checksum);
+            if (cached.isPresent()) {
+                metrics.recordCacheHit();
+                return CompletableFuture.completedFuture(new HashResult(file, checksum, cached.get(), -1));
+            }
+            metrics.recordCacheMiss();
+        }
+
+        // open the channel and borrow a hasher on the calling thread, so that these errors are reported at once
+        AsynchronousFileChannel channel;
+        Hasher pooled;
+        AsyncFileHasher reader;
+        try {
+            pooled = HasherPool.acquire(checksum);
+            channel = this.executor != null
+                    ? AsynchronousFileChannel.open(file, Set.of(StandardOpenOption.READ), this.executor)
+                    : AsynchronousFileChannel.open(file, StandardOpenOption.READ);
+            int bufferSize = (int) Math.max(1, Math.min(channel.size(), AsyncFileHasher.BUFFER_SIZE));
+            Hasher hasher = metrics.timeDigests(checksum.name(), pooled);
+            reader = new AsyncFileHasher(channel, hasher, metrics.timeReads(hasher::update), bufferSize);
+        } catch (Exception e) {
+            metrics.recordError();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<byte[]> digest = reader.start();
+        digest.whenComplete((hash, e) -> closeQuietly(channel));
+        CompletableFuture<HashResult> result = digest.handle((hash, e) -> {
+            if (e != null) {
+                metrics.recordError();
+                throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+            }
+
+            // the hasher is only given back after a successful digest
+            HasherPool.release(checksum, pooled);
+            metrics.recordFile();
+            state.ifPresent(s -> cache.put(s, checksum, hash));
+            return new HashResult(file, checksum, hash, reader.getBytes());
+        });
+
+        // the caller only knows the last stage, so its cancellation must reach the reader
+        result.whenComplete((hash, e) -> {
+            if (result.isCancelled()) {
+                digest.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Compares the checksum of the given file with the given target checksum without blocking the calling thread.
+     *
+     * @param file the file for which the checksum should be verified
+     * @param targetChecksum the should-be checksum
+     * @return the future result of the comparison, which fails like {@link #getChecksumAsync(Path)}
+     */
+    public CompletableFuture<Boolean> verifyChecksumAsync(Path file, String targetChecksum) {
+        return this.getChecksumAsync(file).thenApply(result -> result.matches(targetChecksum));
+    }
+
+    /**
+     * Compares two checksums given as hexadecimal strings like the verification does, i.e. by their bytes regardless of
+     * upper or lower case and surrounding whitespace.
+     *
+     * @param actualChecksum the computed checksum
+     * @param targetChecksum the should-be checksum
+     * @return true if both are valid and equal, false if they differ or one of them is malformed
+     */
+    public static boolean isSameChecksum(String actualChecksum, String targetChecksum) {
+        Optional<byte[]> actualHash = convertHexStringToByteArray(actualChecksum);
+        Optional<byte[]> targetHash = convertHexStringToByteArray(targetChecksum);
+        return actualHash.isPresent() && targetHash.isPresent()
+                && MessageDigest.isEqual(actualHash.get(), targetHash.get());
+    }
+
     /*==================================================*
      *==              PRIVATE METHODS                 ==*
      *==================================================*/
@@ -88,32 +419,47 @@ public class ChecksumComputer {
     /**
      * Computes the checksum with the given algorithm for the given file.
      *
-     * @param algorithm the checksum algorithm, like SHA256
+     * @param checksum the checksum algorithm, like SHA256
      * @param file the file for which the checksum is to be computed
+     * @param listener the listener receiving the progress
      * @return the checksum as byte array or empty
      */
-    private Optional<byte[]> getByteChecksumFromFile(String algorithm, File file) {
+    private Optional<byte[]> getByteChecksumFromFile(Checksum checksum, File file, ProgressListener listener) {
 
         // initialize return value with empty if an error occurs while processing the file
         Optional<byte[]> hash = Optional.empty();
 
+        // use the cached checksum if the file has not changed
+        Optional<HashCache.FileState> state = this.getFileState(file);
+        if (state.isPresent()) {
+            Optional<byte[]> cached = this.cache.get(state.get(), checksum);
+            if (cached.isPresent()) {
+                this.metrics.recordCacheHit();
+                return cached;
+            }
+            this.metrics.recordCacheMiss();
+        }
+
         // process the file to build it's checksum as byte array
-        try (InputStream in = new FileInputStream(file)) {
+        try {
 
-            // initialize needed components
-            MessageDigest md = MessageDigest.getInstance(algorithm);
-            byte[] curBlock = new byte[4096];
-            int length;
+            // borrow a hasher instead of creating one per file
+            Hasher pooled = HasherPool.acquire(checksum);
+            Hasher hasher = this.metrics.timeDigests(checksum.name(), pooled);
 
             // go through each block and update the checksum for it
-            while ((length = in.read(curBlock)) > 0) {
-                md.update(curBlock, 0, length);
-            }
+            this.reader.read(file, this.metrics.timeReads(hasher::update), listener);
 
             // save hash for further processing
-            hash = Optional.of(md.digest());
+            hash = Optional.of(hasher.digest());
+            HasherPool.release(checksum, pooled);
+            this.metrics.recordFile();
+            if (state.isPresent()) {
+                this.cache.put(state.get(), checksum, hash.get());
+            }
 
         } catch (Exception e) {
+            this.metrics.recordError();
             LOGGER.error(e.getMessage());
         }
 
@@ -122,33 +468,246 @@ public class ChecksumComputer {
     }
 
     /**
-     * Converts the given byte array to it's hexadecimal string representation.
+     * Computes the checksum of a range of the given file.
      *
-     * @param bytes the array to convert
-     * @return the hexadecimal string converted from the byte array
+     * @param file the file for which the checksum is to be computed
+     * @param offset the position of the first byte to hash
+     * @param length the maximum number of bytes to hash
+     * @return the checksum as byte array or empty
+     */
+    private Optional<byte[]> getByteChecksumFromRange(File file, long offset, long length) {
+
+        // initialize return value with empty if an error occurs while processing the file
+        Optional<byte[]> hash = Optional.empty();
+
+        try {
+            Hasher pooled = HasherPool.acquire(this.checksum);
+            Hasher hasher = this.metrics.timeDigests(this.checksum.name(), pooled);
+            this.reader.read(file, offset, length, this.metrics.timeReads(hasher::update), ProgressListener.NONE);
+            hash = Optional.of(hasher.digest());
+            HasherPool.release(this.checksum, pooled);
+            this.metrics.recordFile();
+        } catch (Exception e) {
+            this.metrics.recordError();
+            LOGGER.error(e.getMessage());
+        }
+
+        // return actual hash or empty if an error had occurred
+        return hash;
+    }
+
+    /**
+     * Computes the checksum of all data of the given channel.
+     *
+     * @param channel the channel to read until its end
+     * @return the checksum as byte array or empty
      */
-    private String convertByteArrayToHexString(byte[] bytes) {
+    private Optional<byte[]> getByteChecksumFromChannel(ReadableByteChannel channel) {
 
-        // StringBuilder for more efficiency
-        StringBuilder hexString = new StringBuilder();
+        // initialize return value with empty if an error occurs while reading the channel
+        Optional<byte[]> hash = Optional.empty();
 
-        // convert each byte to it's hexadecimal representation
-        for (byte b : bytes) {
+        try {
+            Hasher pooled = HasherPool.acquire(this.checksum);
+            Hasher hasher = this.metrics.timeDigests(this.checksum.name(), pooled);
+            this.reader.read(channel, this.metrics.timeReads(hasher::update));
+            hash = Optional.of(hasher.digest());
+            HasherPool.release(this.checksum, pooled);
+            this.metrics.recordFile();
+        } catch (Exception e) {
+            this.metrics.recordError();
+            LOGGER.error(e.getMessage());
+        }
 
-            // calculate the hexadecimal representation of the current byte
-            String hex = Integer.toHexString(0xFF & b);
+        // return actual hash or empty if an error had occurred
+        return hash;
+    }
 
-            // add leading zero if needed
-            if (hex.length() == 1) {
-                hexString.append('0');
+    /**
+     * Computes the checksum of the given file with an engine which is not necessarily one of the {@link Checksum}s.
+     *
+     * @param algorithm the name of the engine
+     * @param file the file for which the checksum is to be computed
+     * @return the checksum as byte array or empty
+     */
+    private Optional<byte[]> getByteChecksumFromEngine(String algorithm, File file) {
+
+        // initialize return value with empty if an error occurs while processing the file
+        Optional<byte[]> hash = Optional.empty();
+
+        try {
+            HashEngine engine = HashEngines.find(algorithm)
+                    .orElseThrow(() -> new NoSuchAlgorithmException("Unsupported algorithm: " + algorithm));
+            Hasher hasher = this.metrics.timeDigests(engine.getName(), engine.newHasher());
+            this.reader.read(file, this.metrics.timeReads(hasher::update));
+            hash = Optional.of(hasher.digest());
+            this.metrics.recordFile();
+        } catch (Exception e) {
+            this.metrics.recordError();
+            LOGGER.error(e.getMessage());
+        }
+
+        // return actual hash or empty if an error had occurred
+        return hash;
+    }
+
+    /**
+     * Computes the checksums with the given algorithms for the given file while reading it only once.
+     *
+     * @param checksums the checksum algorithms
+     * @param file the file for which the checksums are to be computed
+     * @return the checksums as byte arrays per algorithm or empty
+     */
+    private Optional<EnumMap<Checksum, byte[]>> getByteChecksumsFromFile(Set<Checksum> checksums, File file) {
+
+        // initialize return value with empty if an error occurs while processing the file
+        Optional<EnumMap<Checksum, byte[]>> hashes = Optional.empty();
+
+        // use the cached checksums if the file has not changed and only compute the missing ones
+        EnumMap<Checksum, byte[]> result = new EnumMap<>(Checksum.class);
+        List<Checksum> algorithms = new ArrayList<>();
+
+        Optional<HashCache.FileState> state = this.getFileState(file);
+        for (Checksum alg : checksums) {
+            Optional<byte[]> cached = state.flatMap(s -> this.cache.get(s, alg));
+            if (cached.isPresent()) {
+                this.metrics.recordCacheHit();
+                result.put(alg, cached.get());
+            } else {
+                if (state.isPresent()) {
+                    this.metrics.recordCacheMiss();
+                }
+                algorithms.add(alg);
             }
+        }
 
-            // add hexadecimal representation to result
-            hexString.append(hex);
+        if (algorithms.isEmpty()) {
+            return Optional.of(result);
         }
 
-        // return converted string
-        return hexString.toString();
+        try {
+
+            // borrow one hasher per algorithm
+            List<Hasher> pooled = new ArrayList<>();
+            List<Hasher> digests = new ArrayList<>();
+            for (Checksum alg : algorithms) {
+                pooled.add(HasherPool.acquire(alg));
+                digests.add(this.metrics.timeDigests(alg.name(), pooled.get(pooled.size() - 1)));
+            }
+
+            // hash large files with one thread per digest, else feed the digests one after the other
+            if (digests.size() > 1 && file.length() >= PARALLEL_DIGEST_THRESHOLD) {
+                try (DigestPipeline pipeline = new DigestPipeline(digests)) {
+                    this.reader.read(file, this.metrics.timeReads(pipeline));
+                    pipeline.finish();
+                }
+            } else {
+                this.reader.read(file, this.metrics.timeReads(block -> updateAll(digests, block)));
+            }
+
+            // save hashes for further processing
+            for (int i = 0; i < algorithms.size(); i++) {
+                byte[] hash = digests.get(i).digest();
+                HasherPool.release(algorithms.get(i), pooled.get(i));
+                result.put(algorithms.get(i), hash);
+                if (state.isPresent()) {
+                    this.cache.put(state.get(), algorithms.get(i), hash);
+                }
+            }
+            hashes = Optional.of(result);
+            this.metrics.recordFile();
+
+        } catch (Exception e) {
+            this.metrics.recordError();
+            LOGGER.error(e.getMessage());
+        }
+
+        // return actual hashes or empty if an error had occurred
+        return hashes;
+    }
+
+    /**
+     * Closes the given channel of an asynchronous computation, which has no caller to report errors to.
+     *
+     * @param channel the channel to close
+     */
+    private static void closeQuietly(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.warn(e.getMessage());
+        }
+    }
+
+    /**
+     * Creates a hasher for the given algorithm, the engine is provided by {@link HashEngines}.
+     *
+     * Package-private for being used by the other hashing classes of this package.
+     *
+     * @param checksum the checksum algorithm
+     * @return the new hasher
+     * @throws NoSuchAlgorithmException if no engine supports the algorithm
+     */
+    static Hasher newHasher(Checksum checksum) throws NoSuchAlgorithmException {
+        return HashEngines.find(checksum.getAlgorithm())
+                .orElseThrow(() -> new NoSuchAlgorithmException("Unsupported algorithm: " + checksum.getAlgorithm()))
+                .newHasher();
+    }
+
+    /**
+     * Reads the state of the given file for looking up its checksums in the cache.
+     *
+     * @param file the file to inspect
+     * @return the state of the file or empty if no cache is used or the file cannot be accessed
+     */
+    private Optional<HashCache.FileState> getFileState(File file) {
+        if (this.cache == null) {
+            return Optional.empty();
+        }
+        return HashCache.FileState.of(file);
+    }
+
+    /**
+     * Updates each of the given hashers with the whole remaining content of the given block.
+     *
+     * @param digests the hashers to update
+     * @param block the block to process, is consumed completely
+     */
+    private void updateAll(List<Hasher> digests, ByteBuffer block) {
+        int start = block.position();
+        for (Hasher md : digests) {
+            block.position(start);
+            md.update(block);
+        }
+    }
+
+    /**
+     * Converts the given hexadecimal string in upper or lower case to the bytes it represents, ignoring surrounding
+     * whitespace like the trailing space of a copied checksum.
+     *
+     * @param hex the hexadecimal string to convert
+     * @return the bytes or empty if the string is not a valid hexadecimal representation
+     */
+    private static Optional<byte[]> convertHexStringToByteArray(String hex) {
+        try {
+            return Optional.of(HEX.parseHex(hex.trim()));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Converts the given byte array to it's hexadecimal string representation.
+     *
+     * Package-private for being measured by the benchmarks.
+     *
+     * @param bytes the array to convert
+     * @return the hexadecimal string converted from the byte array
+     */
+    String convertByteArrayToHexString(byte[] bytes) {
+
+        // HexFormat writes into a single preallocated array instead of creating a string per byte
+        return HEX.formatHex(bytes);
     }
 
 }
@@ -0,0 +1,212 @@
+package org.example.utils;
+
+import org.example.utils.engine.Hasher;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Producer/consumer pipeline feeding the same data to multiple hashers which run on separate threads.
+ *
+ * The producer copies each block into one of a few pooled buffers and hands it to one worker per digest. A buffer is
+ * returned to the pool as soon as all digests have processed it, so a slow digest throttles the producer instead of
+ * letting the memory grow. An instance is meant to process exactly one file.
+ */
+class DigestPipeline implements Consumer<ByteBuffer>, AutoCloseable {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final int BLOCK_SIZE = 1024 * 1024;
+    private static final int POOLED_BLOCKS = 4;
+
+    /**
+     * Marks the end of the data for the workers.
+     */
+    private static final Block END_OF_DATA = new Block(null, 0);
+
+    /**
+     * Daemon threads shared by all pipelines, so that hashing many files does not create threads per file.
+     */
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "digest-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final BlockingQueue<ByteBuffer> freeBuffers = new ArrayBlockingQueue<>(POOLED_BLOCKS);
+    private final List<BlockingQueue<Block>> queues = new ArrayList<>();
+    private final List<Future<?>> workers = new ArrayList<>();
+
+    private boolean finished;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    /**
+     * Creates the pipeline and starts one worker for each of the given digests.
+     *
+     * @param digests the digests to feed, each of them is only accessed by its own worker until finishing
+     */
+    DigestPipeline(List<Hasher> digests) {
+
+        // heap buffers since hashers process arrays directly, direct buffers would be copied once more
+        for (int i = 0; i < POOLED_BLOCKS; i++) {
+            freeBuffers.add(ByteBuffer.allocate(BLOCK_SIZE));
+        }
+
+        // start one worker per digest
+        for (Hasher digest : digests) {
+            BlockingQueue<Block> queue = new ArrayBlockingQueue<>(POOLED_BLOCKS + 1);
+            queues.add(queue);
+            workers.add(WORKERS.submit(() -> digestBlocks(digest, queue)));
+        }
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Copies the given block into pooled buffers and hands those to all digests.
+     *
+     * Blocks while all pooled buffers are still in use by at least one digest.
+     *
+     * @param data the block to process, is consumed completely
+     */
+    @Override
+    public void accept(ByteBuffer data) {
+        try {
+            while (data.hasRemaining()) {
+
+                // copy as much as fits into the next free buffer
+                ByteBuffer buffer = freeBuffers.take();
+                buffer.clear();
+
+                int length = Math.min(buffer.remaining(), data.remaining());
+                ByteBuffer slice = data.slice();
+                slice.limit(length);
+                buffer.put(slice);
+                buffer.flip();
+                data.position(data.position() + length);
+
+                // hand the buffer to each digest
+                Block block = new Block(buffer, queues.size());
+                for (BlockingQueue<Block> queue : queues) {
+                    queue.put(block);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while feeding digests", e);
+        }
+    }
+
+    /**
+     * Waits until all digests have processed all blocks.
+     *
+     * Afterwards the digests may be finished by the caller.
+     *
+     * @throws ExecutionException if a digest has failed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void finish() throws ExecutionException, InterruptedException {
+        if (!finished) {
+            finished = true;
+
+            // signal the end of the data and wait for all workers
+            for (BlockingQueue<Block> queue : queues) {
+                queue.put(END_OF_DATA);
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+    }
+
+    /**
+     * Stops all workers if the pipeline has not been finished regularly, e.g. because reading the file failed.
+     */
+    @Override
+    public void close() {
+        if (!finished) {
+            finished = true;
+            for (Future<?> worker : workers) {
+                worker.cancel(true);
+            }
+        }
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Updates the given digest with each block of the queue until reaching the end of the data.
+     *
+     * @param digest the digest to update
+     * @param queue the queue providing the blocks for this digest
+     * @return nothing, only declared for being usable as {@link java.util.concurrent.Callable}
+     * @throws InterruptedException if the pipeline is closed before finishing
+     */
+    private Void digestBlocks(Hasher digest, BlockingQueue<Block> queue) throws InterruptedException {
+        RuntimeException failure = null;
+        Block block;
+        while ((block = queue.take()) != END_OF_DATA) {
+
+            // use a duplicate since the other digests read the same buffer concurrently,
+            // keep releasing buffers after a failure so that the producer does not block forever
+            if (failure == null) {
+                try {
+                    digest.update(block.buffer.duplicate());
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+
+            // the last digest processing the block releases its buffer
+            if (block.pending.decrementAndGet() == 0) {
+                freeBuffers.put(block.buffer);
+            }
+        }
+
+        // report the failure when finishing
+        if (failure != null) {
+            throw failure;
+        }
+        return null;
+    }
+
+    /*==================================================*
+     *==                INNER CLASSES                 ==*
+     *==================================================*/
+
+    /**
+     * A pooled buffer filled with data together with the number of digests which have not processed it yet.
+     */
+    private static class Block {
+
+        private final ByteBuffer buffer;
+        private final AtomicInteger pending;
+
+        private Block(ByteBuffer buffer, int consumers) {
+            this.buffer = buffer;
+            this.pending = new AtomicInteger(consumers);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.utils;
+
+import org.example.model.Checksum;
+import org.example.utils.engine.Hasher;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Pass-through channel which computes the checksum of all bytes read through it, so that data can be hashed while it
+ * is copied or downloaded instead of reading it a second time.
+ *
+ * Channels can be nested for computing multiple checksums in the same pass.
+ */
+public class DigestingChannel implements ReadableByteChannel {
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final ReadableByteChannel channel;
+    private final Hasher hasher;
+
+    private long bytesRead;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    /**
+     * @param channel the channel to read from
+     * @param checksum the algorithm of the checksum to compute
+     * @throws NoSuchAlgorithmException if no engine supports the algorithm
+     */
+    public DigestingChannel(ReadableByteChannel channel, Checksum checksum) throws NoSuchAlgorithmException {
+        this.channel = channel;
+        this.hasher = ChecksumComputer.newHasher(checksum);
+    }
+
+    /*==================================================*
+     *==                 ACCESSORS                    ==*
+     *==================================================*/
+
+    /**
+     * Returns the number of bytes read since creating the channel or finishing the last checksum.
+     *
+     * @return the number of bytes read
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int start = dst.position();
+        int length = channel.read(dst);
+
+        // hash exactly the bytes which have just been read into the buffer
+        if (length > 0) {
+            ByteBuffer data = dst.duplicate();
+            data.position(start).limit(start + length);
+            hasher.update(data);
+            bytesRead += length;
+        }
+        return length;
+    }
+
+    /**
+     * Finishes the checksum of all bytes read so far and starts a new one.
+     *
+     * @return the checksum as byte array
+     */
+    public byte[] digest() {
+        bytesRead = 0;
+        return hasher.digest();
+    }
+
+    /**
+     * Finishes the checksum of all bytes read so far and starts a new one.
+     *
+     * @return the checksum as hexadecimal string
+     */
+    public String getChecksum() {
+        return HexFormat.of().formatHex(digest());
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
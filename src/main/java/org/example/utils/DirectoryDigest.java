@@ -0,0 +1,385 @@
+package org.example.utils;
+
+import org.example.model.Checksum;
+import org.example.model.ReadStrategy;
+import org.example.utils.engine.Hasher;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes one deterministic digest for a whole directory tree while hashing its files concurrently, and optionally
+ * writes a manifest of all files at the same time.
+ *
+ * The tree is traversed depth-first with the entries of each directory sorted by name, so the order of the entries is
+ * independent of the file system and the number of workers. The aggregate digest is the hash of one record per entry
+ * in this order:
+ * <pre>
+ * kind NUL relative-path NUL permissions NUL value LF
+ * </pre>
+ * The kind is 'd' for directories, 'f' for files and 'l' for symbolic links, the relative path uses '/' as separator,
+ * the permissions like 'rw-r--r--' are only filled in if enabled and the value is the hex checksum of a file or the
+ * target of a link. Symbolic links are only recorded as links if enabled, else links to files are hashed like files
+ * and all other links are skipped.
+ *
+ * Only the listings of the directories on the current path and a bounded window of pending checksums are held in
+ * memory, so trees with millions of entries can be digested.
+ */
+public class DirectoryDigest {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    /**
+     * The number of files per worker whose checksums may be pending at the same time.
+     */
+    private static final int WINDOW_PER_WORKER = 4;
+
+    private static final Comparator<Path> BY_NAME = Comparator.comparing(path -> path.getFileName().toString());
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final Checksum checksum;
+    private final int concurrency;
+
+    private boolean includePermissions;
+    private boolean includeSymlinkTargets;
+    private HashCache cache;
+    private ReadStrategy readStrategy = ReadStrategy.AUTO;
+
+    /**
+     * Each worker reuses its own computer since those are not thread-safe.
+     */
+    private final ThreadLocal<ChecksumComputer> computers;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    public DirectoryDigest(Checksum checksum) {
+        this(checksum, BatchVerifier.DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * @param checksum the algorithm for the files and the aggregate digest
+     * @param concurrency the maximum number of files read at the same time
+     */
+    public DirectoryDigest(Checksum checksum, int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+        }
+        this.checksum = checksum;
+        this.concurrency = concurrency;
+        this.computers = ThreadLocal.withInitial(() -> new ChecksumComputer(checksum, readStrategy));
+    }
+
+    /*==================================================*
+     *==                 ACCESSORS                    ==*
+     *==================================================*/
+
+    /**
+     * Sets whether the POSIX permissions of all entries are part of the aggregate digest.
+     *
+     * @param includePermissions true for including the permissions
+     */
+    public void setIncludePermissions(boolean includePermissions) {
+        this.includePermissions = includePermissions;
+    }
+
+    /**
+     * Sets whether symbolic links are recorded with their targets instead of being followed.
+     *
+     * @param includeSymlinkTargets true for recording the targets of links
+     */
+    public void setIncludeSymlinkTargets(boolean includeSymlinkTargets) {
+        this.includeSymlinkTargets = includeSymlinkTargets;
+    }
+
+    /**
+     * Sets the cache used to look up the checksums of unchanged files instead of reading them again.
+     *
+     * @param cache the cache to use or null to always read the files
+     */
+    public void setHashCache(HashCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Sets how the files are read, e.g. {@link ReadStrategy#DIRECT} for digesting cold data without evicting the page
+     * cache of other processes.
+     *
+     * @param readStrategy the strategy used by all workers
+     */
+    public void setReadStrategy(ReadStrategy readStrategy) {
+        this.readStrategy = readStrategy;
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Computes the aggregate digest of the given directory tree.
+     *
+     * @param root the directory to digest
+     * @param manifest receives a line in the format of 'sha256sum' for each file or null
+     * @return the aggregate digest as hexadecimal string
+     * @throws IOException if the tree cannot be traversed, a file cannot be read or the manifest cannot be written
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public String digest(Path root, Writer manifest) throws IOException, InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            Walk walk = new Walk(root, manifest, workers);
+            walk.visitDirectory(root);
+            walk.drainAll();
+            return HexFormat.of().formatHex(walk.aggregate.digest());
+        } finally {
+            workers.shutdownNow();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Computes the checksum of a single file with the computer of the current worker.
+     *
+     * @param file the file to hash
+     * @return the checksum as hexadecimal string
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    private String hashFile(Path file) {
+        ChecksumComputer comp = computers.get();
+        comp.setHashCache(cache);
+        return comp.getChecksum(file.toFile())
+                .orElseThrow(() -> new UncheckedIOException(new IOException("Cannot read " + file)));
+    }
+
+    /**
+     * Returns the POSIX permissions of the given entry if enabled.
+     *
+     * @param path the entry
+     * @return the permissions like 'rw-r--r--' or an empty string
+     * @throws IOException if the permissions cannot be read
+     */
+    private String readPermissions(Path path) throws IOException {
+        if (!includePermissions) {
+            return "";
+        }
+        try {
+            return PosixFilePermissions.toString(Files.getPosixFilePermissions(path, LinkOption.NOFOLLOW_LINKS));
+        } catch (UnsupportedOperationException e) {
+            return "";
+        }
+    }
+
+    /*==================================================*
+     *==                INNER CLASSES                 ==*
+     *==================================================*/
+
+    /**
+     * The state of a single traversal.
+     */
+    private class Walk {
+
+        private final Path root;
+        private final Writer manifest;
+        private final ExecutorService workers;
+        private final Hasher aggregate;
+        private final ArrayDeque<Future<Entry>> window = new ArrayDeque<>();
+
+        private Walk(Path root, Writer manifest, ExecutorService workers) throws IOException {
+            this.root = root;
+            this.manifest = manifest;
+            this.workers = workers;
+            try {
+                this.aggregate = ChecksumComputer.newHasher(checksum);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException(e);
+            }
+        }
+
+        /**
+         * Adds all entries of the given directory in the order of their names, recursing into subdirectories.
+         *
+         * @param dir the directory to traverse
+         * @throws IOException if the directory cannot be listed
+         * @throws InterruptedException if interrupted while waiting for the workers
+         */
+        private void visitDirectory(Path dir) throws IOException, InterruptedException {
+
+            // only the listing of this directory has to be sorted in memory
+            List<Path> children = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                stream.forEach(children::add);
+            }
+            children.sort(BY_NAME);
+
+            for (Path child : children) {
+                BasicFileAttributes attrs = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                String path = toRelativePath(child);
+
+                if (attrs.isSymbolicLink()) {
+                    if (includeSymlinkTargets) {
+                        add(new Entry('l', path, readPermissions(child), Files.readSymbolicLink(child).toString()));
+                    } else if (Files.isRegularFile(child)) {
+                        addFile(child, path);
+                    }
+                } else if (attrs.isDirectory()) {
+                    add(new Entry('d', path, readPermissions(child), ""));
+                    visitDirectory(child);
+                } else if (attrs.isRegularFile()) {
+                    addFile(child, path);
+                }
+            }
+        }
+
+        /**
+         * Hashes the given file on a worker.
+         *
+         * @param file the file to hash
+         * @param path the relative path of the file
+         * @throws IOException if a previous entry has failed
+         * @throws InterruptedException if interrupted while waiting for the workers
+         */
+        private void addFile(Path file, String path) throws IOException, InterruptedException {
+            String permissions = readPermissions(file);
+            enqueue(workers.submit(() -> new Entry('f', path, permissions, hashFile(file))));
+        }
+
+        /**
+         * Adds an entry which needs no hashing, keeping the order with the pending files.
+         *
+         * @param entry the entry to add
+         * @throws IOException if a previous entry has failed
+         * @throws InterruptedException if interrupted while waiting for the workers
+         */
+        private void add(Entry entry) throws IOException, InterruptedException {
+            enqueue(CompletableFuture.completedFuture(entry));
+        }
+
+        /**
+         * Appends the given entry to the window, processing the oldest entries while the window is full.
+         *
+         * @param entry the pending entry
+         * @throws IOException if a previous entry has failed
+         * @throws InterruptedException if interrupted while waiting for the workers
+         */
+        private void enqueue(Future<Entry> entry) throws IOException, InterruptedException {
+            window.add(entry);
+            while (window.size() > concurrency * WINDOW_PER_WORKER) {
+                drainOne();
+            }
+        }
+
+        /**
+         * Processes all pending entries.
+         *
+         * @throws IOException if an entry has failed
+         * @throws InterruptedException if interrupted while waiting for the workers
+         */
+        private void drainAll() throws IOException, InterruptedException {
+            while (!window.isEmpty()) {
+                drainOne();
+            }
+        }
+
+        /**
+         * Waits for the oldest entry and adds it to the aggregate digest and the manifest.
+         *
+         * @throws IOException if the entry has failed or the manifest cannot be written
+         * @throws InterruptedException if interrupted while waiting for the entry
+         */
+        private void drainOne() throws IOException, InterruptedException {
+            Entry entry;
+            try {
+                entry = window.poll().get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                }
+                throw new IOException(e.getCause());
+            }
+
+            byte[] record = (entry.kind + "\0" + entry.path + "\0" + entry.permissions + "\0" + entry.value + "\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            aggregate.update(record, 0, record.length);
+
+            if (manifest != null && entry.kind == 'f') {
+                manifest.write(toManifestLine(entry));
+            }
+        }
+
+        /**
+         * Converts the given entry to a line in the format of 'sha256sum', escaping the path if necessary.
+         *
+         * @param entry the entry of a file
+         * @return the line including the line break
+         */
+        private String toManifestLine(Entry entry) {
+            if (entry.path.indexOf('\\') < 0 && entry.path.indexOf('\n') < 0) {
+                return entry.value + "  " + entry.path + "\n";
+            }
+            String escaped = entry.path.replace("\\", "\\\\").replace("\n", "\\n");
+            return "\\" + entry.value + "  " + escaped + "\n";
+        }
+
+        /**
+         * Returns the path of the given entry relative to the root with '/' as separator.
+         *
+         * @param path the entry
+         * @return the relative path
+         */
+        private String toRelativePath(Path path) {
+            StringBuilder result = new StringBuilder();
+            for (Path name : root.relativize(path)) {
+                result.append(result.length() == 0 ? "" : "/").append(name);
+            }
+            return result.toString();
+        }
+    }
+
+    /**
+     * A single record of the aggregate digest.
+     */
+    private static class Entry {
+
+        private final char kind;
+        private final String path;
+        private final String permissions;
+        private final String value;
+
+        private Entry(char kind, String path, String permissions, String value) {
+            this.kind = kind;
+            this.path = path;
+            this.permissions = permissions;
+            this.value = value;
+        }
+    }
+}
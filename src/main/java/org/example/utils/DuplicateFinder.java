@@ -0,0 +1,333 @@
+package org.example.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.model.Checksum;
+import org.example.model.DuplicateGroup;
+import org.example.model.ReadStrategy;
+import org.example.utils.engine.Hasher;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Finds files with identical content in staged rounds, so that most files are never read completely.
+ *
+ * <ol>
+ *     <li>Files are grouped by size, files with a unique size cannot have duplicates.</li>
+ *     <li>The remaining files are grouped by a cheap XXH64 hash of their first and last bytes.</li>
+ *     <li>Only files which still collide are hashed completely with the chosen algorithm.</li>
+ * </ol>
+ *
+ * The hashing rounds read the files through the {@link IoScheduler}. Hard links to the same file are only reported
+ * once, since removing them frees no space.
+ */
+public class DuplicateFinder {
+
+    /*==================================================*
+     *==                   LOGGER                     ==*
+     *==================================================*/
+
+    private static final Logger LOGGER = LogManager.getLogger(DuplicateFinder.class);
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    /**
+     * The default number of bytes hashed at the start and at the end of each file in the second round.
+     */
+    public static final int DEFAULT_SAMPLE_SIZE = 4096;
+
+    private static final Comparator<DuplicateGroup> BY_RECLAIMABLE_BYTES =
+            Comparator.comparingLong(DuplicateGroup::getReclaimableBytes).reversed()
+                    .thenComparing(group -> group.getFiles().get(0));
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final Checksum checksum;
+    private final IoScheduler scheduler;
+
+    private int sampleSize = DEFAULT_SAMPLE_SIZE;
+    private long minSize = 1;
+    private HashCache cache;
+    private ReadStrategy readStrategy = ReadStrategy.AUTO;
+
+    /**
+     * Each worker reuses its own computer since those are not thread-safe.
+     */
+    private final ThreadLocal<ChecksumComputer> computers;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    public DuplicateFinder(Checksum checksum) {
+        this(checksum, BatchVerifier.DEFAULT_CONCURRENCY, IoScheduler.DEFAULT_HDD_CONCURRENCY);
+    }
+
+    /**
+     * @param checksum the algorithm comparing the files completely
+     * @param concurrency the maximum number of files read at the same time per solid-state drive
+     * @param hddConcurrency the maximum number of files read at the same time per rotational disk or network volume
+     */
+    public DuplicateFinder(Checksum checksum, int concurrency, int hddConcurrency) {
+        this.checksum = checksum;
+        this.scheduler = new IoScheduler(concurrency, hddConcurrency);
+        this.computers = ThreadLocal.withInitial(() -> new ChecksumComputer(this.checksum, readStrategy));
+    }
+
+    /*==================================================*
+     *==                 ACCESSORS                    ==*
+     *==================================================*/
+
+    /**
+     * Sets the number of bytes hashed at the start and at the end of each file before hashing it completely.
+     *
+     * @param sampleSize the number of bytes
+     */
+    public void setSampleSize(int sampleSize) {
+        if (sampleSize <= 0) {
+            throw new IllegalArgumentException("Sample size must be positive: " + sampleSize);
+        }
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Sets the size of the smallest files considered, by default empty files are ignored.
+     *
+     * @param minSize the size in bytes
+     */
+    public void setMinSize(long minSize) {
+        this.minSize = minSize;
+    }
+
+    /**
+     * Sets the cache used to look up the checksums of unchanged files instead of reading them again.
+     *
+     * @param cache the cache to use or null to always read the files
+     */
+    public void setHashCache(HashCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Sets how the files are hashed completely.
+     *
+     * @param readStrategy the strategy used by all workers
+     */
+    public void setReadStrategy(ReadStrategy readStrategy) {
+        this.readStrategy = readStrategy;
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Finds all groups of files with identical content inside the given directory trees.
+     *
+     * Files which cannot be read are skipped.
+     *
+     * @param roots the directories or files to search
+     * @return the groups sorted by their reclaimable bytes, largest first
+     * @throws IOException if a root cannot be traversed
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public List<DuplicateGroup> find(List<Path> roots) throws IOException, InterruptedException {
+
+        // round 1: group by size
+        List<List<Path>> candidates = collectBySize(roots);
+        LOGGER.debug(candidates.size() + " sizes with multiple files");
+
+        // round 2: group by the start and end of each file
+        Map<Path, String> samples = hashAll(candidates, this::hashSample);
+        candidates = regroup(candidates, samples);
+        LOGGER.debug(candidates.size() + " groups left after sampling");
+
+        // round 3: group by the whole content
+        Map<Path, String> checksums = hashAll(candidates, this::hashFile);
+        candidates = regroup(candidates, checksums);
+
+        List<DuplicateGroup> groups = new ArrayList<>();
+        for (List<Path> files : candidates) {
+            files.sort(Comparator.naturalOrder());
+            groups.add(new DuplicateGroup(Files.size(files.get(0)), checksums.get(files.get(0)), files));
+        }
+        groups.sort(BY_RECLAIMABLE_BYTES);
+        return groups;
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Collects all regular files of the given trees which share their size with another file.
+     *
+     * @param roots the directories or files to search
+     * @return the groups of files with the same size
+     * @throws IOException if a root cannot be traversed
+     */
+    private List<List<Path>> collectBySize(List<Path> roots) throws IOException {
+        Map<Long, List<Path>> bySize = new HashMap<>();
+        Set<Object> fileKeys = new HashSet<>();
+
+        for (Path root : roots) {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+
+                    // hard links and overlapping roots lead to the same file again
+                    Object key = attrs.fileKey() != null ? attrs.fileKey() : file.toAbsolutePath().normalize();
+                    if (attrs.isRegularFile() && attrs.size() >= minSize && fileKeys.add(key)) {
+                        bySize.computeIfAbsent(attrs.size(), size -> new ArrayList<>()).add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    LOGGER.warn("Skipping " + file + ": " + e.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+
+        List<List<Path>> result = new ArrayList<>();
+        for (List<Path> files : bySize.values()) {
+            if (files.size() > 1) {
+                result.add(files);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Hashes all files of the given groups through the scheduler.
+     *
+     * @param groups the groups of candidates
+     * @param hash computes the hash of a file or returns null if the file cannot be read
+     * @return the hash per file, unreadable files are missing
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    private Map<Path, String> hashAll(List<List<Path>> groups, Function<Path, String> hash) throws InterruptedException {
+        Map<Path, String> result = new ConcurrentHashMap<>();
+        scheduler.run(groups.stream().flatMap(List::stream).iterator(), path -> path, path -> {
+            String value = hash.apply(path);
+            if (value != null) {
+                result.put(path, value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Splits each group by the given hashes and keeps the parts which still contain multiple files.
+     *
+     * @param groups the groups of candidates
+     * @param hashes the hash per file
+     * @return the remaining groups
+     */
+    private static List<List<Path>> regroup(List<List<Path>> groups, Map<Path, String> hashes) {
+        List<List<Path>> result = new ArrayList<>();
+        for (List<Path> files : groups) {
+            Map<String, List<Path>> byHash = new TreeMap<>();
+            for (Path file : files) {
+                String hash = hashes.get(file);
+                if (hash != null) {
+                    byHash.computeIfAbsent(hash, h -> new ArrayList<>()).add(file);
+                }
+            }
+            for (List<Path> part : byHash.values()) {
+                if (part.size() > 1) {
+                    result.add(part);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Hashes the first and last {@link #sampleSize} bytes of the given file with XXH64.
+     *
+     * @param file the file to sample
+     * @return the hash as hexadecimal string or null if the file cannot be read
+     */
+    private String hashSample(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Hasher hasher = HasherPool.acquire(Checksum.XXH64);
+
+            // small files are sampled completely
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, 2L * sampleSize));
+            if (size <= 2L * sampleSize) {
+                readFully(channel, buffer, 0);
+            } else {
+                buffer.limit(sampleSize);
+                readFully(channel, buffer, 0);
+                buffer.limit(2 * sampleSize);
+                readFully(channel, buffer, size - sampleSize);
+            }
+
+            hasher.update(buffer.flip());
+            String hash = HexFormat.of().formatHex(hasher.digest());
+            HasherPool.release(Checksum.XXH64, hasher);
+            return hash;
+
+        } catch (Exception e) {
+            LOGGER.warn("Skipping " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Hashes the given file completely with the chosen algorithm.
+     *
+     * @param file the file to hash
+     * @return the checksum as hexadecimal string or null if the file cannot be read
+     */
+    private String hashFile(Path file) {
+        ChecksumComputer comp = computers.get();
+        comp.setHashCache(cache);
+        return comp.getChecksum(file.toFile()).orElse(null);
+    }
+
+    /**
+     * Reads from the given position until the buffer's limit is reached.
+     *
+     * @param channel the channel to read
+     * @param buffer the buffer to fill
+     * @param position the position of the first byte to read
+     * @throws IOException if the file cannot be read or has been truncated
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("File has been truncated");
+            }
+        }
+    }
+}
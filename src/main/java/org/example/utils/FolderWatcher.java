@@ -0,0 +1,486 @@
+package org.example.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.model.Checksum;
+import org.example.model.ReadStrategy;
+import org.example.model.VerificationEntry;
+import org.example.model.VerificationResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches a drop directory and verifies each file as soon as it has arrived completely together with its sidecar file
+ * like 'file.sha256' or an entry in a manifest.
+ *
+ * A file is only verified after no change has been reported for it during the quiet period, so files which are still
+ * being written are not read early. Files which have already been verified with the same expected checksum are skipped
+ * as long as their size and modification time do not change.
+ *
+ * Settled files are verified in batches through the {@link IoScheduler} of a {@link BatchVerifier}, so the watcher
+ * respects the limits of each storage device like the 'check' command. Only a bounded number of files waits for its
+ * verification, further events are only handled once there is room again.
+ */
+public class FolderWatcher implements Closeable {
+
+    /*==================================================*
+     *==                   LOGGER                     ==*
+     *==================================================*/
+
+    private static final Logger LOGGER = LogManager.getLogger(FolderWatcher.class);
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    /**
+     * The default time without changes after which a file is considered complete.
+     */
+    public static final Duration DEFAULT_QUIET_PERIOD = Duration.ofSeconds(2);
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    /**
+     * The maximum number of files waiting for their verification.
+     */
+    private static final int MAX_QUEUED_FILES = IoScheduler.DEFAULT_WINDOW_SIZE;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final Path directory;
+    private final long quietPeriodNanos;
+    private final BatchVerifier verifier;
+    private final ExecutorService dispatcher;
+    private final WatchService watchService;
+    private final BlockingQueue<VerificationEntry> queued = new ArrayBlockingQueue<>(MAX_QUEUED_FILES);
+
+    private volatile boolean closed;
+
+    private Path manifest;
+    private Map<Path, VerificationEntry> manifestEntries = new HashMap<>();
+
+    /**
+     * The files with changes which have not been handled yet and the time of their last change.
+     */
+    private final Map<Path, Long> pending = new HashMap<>();
+
+    /**
+     * The state and expected checksum of each file at its last scheduled verification, deleted files are removed.
+     */
+    private final Map<Path, VerifiedState> verified = new ConcurrentHashMap<>();
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    public FolderWatcher(Path directory) throws IOException {
+        this(directory, BatchVerifier.DEFAULT_CONCURRENCY, DEFAULT_QUIET_PERIOD);
+    }
+
+    /**
+     * @param directory the directory to watch including its subdirectories
+     * @param concurrency the maximum number of files read at the same time
+     * @param quietPeriod the time without changes after which a file is considered complete
+     * @throws IOException if the directory cannot be watched
+     */
+    public FolderWatcher(Path directory, int concurrency, Duration quietPeriod) throws IOException {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.quietPeriodNanos = quietPeriod.toNanos();
+        this.verifier = new BatchVerifier(concurrency);
+        this.dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "watch-verifier");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchService = this.directory.getFileSystem().newWatchService();
+    }
+
+    /*==================================================*
+     *==                 ACCESSORS                    ==*
+     *==================================================*/
+
+    /**
+     * Sets the cache used to look up the checksums of unchanged files instead of reading them again.
+     *
+     * @param cache the cache to use or null to always read the files
+     */
+    public void setHashCache(HashCache cache) {
+        verifier.setHashCache(cache);
+    }
+
+    /**
+     * Sets how the files are read, e.g. {@link ReadStrategy#DIRECT} for not evicting the page cache of other services.
+     *
+     * @param readStrategy the strategy used for all files
+     */
+    public void setReadStrategy(ReadStrategy readStrategy) {
+        verifier.setReadStrategy(readStrategy);
+    }
+
+    /**
+     * Sets a manifest like 'SHA256SUMS' providing the expected checksums of files without sidecar file.
+     *
+     * The manifest is read again whenever it changes, as long as it is located inside the watched directory.
+     *
+     * @param manifest the manifest in GNU or BSD format
+     */
+    public void setManifest(Path manifest) {
+        this.manifest = manifest.toAbsolutePath().normalize();
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Verifies all files already present and then each arriving file until the watcher is closed or the current thread
+     * is interrupted.
+     *
+     * The callback is never called by more than one thread at once.
+     *
+     * @param callback receives the result of each verified file
+     * @throws IOException if the directory cannot be watched
+     * @throws InterruptedException if interrupted while waiting for changes
+     */
+    public void run(Consumer<VerificationResult> callback) throws IOException, InterruptedException {
+        if (manifest != null) {
+            loadManifest();
+        }
+
+        // verify the settled files in the background, so that watching continues while reading
+        dispatcher.execute(() -> dispatch(callback));
+
+        // handle the files which have arrived before starting
+        registerTree(directory);
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    collectChanges(key);
+                }
+                handleSettledFiles();
+            }
+            throw new InterruptedException();
+        } catch (ClosedWatchServiceException e) {
+            // closed regularly
+        }
+    }
+
+    /**
+     * Stops watching and waits for the verifications in progress.
+     *
+     * @throws IOException if the watch service cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watchService.close();
+        dispatcher.shutdown();
+        try {
+            dispatcher.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*==================================================*
+     *==              PACKAGE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Returns the number of files whose verified state is remembered.
+     *
+     * @return the number of remembered files
+     */
+    int getVerifiedCount() {
+        return verified.size();
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Verifies the queued files in batches until the watcher is closed, files queued during a batch form the next one.
+     *
+     * @param callback receives the result of each verified file
+     */
+    private void dispatch(Consumer<VerificationResult> callback) {
+        List<VerificationEntry> batch = new ArrayList<>();
+        try {
+            while (!closed) {
+                VerificationEntry entry = queued.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (entry == null) {
+                    continue;
+                }
+                batch.add(entry);
+                queued.drainTo(batch);
+
+                // keep watching even if the callback fails for a batch
+                try {
+                    verifier.verify(batch, callback);
+                } catch (RuntimeException e) {
+                    LOGGER.error(e.getMessage(), e);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Watches the given directory and its subdirectories and marks all files inside as changed.
+     *
+     * @param root the directory to register
+     * @throws IOException if the directory cannot be traversed
+     */
+    private void registerTree(Path root) throws IOException {
+        long now = System.nanoTime();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()) {
+                    pending.put(file, now);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Marks the files reported by the given key as changed, so that their quiet period starts again.
+     *
+     * @param key the key with the pending events
+     * @throws IOException if a new subdirectory cannot be registered
+     */
+    private void collectChanges(WatchKey key) throws IOException {
+        Path dir = (Path) key.watchable();
+        long now = System.nanoTime();
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+
+            // events have been lost, so look at everything again and forget the files which may have been deleted
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                verified.keySet().removeIf(file -> !Files.exists(file));
+                registerTree(directory);
+                continue;
+            }
+
+            Path path = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE && !path.equals(manifest)) {
+                forget(path);
+            } else if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                registerTree(path);
+            } else {
+                pending.put(path, now);
+            }
+        }
+
+        key.reset();
+    }
+
+    /**
+     * Handles all files without changes during the quiet period.
+     *
+     * @throws IOException if the manifest cannot be read
+     * @throws InterruptedException if interrupted while waiting for room in the queue
+     */
+    private void handleSettledFiles() throws IOException, InterruptedException {
+        long now = System.nanoTime();
+
+        Iterator<Map.Entry<Path, Long>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, Long> change = iterator.next();
+            if (now - change.getValue() < quietPeriodNanos) {
+                continue;
+            }
+            iterator.remove();
+
+            // a changed or deleted manifest may concern all of its files
+            Path path = change.getKey();
+            if (path.equals(manifest)) {
+                loadManifest();
+                for (VerificationEntry entry : manifestEntries.values()) {
+                    schedule(entry);
+                }
+                continue;
+            }
+
+            if (!Files.isRegularFile(path)) {
+                continue;
+            }
+
+            // a sidecar describes another file, any other file may be described by a sidecar or the manifest
+            Optional<VerificationEntry> entry = BatchVerifier.readSidecar(path);
+            if (entry.isEmpty()) {
+                entry = findEntry(path);
+            }
+            if (entry.isPresent()) {
+                schedule(entry.get());
+            }
+        }
+    }
+
+    /**
+     * Forgets the given deleted file or directory, so that the watcher does not remember every file which has ever
+     * passed through the directory.
+     *
+     * @param path the deleted file or directory
+     */
+    private void forget(Path path) {
+        pending.remove(path);
+
+        // only a directory can contain other remembered files
+        if (verified.remove(path) == null) {
+            verified.keySet().removeIf(file -> file.startsWith(path));
+        }
+    }
+
+    /**
+     * Finds the expected checksum of the given file in a sidecar file or the manifest.
+     *
+     * @param file the file to verify
+     * @return the entry for the file or empty if there is no expected checksum yet
+     */
+    private Optional<VerificationEntry> findEntry(Path file) {
+        for (Checksum checksum : Checksum.values()) {
+            Path sidecar = file.resolveSibling(file.getFileName() + "." + checksum.getFileExtension());
+            if (Files.isRegularFile(sidecar)) {
+                return BatchVerifier.readSidecar(sidecar);
+            }
+        }
+        return Optional.ofNullable(manifestEntries.get(file.toAbsolutePath().normalize()));
+    }
+
+    /**
+     * Queues the given entry for its verification unless it has already been verified in the same state.
+     *
+     * Blocks while the queue is full, so that a burst of events cannot queue an unbounded number of verifications.
+     *
+     * @param entry the entry to verify
+     * @throws InterruptedException if interrupted while waiting for room in the queue
+     */
+    private void schedule(VerificationEntry entry) throws InterruptedException {
+        Path file = entry.getFile().toPath().toAbsolutePath().normalize();
+
+        // the file may arrive after its sidecar, which triggers the verification again
+        Optional<HashCache.FileState> state = HashCache.FileState.of(file.toFile());
+        if (state.isEmpty()) {
+            return;
+        }
+
+        // remember the state before verifying, so that the file and its sidecar do not trigger two verifications
+        VerifiedState current = new VerifiedState(state.get(), entry.getChecksum(), entry.getExpectedChecksum());
+        if (current.equals(verified.put(file, current))) {
+            return;
+        }
+
+        // give up once closed while handling the changes
+        while (!closed) {
+            if (queued.offer(entry, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads all entries of the manifest, replacing the previous ones.
+     *
+     * @throws IOException if the manifest cannot be read
+     */
+    private void loadManifest() throws IOException {
+        Map<Path, VerificationEntry> entries = new HashMap<>();
+        if (Files.exists(manifest)) {
+            try (ManifestReader reader = new ManifestReader(manifest)) {
+                reader.forEachRemaining(entry ->
+                        entries.put(entry.getFile().toPath().toAbsolutePath().normalize(), entry));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        // files which are no longer listed are verified again once they are listed again
+        for (Path file : manifestEntries.keySet()) {
+            if (!entries.containsKey(file)) {
+                verified.remove(file);
+            }
+        }
+        manifestEntries = entries;
+        LOGGER.debug("Loaded " + entries.size() + " entries from " + manifest);
+    }
+
+    /*==================================================*
+     *==                INNER CLASSES                 ==*
+     *==================================================*/
+
+    /**
+     * The state of a file together with the checksum it has been verified against.
+     */
+    private static class VerifiedState {
+
+        private final HashCache.FileState state;
+        private final Checksum checksum;
+        private final String expectedChecksum;
+
+        private VerifiedState(HashCache.FileState state, Checksum checksum, String expectedChecksum) {
+            this.state = state;
+            this.checksum = checksum;
+            this.expectedChecksum = expectedChecksum.toLowerCase(Locale.ROOT);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof VerifiedState)) {
+                return false;
+            }
+            VerifiedState other = (VerifiedState) o;
+            return state.equals(other.state) && checksum == other.checksum
+                    && expectedChecksum.equals(other.expectedChecksum);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(state, checksum, expectedChecksum);
+        }
+    }
+}
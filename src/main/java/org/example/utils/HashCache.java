@@ -0,0 +1,476 @@
+package org.example.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.model.Checksum;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent cache of checksums, so that unchanged files do not have to be read again.
+ *
+ * A cached checksum is only used as long as the file's canonical path, size, last modification time and file key
+ * (e.g. the inode) are unchanged. The cache is kept in memory and written to a compact binary index by
+ * {@link #save()}. The least recently used entries are evicted when exceeding the configured limits.
+ *
+ * Multiple instances, also in different processes, may use the same index: saving locks the index and merges the
+ * entries saved by others in the meantime. An instance may be used by multiple threads.
+ */
+public class HashCache {
+
+    /*==================================================*
+     *==                   LOGGER                     ==*
+     *==================================================*/
+
+    private static final Logger LOGGER = LogManager.getLogger(HashCache.class);
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    public static final int DEFAULT_MAX_ENTRIES = 200_000;
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final int MAGIC = 0x43564843;
+    private static final int VERSION = 1;
+
+    /**
+     * Rough memory and disk overhead of an entry besides its path and checksums.
+     */
+    private static final int ENTRY_OVERHEAD = 64;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final Path indexFile;
+    private final Path lockFile;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private boolean dirty;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    /**
+     * Opens the cache stored in the given index file, which does not have to exist yet.
+     *
+     * @param indexFile the file containing the binary index
+     * @param maxEntries the maximum number of cached files
+     * @param maxBytes the maximum size of the index in bytes
+     */
+    public HashCache(Path indexFile, int maxEntries, long maxBytes) {
+        this.indexFile = indexFile;
+        this.lockFile = indexFile.resolveSibling(indexFile.getFileName() + ".lock");
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+
+        // start with an empty cache if the index cannot be read
+        try {
+            withLock(() -> entries.putAll(readIndex()));
+            entries.values().forEach(entry -> bytes += entry.estimateSize());
+        } catch (IOException e) {
+            LOGGER.error("Cannot read hash cache " + indexFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opens the cache at the default location inside the user's cache directory with the default limits.
+     *
+     * @return the opened cache
+     */
+    public static HashCache openDefault() {
+        return new HashCache(getDefaultLocation(), DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Returns the cached checksum of the given file if the file has not changed since caching it.
+     *
+     * @param state the current state of the file
+     * @param checksum the algorithm of the checksum
+     * @return the cached checksum or empty
+     */
+    public synchronized Optional<byte[]> get(FileState state, Checksum checksum) {
+        Entry entry = entries.get(state.path);
+
+        // forget all checksums of files that have been changed
+        if (entry != null && !entry.state.equals(state)) {
+            remove(state.path);
+            entry = null;
+        }
+
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        entry.lastAccess = System.currentTimeMillis();
+        return Optional.ofNullable(entry.hashes.get(checksum.getAlgorithm())).map(byte[]::clone);
+    }
+
+    /**
+     * Caches the checksum of the given file.
+     *
+     * @param state the state of the file before reading it, so that changes while reading invalidate the checksum
+     * @param checksum the algorithm of the checksum
+     * @param hash the checksum to cache
+     */
+    public synchronized void put(FileState state, Checksum checksum, byte[] hash) {
+        Entry entry = entries.get(state.path);
+
+        // replace entries of files that have been changed
+        if (entry == null || !entry.state.equals(state)) {
+            remove(state.path);
+            entry = new Entry(state);
+            entries.put(state.path, entry);
+        } else {
+            bytes -= entry.estimateSize();
+        }
+
+        entry.hashes.put(checksum.getAlgorithm(), hash.clone());
+        entry.lastAccess = System.currentTimeMillis();
+        bytes += entry.estimateSize();
+        dirty = true;
+
+        evict();
+    }
+
+    /**
+     * Writes the cache to its index file if it has been changed, merged with the entries saved by other instances.
+     *
+     * @throws IOException if the index cannot be written
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+
+        withLock(() -> {
+
+            // an unreadable index, e.g. of an older version, is replaced instead of failing on every save
+            Map<String, Entry> savedEntries;
+            try {
+                savedEntries = readIndex();
+            } catch (IOException e) {
+                LOGGER.warn("Replacing unreadable hash cache " + indexFile + ": " + e.getMessage());
+                savedEntries = Map.of();
+            }
+
+            // keep entries saved by others unless known in a more recent version
+            for (Map.Entry<String, Entry> saved : savedEntries.entrySet()) {
+                Entry own = entries.get(saved.getKey());
+                if (own == null || own.lastAccess < saved.getValue().lastAccess) {
+                    remove(saved.getKey());
+                    entries.put(saved.getKey(), saved.getValue());
+                    bytes += saved.getValue().estimateSize();
+                }
+            }
+            sortByLastAccess();
+            evict();
+
+            // write to a temporary file first, so that readers never see a partially written index
+            Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            writeIndex(tempFile);
+            try {
+                Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        });
+
+        dirty = false;
+    }
+
+    /**
+     * Returns the number of cached files.
+     *
+     * @return the number of cached files
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the location of the index inside the user's cache directory, e.g. '~/.cache/ChecksumVerifier' on Linux.
+     *
+     * @return the default index file
+     */
+    public static Path getDefaultLocation() {
+        String base = System.getenv("XDG_CACHE_HOME");
+        if (base == null || base.isBlank()) {
+            base = System.getenv("LOCALAPPDATA");
+        }
+        if (base == null || base.isBlank()) {
+            base = Path.of(System.getProperty("user.home"), ".cache").toString();
+        }
+        return Path.of(base, "ChecksumVerifier", "hash-cache.bin");
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Removes the entry with the given path if cached.
+     *
+     * @param path the canonical path of the entry
+     */
+    private void remove(String path) {
+        Entry removed = entries.remove(path);
+        if (removed != null) {
+            bytes -= removed.estimateSize();
+            dirty = true;
+        }
+    }
+
+    /**
+     * Orders the entries by their last access, since merged entries and lookups while merging are moved to the end
+     * regardless of when they have been used.
+     */
+    private void sortByLastAccess() {
+        List<Entry> sorted = new ArrayList<>(entries.values());
+        sorted.sort(Comparator.comparingLong(entry -> entry.lastAccess));
+
+        entries.clear();
+        for (Entry entry : sorted) {
+            entries.put(entry.state.path, entry);
+        }
+    }
+
+    /**
+     * Removes the least recently used entries until the limits are met.
+     */
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (eldest.hasNext() && (entries.size() > maxEntries || bytes > maxBytes)) {
+            bytes -= eldest.next().estimateSize();
+            eldest.remove();
+            dirty = true;
+        }
+    }
+
+    /**
+     * Runs the given action while holding an exclusive lock on the index, shared by all processes.
+     *
+     * @param action the action accessing the index
+     * @throws IOException if the lock cannot be acquired or the action fails
+     */
+    private void withLock(IndexAction action) throws IOException {
+        Files.createDirectories(lockFile.getParent());
+
+        // file locks are held per process, so instances of the same process have to be synchronized in addition
+        synchronized (HashCache.class) {
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    action.run();
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads all entries from the index file in the order of their last access.
+     *
+     * @return the entries per canonical path, empty if there is no index yet
+     * @throws IOException if the index cannot be read or is invalid
+     */
+    private Map<String, Entry> readIndex() throws IOException {
+        Map<String, Entry> result = new LinkedHashMap<>();
+        if (!Files.exists(indexFile)) {
+            return result;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unknown index format");
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Entry entry = new Entry(new FileState(in.readUTF(), in.readLong(), in.readLong(), in.readUTF()));
+                entry.lastAccess = in.readLong();
+
+                int hashCount = in.readUnsignedByte();
+                for (int h = 0; h < hashCount; h++) {
+                    String algorithm = in.readUTF();
+                    byte[] hash = new byte[in.readUnsignedByte()];
+                    in.readFully(hash);
+                    entry.hashes.put(algorithm, hash);
+                }
+
+                result.put(entry.state.path, entry);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Writes all entries to the given file, the least recently used first.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    private void writeIndex(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+
+            for (Entry entry : entries.values()) {
+                out.writeUTF(entry.state.path);
+                out.writeLong(entry.state.size);
+                out.writeLong(entry.state.lastModified);
+                out.writeUTF(entry.state.fileKey);
+                out.writeLong(entry.lastAccess);
+
+                out.writeByte(entry.hashes.size());
+                for (Map.Entry<String, byte[]> hash : entry.hashes.entrySet()) {
+                    out.writeUTF(hash.getKey());
+                    out.writeByte(hash.getValue().length);
+                    out.write(hash.getValue());
+                }
+            }
+        }
+    }
+
+    /*==================================================*
+     *==                INNER CLASSES                 ==*
+     *==================================================*/
+
+    /**
+     * The attributes identifying a certain version of a file.
+     */
+    public static class FileState {
+
+        private final String path;
+        private final long size;
+        private final long lastModified;
+        private final String fileKey;
+
+        private FileState(String path, long size, long lastModified, String fileKey) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.fileKey = fileKey;
+        }
+
+        /**
+         * Reads the current state of the given file.
+         *
+         * @param file the file to inspect
+         * @return the state of the file or empty if the file cannot be accessed
+         */
+        public static Optional<FileState> of(File file) {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+                Object fileKey = attrs.fileKey();
+
+                return Optional.of(new FileState(
+                        file.getCanonicalPath(),
+                        attrs.size(),
+                        attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                        fileKey == null ? "" : fileKey.toString()
+                ));
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+
+        String getFileKey() {
+            return fileKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FileState)) {
+                return false;
+            }
+            FileState other = (FileState) o;
+            return size == other.size && lastModified == other.lastModified
+                    && path.equals(other.path) && fileKey.equals(other.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode();
+        }
+    }
+
+    /**
+     * The cached checksums of a file per algorithm.
+     */
+    private static class Entry {
+
+        private final FileState state;
+        private final Map<String, byte[]> hashes = new HashMap<>();
+        private long lastAccess;
+
+        private Entry(FileState state) {
+            this.state = state;
+        }
+
+        private long estimateSize() {
+            long size = ENTRY_OVERHEAD + 2L * (state.path.length() + state.fileKey.length());
+            for (Map.Entry<String, byte[]> hash : hashes.entrySet()) {
+                size += hash.getKey().length() + hash.getValue().length + 2;
+            }
+            return size;
+        }
+    }
+
+    /**
+     * An action accessing the index file, see {@link #withLock(IndexAction)}.
+     */
+    @FunctionalInterface
+    private interface IndexAction {
+        void run() throws IOException;
+    }
+}
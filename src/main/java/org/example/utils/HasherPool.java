@@ -0,0 +1,58 @@
+package org.example.utils;
+
+import org.example.model.Checksum;
+import org.example.utils.engine.Hasher;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+
+/**
+ * Keeps one idle hasher per algorithm and thread, so that hashing millions of small files does not create a hasher per
+ * file.
+ *
+ * A hasher is borrowed with {@link #acquire(Checksum)} and only given back with {@link #release(Checksum, Hasher)}
+ * after its digest has been finished. Hashers of failed computations are not given back, since another thread may
+ * still be updating them, e.g. a worker of a cancelled {@link DigestPipeline}.
+ */
+final class HasherPool {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final ThreadLocal<EnumMap<Checksum, Hasher>> IDLE =
+            ThreadLocal.withInitial(() -> new EnumMap<>(Checksum.class));
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    private HasherPool() {
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Borrows the idle hasher of the current thread or creates a new one if it is in use.
+     *
+     * @param checksum the algorithm
+     * @return a hasher without any input
+     * @throws NoSuchAlgorithmException if no engine supports the algorithm
+     */
+    static Hasher acquire(Checksum checksum) throws NoSuchAlgorithmException {
+        Hasher hasher = IDLE.get().remove(checksum);
+        return hasher != null ? hasher : ChecksumComputer.newHasher(checksum);
+    }
+
+    /**
+     * Gives a hasher back for the next computation of the current thread.
+     *
+     * @param checksum the algorithm of the hasher
+     * @param hasher the hasher whose digest has been finished
+     */
+    static void release(Checksum checksum, Hasher hasher) {
+        IDLE.get().put(checksum, hasher);
+    }
+}
@@ -0,0 +1,488 @@
+package org.example.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Schedules reads of many files, so that each storage device is kept busy without thrashing it.
+ *
+ * Pending files are grouped by their {@link FileStore}. Each device gets its own limit of concurrent reads, a low one
+ * for rotational disks and network volumes and a high one for solid-state drives, so that mixed storage is read at full
+ * bandwidth on every device at the same time. Reads on rotational disks and network volumes are additionally ordered
+ * by inode number like an elevator, which roughly follows the physical location, or by path if there are no inodes.
+ *
+ * Only a bounded window of pending files is held in memory, so the files may be provided lazily.
+ */
+public class IoScheduler {
+
+    /*==================================================*
+     *==                   LOGGER                     ==*
+     *==================================================*/
+
+    private static final Logger LOGGER = LogManager.getLogger(IoScheduler.class);
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    /**
+     * The default number of concurrent reads on a rotational disk or network volume.
+     */
+    public static final int DEFAULT_HDD_CONCURRENCY = 1;
+
+    /**
+     * The default number of pending files held in memory for ordering.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 4096;
+
+    private static final Path SYS_BLOCK = Path.of("/sys/class/block");
+
+    private static final Set<String> NETWORK_TYPES = Set.of("nfs", "nfs4", "cifs", "smb3", "smbfs", "fuse.sshfs", "9p");
+
+    /**
+     * The number of directories whose device is remembered.
+     */
+    private static final int DIRECTORY_CACHE_SIZE = 1024;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final int ssdConcurrency;
+    private final int hddConcurrency;
+    private int windowSize = DEFAULT_WINDOW_SIZE;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    public IoScheduler(int ssdConcurrency) {
+        this(ssdConcurrency, DEFAULT_HDD_CONCURRENCY);
+    }
+
+    /**
+     * @param ssdConcurrency the maximum number of concurrent reads per solid-state drive
+     * @param hddConcurrency the maximum number of concurrent reads per rotational disk or network volume
+     */
+    public IoScheduler(int ssdConcurrency, int hddConcurrency) {
+        if (ssdConcurrency <= 0 || hddConcurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive: " + ssdConcurrency + ", " + hddConcurrency);
+        }
+        this.ssdConcurrency = ssdConcurrency;
+        this.hddConcurrency = hddConcurrency;
+    }
+
+    /*==================================================*
+     *==                 ACCESSORS                    ==*
+     *==================================================*/
+
+    /**
+     * Sets the maximum number of pending files held in memory, a larger window allows a better order of the reads.
+     *
+     * @param windowSize the number of pending files
+     */
+    public void setWindowSize(int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        this.windowSize = windowSize;
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Runs the given task for each item, respecting the limit of the device each item's file is located on.
+     *
+     * Returns after all tasks have finished. Items are only requested as fast as the window allows. If a task throws an
+     * exception, no further tasks are started and the exception is thrown once the running tasks have finished.
+     *
+     * @param items the items to process, e.g. verification entries
+     * @param pathOf returns the file read by the task for an item
+     * @param task reads the file of an item, called by the workers
+     * @param <T> the type of the items
+     * @throws InterruptedException if interrupted while waiting for the workers
+     * @throws RuntimeException the first exception thrown by a task, with the ones of other tasks as suppressed
+     */
+    public <T> void run(Iterator<T> items, Function<T, Path> pathOf, Consumer<T> task) throws InterruptedException {
+        ExecutorService workers = Executors.newCachedThreadPool();
+        Run<T> run = new Run<>(workers, task);
+        try {
+            run.dispatch(items, pathOf);
+        } finally {
+
+            // wait until all dispatched tasks have finished
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        run.throwFailure();
+    }
+
+    /*==================================================*
+     *==              PACKAGE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Returns the file store of the given directory, overridden by tests to simulate devices.
+     *
+     * @param directory the directory
+     * @return the file store
+     * @throws IOException if the file store cannot be determined
+     */
+    FileStore getFileStore(Path directory) throws IOException {
+        return Files.getFileStore(directory);
+    }
+
+    /**
+     * Reads the inode number of the given file, which roughly follows its physical location on a disk.
+     *
+     * @param path the file
+     * @return the inode number or 0 if unknown
+     */
+    long readInode(Path path) {
+        try {
+            return ((Number) Files.getAttribute(path, "unix:ino")).longValue();
+        } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Checks whether reads on the given file store are slow to seek, i.e. it is located on a rotational disk or is a
+     * network volume.
+     *
+     * @param store the file store
+     * @return true for rotational disks and network volumes, else false
+     */
+    static boolean isRotational(FileStore store) {
+        return isRotational(store, SYS_BLOCK);
+    }
+
+    /**
+     * Checks whether reads on the given file store are slow to seek, i.e. it is located on a rotational disk or is a
+     * network volume.
+     *
+     * @param store the file store
+     * @param sysBlock the directory listing the block devices, usually '/sys/class/block'
+     * @return true for rotational disks and network volumes, else false
+     */
+    static boolean isRotational(FileStore store, Path sysBlock) {
+        if (NETWORK_TYPES.contains(store.type().toLowerCase(Locale.ROOT))) {
+            return true;
+        }
+        return store.name().startsWith("/dev/") && isRotational(Path.of(store.name()), sysBlock);
+    }
+
+    /**
+     * Checks whether the given block device is a rotational disk, as reported by 'queue/rotational' of the device or of
+     * the disk containing the partition.
+     *
+     * @param device the device like '/dev/sda1', symbolic links like '/dev/mapper/vg-root' are resolved
+     * @param sysBlock the directory listing the block devices, usually '/sys/class/block'
+     * @return true for rotational disks, false for other or unknown devices
+     */
+    static boolean isRotational(Path device, Path sysBlock) {
+        try {
+            Path name = (Files.exists(device) ? device.toRealPath() : device).getFileName();
+            Path entry = sysBlock.resolve(name.toString());
+
+            // partitions have no queue, but are located inside the directory of their disk
+            Path flag = entry.resolve("queue/rotational");
+            if (!Files.exists(flag)) {
+                flag = entry.toRealPath().getParent().resolve("queue/rotational");
+            }
+            return Files.readString(flag).trim().equals("1");
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /*==================================================*
+     *==                INNER CLASSES                 ==*
+     *==================================================*/
+
+    /**
+     * The state of a single run, all fields are guarded by the lock.
+     *
+     * @param <T> the type of the items
+     */
+    private class Run<T> {
+
+        private final ExecutorService workers;
+        private final Consumer<T> task;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition finished = lock.newCondition();
+
+        private final Map<FileStore, Device<T>> devices = new HashMap<>();
+        private final Map<Path, Device<T>> directories = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Device<T>> eldest) {
+                return size() > DIRECTORY_CACHE_SIZE;
+            }
+        };
+
+        /**
+         * Files whose device is unknown, e.g. missing files, which are scheduled like on a solid-state drive.
+         */
+        private final Device<T> unknown = new Device<>(ssdConcurrency, false);
+
+        private int pending;
+        private long sequence;
+
+        /**
+         * The first exception thrown by a task, after which no further tasks are started.
+         */
+        private RuntimeException failure;
+
+        private Run(ExecutorService workers, Consumer<T> task) {
+            this.workers = workers;
+            this.task = task;
+        }
+
+        /**
+         * Reads the items into the window and dispatches them whenever a device has capacity.
+         *
+         * @param items the items to process
+         * @param pathOf returns the file of an item
+         * @throws InterruptedException if interrupted while waiting for the workers
+         */
+        private void dispatch(Iterator<T> items, Function<T, Path> pathOf) throws InterruptedException {
+            List<Job<T>> arrived = new ArrayList<>();
+
+            while (true) {
+
+                // look up devices and locations outside the lock, the workers only wait for the lock briefly
+                int free;
+                lock.lock();
+                try {
+                    free = failure == null ? windowSize - pending : 0;
+                } finally {
+                    lock.unlock();
+                }
+                while (free-- > 0 && items.hasNext()) {
+                    T item = items.next();
+                    Path path = pathOf.apply(item).toAbsolutePath();
+                    Device<T> device = findDevice(path);
+                    arrived.add(new Job<>(item, device, device.rotational ? readInode(path) : 0,
+                            device.rotational ? path.toString() : "", sequence++));
+                }
+                boolean more = items.hasNext();
+
+                lock.lock();
+                try {
+                    for (Job<T> job : arrived) {
+                        job.device.queue.add(job);
+                        pending++;
+                    }
+                    arrived.clear();
+
+                    startJobs();
+                    more &= failure == null;
+                    if (pending == 0 && !more) {
+                        return;
+                    }
+
+                    // wait for a finished read unless more items fit into the window
+                    if (pending >= windowSize || !more) {
+                        finished.await();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        /**
+         * Starts the next jobs of all devices with free capacity, must be called holding the lock.
+         */
+        private void startJobs() {
+            for (Device<T> device : devices.values()) {
+                startJobs(device);
+            }
+            startJobs(unknown);
+        }
+
+        private void startJobs(Device<T> device) {
+
+            // a task has failed, so the remaining jobs are dropped
+            if (failure != null) {
+                pending -= device.queue.size();
+                device.queue.clear();
+                return;
+            }
+
+            while (device.running < device.limit && !device.queue.isEmpty()) {
+
+                // continue in the direction of the last read and wrap around at the end like an elevator
+                Job<T> next = device.last == null ? null : device.queue.higher(device.last);
+                Job<T> job = next == null ? device.queue.first() : next;
+                device.queue.remove(job);
+                device.last = job;
+                device.running++;
+
+                try {
+                    workers.execute(() -> {
+                        RuntimeException error = null;
+                        try {
+                            task.accept(job.item);
+                        } catch (RuntimeException e) {
+                            error = e;
+                        } finally {
+                            lock.lock();
+                            try {
+                                if (error != null && failure == null) {
+                                    failure = error;
+                                } else if (error != null && error != failure) {
+                                    failure.addSuppressed(error);
+                                }
+                                device.running--;
+                                pending--;
+                                startJobs(device);
+                                finished.signal();
+                            } finally {
+                                lock.unlock();
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+
+                    // the run has been interrupted, the remaining jobs are dropped
+                    device.running--;
+                    device.queue.clear();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Throws the exception of a failed task, must be called after all tasks have finished.
+         */
+        private void throwFailure() {
+            lock.lock();
+            try {
+                if (failure != null) {
+                    throw failure;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Returns the device of the given file, looking up each directory only once.
+         *
+         * @param path the absolute path of the file
+         * @return the device or {@link #unknown} if the file store cannot be determined
+         */
+        private Device<T> findDevice(Path path) {
+            Path directory = path.getParent() == null ? path : path.getParent();
+
+            lock.lock();
+            try {
+                Device<T> device = directories.get(directory);
+                if (device != null) {
+                    return device;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            Device<T> device;
+            try {
+                FileStore store = getFileStore(directory);
+                lock.lock();
+                try {
+                    device = devices.computeIfAbsent(store, s -> {
+                        boolean rotational = isRotational(s, SYS_BLOCK);
+                        LOGGER.debug("Scheduling " + s + " as " + (rotational ? "rotational" : "solid-state"));
+                        return new Device<>(rotational ? hddConcurrency : ssdConcurrency, rotational);
+                    });
+                } finally {
+                    lock.unlock();
+                }
+            } catch (IOException e) {
+                device = unknown;
+            }
+
+            lock.lock();
+            try {
+                directories.put(directory, device);
+            } finally {
+                lock.unlock();
+            }
+            return device;
+        }
+    }
+
+    /**
+     * The pending and running reads of a single device, guarded by the lock of the run.
+     *
+     * @param <T> the type of the items
+     */
+    private static class Device<T> {
+
+        private final int limit;
+        private final boolean rotational;
+        private final TreeSet<Job<T>> queue = new TreeSet<>(Job.ORDER);
+
+        private int running;
+        private Job<T> last;
+
+        private Device(int limit, boolean rotational) {
+            this.limit = limit;
+            this.rotational = rotational;
+        }
+    }
+
+    /**
+     * A pending read ordered by its location, jobs on solid-state drives have no location and keep their arrival order.
+     *
+     * @param <T> the type of the items
+     */
+    private static class Job<T> {
+
+        @SuppressWarnings("rawtypes")
+        private static final Comparator<Job> ORDER = Comparator.<Job>comparingLong(job -> job.inode)
+                .thenComparing(job -> job.path)
+                .thenComparingLong(job -> job.sequence);
+
+        private final T item;
+        private final Device<T> device;
+        private final long inode;
+        private final String path;
+        private final long sequence;
+
+        private Job(T item, Device<T> device, long inode, String path, long sequence) {
+            this.item = item;
+            this.device = device;
+            this.inode = inode;
+            this.path = path;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package org.example.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.model.Checksum;
+import org.example.model.VerificationEntry;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads checksum manifests like 'SHA256SUMS' line by line, so that even huge manifests need constant memory.
+ *
+ * Supported are the GNU coreutils format ('hex  path' or 'hex *path' for binary mode, including escaped file names)
+ * and the BSD format ('SHA256 (path) = hex'). Relative paths are resolved against the manifest's directory. The
+ * algorithm of a line is taken from its BSD tag, else from the manifest's file name, else from the checksum's length.
+ * Lengths shared by several algorithms resolve to the most common one, so untagged 64-digit checksums as printed by
+ * 'sha256sum' are SHA256, while BLAKE3 manifests need a BSD tag or a file name like 'B3SUMS.blake3'.
+ */
+public class ManifestReader implements Iterator<VerificationEntry>, Closeable {
+
+    /*==================================================*
+     *==                   LOGGER                     ==*
+     *==================================================*/
+
+    private static final Logger LOGGER = LogManager.getLogger(ManifestReader.class);
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final Pattern GNU_LINE = Pattern.compile("^(\\\\?)([0-9a-fA-F]+) [ *](.+)$");
+    private static final Pattern BSD_LINE = Pattern.compile("^([A-Za-z0-9-]+) ?\\((.+)\\) ?= ?([0-9a-fA-F]+)$");
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final BufferedReader reader;
+    private final Path baseDir;
+    private final Checksum defaultChecksum;
+
+    private VerificationEntry next;
+    private long lineNumber;
+    private long malformedLines;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    /**
+     * Opens the given manifest and detects its algorithm by its file name if possible.
+     *
+     * @param manifest the manifest to read
+     * @throws IOException if the manifest cannot be opened
+     */
+    public ManifestReader(Path manifest) throws IOException {
+        this(manifest, detectFromFileName(manifest.getFileName().toString()).orElse(null));
+    }
+
+    /**
+     * Opens the given manifest whose lines without BSD tag use the given algorithm.
+     *
+     * @param manifest the manifest to read
+     * @param checksum the algorithm of lines without BSD tag or null to detect it by the checksum's length
+     * @throws IOException if the manifest cannot be opened
+     */
+    public ManifestReader(Path manifest, Checksum checksum) throws IOException {
+        this.reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8);
+        this.baseDir = manifest.toAbsolutePath().getParent();
+        this.defaultChecksum = checksum;
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    @Override
+    public boolean hasNext() {
+
+        // read lines until finding the next valid entry or reaching the end
+        try {
+            String line;
+            while (next == null && (line = reader.readLine()) != null) {
+                lineNumber++;
+
+                // skip empty lines and comments
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+
+                Optional<VerificationEntry> entry = parseLine(line, baseDir, defaultChecksum);
+                if (entry.isPresent()) {
+                    next = entry.get();
+                } else {
+                    malformedLines++;
+                    LOGGER.warn("Skipping improperly formatted manifest line " + lineNumber);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return next != null;
+    }
+
+    @Override
+    public VerificationEntry next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        VerificationEntry entry = next;
+        next = null;
+        return entry;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Returns the number of lines which have been skipped so far since they could not be parsed.
+     *
+     * @return the number of malformed lines
+     */
+    public long getMalformedLines() {
+        return malformedLines;
+    }
+
+    /**
+     * Parses a single manifest line.
+     *
+     * @param line the line in GNU or BSD format
+     * @param baseDir the directory against which relative paths are resolved
+     * @param defaultChecksum the algorithm for lines without BSD tag or null to detect it by the checksum's length
+     * @return the entry described by the line or empty if the line is malformed
+     */
+    public static Optional<VerificationEntry> parseLine(String line, Path baseDir, Checksum defaultChecksum) {
+
+        // ignore line endings of manifests created on Windows
+        if (line.endsWith("\r")) {
+            line = line.substring(0, line.length() - 1);
+        }
+
+        // BSD format with the algorithm as tag
+        Matcher bsd = BSD_LINE.matcher(line);
+        if (bsd.matches()) {
+            Optional<Checksum> alg = detectFromTag(bsd.group(1));
+            return alg.map(checksum -> createEntry(baseDir, bsd.group(2), checksum, bsd.group(3)));
+        }
+
+        // GNU format, a leading backslash indicates an escaped file name
+        Matcher gnu = GNU_LINE.matcher(line);
+        if (gnu.matches()) {
+            String hex = gnu.group(2);
+            String path = gnu.group(1).isEmpty() ? gnu.group(3) : unescape(gnu.group(3));
+
+            Optional<Checksum> alg = Optional.ofNullable(defaultChecksum).or(() -> detectFromLength(hex.length()));
+            return alg.map(checksum -> createEntry(baseDir, path, checksum, hex));
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Detects the algorithm by a manifest's file name, e.g. 'SHA256SUMS' or 'release.md5'.
+     *
+     * @param fileName the name of the manifest
+     * @return the algorithm or empty if the name does not contain one
+     */
+    public static Optional<Checksum> detectFromFileName(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+
+        // prefer the longest matching name in case one name is contained in another
+        Checksum detected = null;
+        for (Checksum alg : Checksum.values()) {
+            if (lower.contains(alg.getFileExtension())
+                    && (detected == null || alg.getFileExtension().length() > detected.getFileExtension().length())) {
+                detected = alg;
+            }
+        }
+
+        return Optional.ofNullable(detected);
+    }
+
+    /**
+     * Detects the algorithm by the length of a hexadecimal checksum.
+     *
+     * @param hexLength the number of hexadecimal characters
+     * @return the algorithm, the first declared one like SHA256 before BLAKE3 if several algorithms share the length,
+     * or empty if no algorithm creates checksums of this length
+     */
+    public static Optional<Checksum> detectFromLength(int hexLength) {
+        for (Checksum alg : Checksum.values()) {
+            if (alg.getDigestLength() * 2 == hexLength) {
+                return Optional.of(alg);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Detects the algorithm by a BSD tag like 'SHA256' or 'SHA-256'.
+     *
+     * @param tag the tag of the line
+     * @return the algorithm or empty if the tag is unknown
+     */
+    private static Optional<Checksum> detectFromTag(String tag) {
+        String normalized = tag.replace("-", "").toLowerCase(Locale.ROOT);
+        for (Checksum alg : Checksum.values()) {
+            if (alg.getFileExtension().equals(normalized)) {
+                return Optional.of(alg);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Creates an entry for the given path, resolved against the given directory if relative.
+     *
+     * @param baseDir the directory of the manifest
+     * @param path the path as written in the manifest
+     * @param checksum the algorithm of the entry
+     * @param hex the expected checksum
+     * @return the created entry
+     */
+    private static VerificationEntry createEntry(Path baseDir, String path, Checksum checksum, String hex) {
+        return new VerificationEntry(baseDir.resolve(path).toFile(), checksum, hex);
+    }
+
+    /**
+     * Reverts the escaping of file names containing backslashes or line breaks as done by GNU coreutils.
+     *
+     * @param path the escaped path
+     * @return the original path
+     */
+    private static String unescape(String path) {
+        StringBuilder result = new StringBuilder(path.length());
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '\\' && i + 1 < path.length()) {
+                char escaped = path.charAt(++i);
+                result.append(escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.utils;
+
+/**
+ * Receives the progress while a file is read for computing its checksum.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * Listener ignoring the progress.
+     */
+    ProgressListener NONE = (bytesProcessed, totalBytes) -> {};
+
+    /**
+     * Called after each processed block, so implementations should return quickly.
+     *
+     * @param bytesProcessed the number of bytes processed so far
+     * @param totalBytes the size of the file
+     */
+    void onProgress(long bytesProcessed, long totalBytes);
+}
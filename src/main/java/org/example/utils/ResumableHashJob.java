@@ -0,0 +1,299 @@
+package org.example.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.model.Checksum;
+import org.example.model.ReadStrategy;
+import org.example.utils.engine.Sha2Engine;
+import org.example.utils.engine.StatefulHasher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * Hashes a file with SHA256 or SHA512 while saving checkpoints, so that an interrupted computation continues from the
+ * last checkpoint instead of starting over.
+ *
+ * A checkpoint consists of the offset, the serialized state of the hasher, the size, modification time and file key
+ * of the file like in the {@link HashCache} and a CRC of the bytes right before the offset. After finishing, a
+ * checkpoint at the end of the file is kept as well, so hashing an append-only file like a log again only reads the
+ * appended bytes. A checkpoint is only used if its file is unchanged or has only grown since, i.e. it is discarded if
+ * the file has been replaced, has become shorter, has been modified without growing or the CRC differs.
+ */
+public class ResumableHashJob {
+
+    /*==================================================*
+     *==                   LOGGER                     ==*
+     *==================================================*/
+
+    private static final Logger LOGGER = LogManager.getLogger(ResumableHashJob.class);
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    /**
+     * The default number of bytes hashed between two checkpoints.
+     */
+    public static final long DEFAULT_CHECKPOINT_INTERVAL = 1024L * 1024 * 1024;
+
+    private static final int MAGIC = 0x43564852;
+    private static final int VERSION = 2;
+
+    /**
+     * The number of bytes before the offset of a checkpoint which are compared when resuming.
+     */
+    private static final int ANCHOR_SIZE = 64 * 1024;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final Checksum checksum;
+    private final Sha2Engine engine;
+    private final Path checkpointFile;
+    private final long checkpointInterval;
+    private final ChannelReader reader = new ChannelReader(ReadStrategy.BUFFERED);
+
+    private long resumedOffset;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    public ResumableHashJob(Checksum checksum, Path checkpointFile) {
+        this(checksum, checkpointFile, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * @param checksum the algorithm, either SHA256 or SHA512
+     * @param checkpointFile the file storing the checkpoint
+     * @param checkpointInterval the number of bytes hashed between two checkpoints
+     * @throws IllegalArgumentException if the algorithm does not support resuming or the interval is not positive
+     */
+    public ResumableHashJob(Checksum checksum, Path checkpointFile, long checkpointInterval) {
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + checkpointInterval);
+        }
+        this.checksum = checksum;
+        this.engine = Sha2Engine.of(checksum.getAlgorithm());
+        this.checkpointFile = checkpointFile;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /*==================================================*
+     *==                 ACCESSORS                    ==*
+     *==================================================*/
+
+    /**
+     * Returns the offset from which the last run continued, 0 if it had to start from the beginning.
+     *
+     * @return the offset of the checkpoint used by the last run
+     */
+    public long getResumedOffset() {
+        return resumedOffset;
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Computes the checksum of the given file, continuing from the checkpoint if it belongs to the file.
+     *
+     * The computation stops and returns empty as soon as the current thread is interrupted, the last checkpoint is
+     * kept for the next run.
+     *
+     * @param file the file for which the checksum is to be computed
+     * @return the checksum as string or empty
+     */
+    public Optional<String> run(File file) {
+
+        // initialize return value with empty if an error occurs while processing the file
+        Optional<String> result = Optional.empty();
+        resumedOffset = 0;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // the state before reading, so that changes while reading invalidate the checkpoints
+            HashCache.FileState fileState = HashCache.FileState.of(file)
+                    .orElseThrow(() -> new IOException("Cannot access " + file));
+            StatefulHasher hasher = engine.newHasher();
+
+            // continue from the checkpoint if it is still valid for the file
+            long offset = readCheckpoint(channel, fileState, hasher);
+            resumedOffset = offset;
+            channel.position(offset);
+
+            // hash the rest and save checkpoints in between
+            long[] position = { offset, offset };
+            reader.read(channel, block -> {
+                position[0] += block.remaining();
+                hasher.update(block);
+
+                if (position[0] - position[1] >= checkpointInterval) {
+                    position[1] = position[0];
+                    writeCheckpoint(channel, fileState, position[0], hasher.getState());
+                }
+            });
+
+            // keep the state at the end for appended data
+            writeCheckpoint(channel, fileState, position[0], hasher.getState());
+            result = Optional.of(HexFormat.of().formatHex(hasher.digest()));
+
+        } catch (UncheckedIOException e) {
+            LOGGER.error(e.getCause().getMessage());
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage());
+        }
+
+        // return the checksum or empty if an error had occurred
+        return result;
+    }
+
+    /**
+     * Deletes the checkpoint, so that the next run starts from the beginning.
+     *
+     * @throws IOException if the checkpoint cannot be deleted
+     */
+    public void discardCheckpoint() throws IOException {
+        Files.deleteIfExists(checkpointFile);
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Restores the hasher from the checkpoint if it has been saved for the given file which still matches it.
+     *
+     * @param channel the channel of the file
+     * @param fileState the current state of the file
+     * @param hasher the hasher to restore
+     * @return the offset to continue from, 0 if there is no valid checkpoint
+     * @throws IOException if the file cannot be read
+     */
+    private long readCheckpoint(FileChannel channel, HashCache.FileState fileState, StatefulHasher hasher)
+            throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+
+        long offset;
+        long size;
+        long lastModified;
+        String fileKey;
+        int anchor;
+        byte[] state;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpointFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || !in.readUTF().equals(checksum.getAlgorithm()) || !in.readUTF().equals(fileState.getPath())) {
+                LOGGER.warn("Ignoring checkpoint of another file or format: " + checkpointFile);
+                return 0;
+            }
+            offset = in.readLong();
+            size = in.readLong();
+            lastModified = in.readLong();
+            fileKey = in.readUTF();
+            anchor = in.readInt();
+            state = new byte[in.readInt()];
+            in.readFully(state);
+        } catch (IOException e) {
+            LOGGER.warn("Ignoring unreadable checkpoint " + checkpointFile + ": " + e.getMessage());
+            return 0;
+        }
+
+        // the file must be unchanged or only have grown since, like an appended log, even for a checkpoint at its end
+        boolean unchanged = fileState.getSize() == size && fileState.getLastModified() == lastModified;
+        boolean grown = fileState.getSize() > size && fileState.getLastModified() >= lastModified;
+        if (!fileState.getFileKey().equals(fileKey) || !(unchanged || grown) || offset > fileState.getSize()
+                || computeAnchor(channel, offset) != anchor) {
+            LOGGER.warn("Ignoring checkpoint since the file has been modified: " + fileState.getPath());
+            return 0;
+        }
+
+        try {
+            hasher.setState(state);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Ignoring invalid checkpoint " + checkpointFile + ": " + e.getMessage());
+            hasher.reset();
+            return 0;
+        }
+        return offset;
+    }
+
+    /**
+     * Saves a checkpoint, replacing the previous one atomically.
+     *
+     * @param channel the channel of the file
+     * @param fileState the state of the file before hashing it
+     * @param offset the number of bytes hashed
+     * @param state the state of the hasher after hashing these bytes
+     * @throws UncheckedIOException if the checkpoint cannot be written
+     */
+    private void writeCheckpoint(FileChannel channel, HashCache.FileState fileState, long offset, byte[] state) {
+        try {
+            // write to a temporary file first, so that an interruption never leaves a partial checkpoint
+            Path tempFile = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(checksum.getAlgorithm());
+                out.writeUTF(fileState.getPath());
+                out.writeLong(offset);
+                out.writeLong(fileState.getSize());
+                out.writeLong(fileState.getLastModified());
+                out.writeUTF(fileState.getFileKey());
+                out.writeInt(computeAnchor(channel, offset));
+                out.writeInt(state.length);
+                out.write(state);
+            }
+
+            try {
+                Files.move(tempFile, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, checkpointFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Computes the CRC of the bytes right before the given offset, without changing the channel's position.
+     *
+     * @param channel the channel of the file
+     * @param offset the offset of the checkpoint
+     * @return the CRC of up to {@link #ANCHOR_SIZE} bytes
+     * @throws IOException if the file cannot be read
+     */
+    private static int computeAnchor(FileChannel channel, long offset) throws IOException {
+        int length = (int) Math.min(ANCHOR_SIZE, offset);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+
+        long position = offset - length;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("File has been truncated while hashing");
+            }
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.flip());
+        return (int) crc.getValue();
+    }
+}
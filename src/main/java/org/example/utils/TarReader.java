@@ -0,0 +1,315 @@
+package org.example.utils;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the entries of a TAR archive sequentially from a stream, without storing their content.
+ *
+ * Supports the ustar format with name prefixes, GNU long names and the path and size of PAX extended headers, which
+ * covers the archives created by GNU tar, bsdtar and most libraries. Only regular files are returned, all other entries
+ * like directories or links are skipped.
+ */
+class TarReader implements Closeable {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final int BLOCK_SIZE = 512;
+
+    /**
+     * The largest GNU long name or PAX header read into memory.
+     */
+    private static final int MAX_HEADER_DATA = 1024 * 1024;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final InputStream in;
+    private final byte[] header = new byte[BLOCK_SIZE];
+
+    /**
+     * The unread bytes of the current entry and the padding after it.
+     */
+    private long remaining;
+    private long padding;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    /**
+     * @param in the stream of the uncompressed archive
+     */
+    TarReader(InputStream in) {
+        this.in = in;
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Skips the rest of the current entry and moves to the next regular file.
+     *
+     * @return the name of the next file or null at the end of the archive
+     * @throws IOException if the archive cannot be read or is malformed
+     */
+    String nextFile() throws IOException {
+        skipFully(remaining + padding);
+        remaining = 0;
+        padding = 0;
+
+        String longName = null;
+        long paxSize = -1;
+
+        while (true) {
+
+            // the end of the archive is marked by zero blocks, some writers omit them
+            if (!readHeader()) {
+                return null;
+            }
+
+            String name = readString(0, 100);
+            long size = readSize();
+            char type = (char) header[156];
+            if (isPosixUstar()) {
+                String prefix = readString(345, 155);
+                if (!prefix.isEmpty()) {
+                    name = prefix + "/" + name;
+                }
+            }
+
+            // extended headers describe the following entry
+            if (type == 'L') {
+                longName = new String(readData(size), StandardCharsets.UTF_8).replace("\0", "");
+                continue;
+            }
+            if (type == 'x') {
+                Map<String, String> pax = readPaxRecords(readData(size));
+                longName = pax.getOrDefault("path", longName);
+                paxSize = pax.containsKey("size") ? readPaxSize(pax.get("size")) : paxSize;
+                continue;
+            }
+
+            remaining = paxSize >= 0 ? paxSize : size;
+            padding = (BLOCK_SIZE - remaining % BLOCK_SIZE) % BLOCK_SIZE;
+
+            // only regular files have content worth verifying
+            if (type == '0' || type == '\0' || type == '7') {
+                return longName != null ? longName : name;
+            }
+            skipFully(remaining + padding);
+            remaining = 0;
+            padding = 0;
+            longName = null;
+            paxSize = -1;
+        }
+    }
+
+    /**
+     * Returns a stream of the current file's content, which ends at the end of the file and must be read before
+     * moving to the next file.
+     *
+     * @return the stream of the content, closing it has no effect
+     */
+    InputStream openFile() {
+        return new InputStream() {
+
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (remaining == 0) {
+                    return -1;
+                }
+                int length = in.read(b, off, (int) Math.min(len, remaining));
+                if (length < 0) {
+                    throw new EOFException("Archive is truncated");
+                }
+                remaining -= length;
+                return length;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Reads the next header block.
+     *
+     * @return false at the end of the archive, else true
+     * @throws IOException if the archive cannot be read or is truncated
+     */
+    private boolean readHeader() throws IOException {
+        int length = in.readNBytes(header, 0, BLOCK_SIZE);
+        if (length == 0) {
+            return false;
+        }
+        if (length < BLOCK_SIZE) {
+            throw new EOFException("Archive is truncated");
+        }
+        for (byte b : header) {
+            if (b != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the size field, which is either octal or base-256 for files of 8 GiB and more.
+     *
+     * @return the size of the entry
+     * @throws IOException if the field is malformed
+     */
+    private long readSize() throws IOException {
+        if ((header[124] & 0x80) != 0) {
+            long size = 0;
+            for (int i = 125; i < 136; i++) {
+                size = (size << 8) | (header[i] & 0xFF);
+            }
+            return size;
+        }
+        String octal = readString(124, 12).trim();
+        try {
+            return octal.isEmpty() ? 0 : Long.parseLong(octal, 8);
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed TAR header: invalid size " + octal);
+        }
+    }
+
+    /**
+     * Checks whether the header has the POSIX ustar magic 'ustar\0' and version '00'. The old GNU format uses the
+     * magic 'ustar  \0' and stores times instead of a name prefix at the same offset.
+     *
+     * @return true if the header may contain a name prefix
+     */
+    private boolean isPosixUstar() {
+        return readString(257, 6).equals("ustar") && readString(263, 2).equals("00");
+    }
+
+    /**
+     * Reads a NUL-terminated string field of the header.
+     *
+     * @param offset the offset of the field
+     * @param length the length of the field
+     * @return the string up to the first NUL
+     */
+    private String readString(int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the content of an extended header into memory.
+     *
+     * @param size the size of the content
+     * @return the content
+     * @throws IOException if the content cannot be read or is too large
+     */
+    private byte[] readData(long size) throws IOException {
+        if (size > MAX_HEADER_DATA) {
+            throw new IOException("Malformed TAR header: extended header of " + size + " bytes");
+        }
+        byte[] data = in.readNBytes((int) size);
+        if (data.length < size) {
+            throw new EOFException("Archive is truncated");
+        }
+        skipFully((BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE);
+        return data;
+    }
+
+    /**
+     * Reads PAX records like '30 path=some/long/name.txt', whose leading length in bytes covers the whole record
+     * including the length itself and the final newline, so that values may contain newlines.
+     *
+     * @param data the content of the extended header
+     * @return the values by their keys
+     * @throws IOException if a record is malformed
+     */
+    private static Map<String, String> readPaxRecords(byte[] data) throws IOException {
+        Map<String, String> records = new HashMap<>();
+        int offset = 0;
+        while (offset < data.length) {
+            int space = offset;
+            while (space < data.length && data[space] != ' ') {
+                space++;
+            }
+
+            int length;
+            try {
+                length = Integer.parseInt(new String(data, offset, space - offset, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed TAR header: invalid PAX record length");
+            }
+            if (space == data.length || length <= space - offset + 1 || length > data.length - offset
+                    || data[offset + length - 1] != '\n') {
+                throw new IOException("Malformed TAR header: invalid PAX record length " + length);
+            }
+
+            String record = new String(data, space + 1, offset + length - space - 2, StandardCharsets.UTF_8);
+            int equals = record.indexOf('=');
+            if (equals < 0) {
+                throw new IOException("Malformed TAR header: invalid PAX record " + record);
+            }
+            records.put(record.substring(0, equals), record.substring(equals + 1));
+            offset += length;
+        }
+        return records;
+    }
+
+    /**
+     * Parses the decimal size of a PAX record.
+     *
+     * @param value the value of the record
+     * @return the size of the entry
+     * @throws IOException if the size is malformed
+     */
+    private static long readPaxSize(String value) throws IOException {
+        try {
+            long size = Long.parseLong(value);
+            if (size >= 0) {
+                return size;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IOException("Malformed TAR header: invalid size " + value);
+    }
+
+    /**
+     * Skips exactly the given number of bytes.
+     *
+     * @param count the number of bytes
+     * @throws IOException if the archive cannot be read or is truncated
+     */
+    private void skipFully(long count) throws IOException {
+        try {
+            in.skipNBytes(count);
+        } catch (EOFException e) {
+            throw new EOFException("Archive is truncated");
+        }
+    }
+}
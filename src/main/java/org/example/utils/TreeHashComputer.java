@@ -0,0 +1,336 @@
+package org.example.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.model.Checksum;
+import org.example.utils.engine.HashEngine;
+import org.example.utils.engine.HashEngines;
+import org.example.utils.engine.Hasher;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes tree hashes, which hash the chunks of a single file in parallel and therefore use all cores for one huge
+ * file.
+ *
+ * A tree hash is NOT the regular checksum of the file and never matches a published {@link Checksum} value. It is
+ * only comparable with tree hashes of the same algorithm and chunk size, which is why {@link #getName()} includes
+ * both. The layout follows the Merkle tree of RFC 6962:
+ * <ul>
+ *     <li>the file is split into chunks of exactly the chunk size, only the last chunk may be shorter, an empty file
+ *     consists of one empty chunk</li>
+ *     <li>each leaf is the hash of the byte 0x00 followed by the chunk</li>
+ *     <li>each inner node is the hash of the byte 0x01 followed by the left and the right child, the left subtree
+ *     covers the largest power of two of chunks which is less than the number of chunks</li>
+ * </ul>
+ */
+public class TreeHashComputer {
+
+    /*==================================================*
+     *==                   LOGGER                     ==*
+     *==================================================*/
+
+    private static final Logger LOGGER = LogManager.getLogger(TreeHashComputer.class);
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    /**
+     * The default size of a chunk, large enough that the inner nodes do not matter for the throughput.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte NODE_PREFIX = 0x01;
+
+    /**
+     * Chunks are read in blocks of this size through one direct buffer per worker thread.
+     */
+    private static final int READ_BLOCK_SIZE = 128 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> BUFFERS =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(READ_BLOCK_SIZE));
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    /**
+     * The pool for files on solid-state drives, separate from the common pool since its workers block on reads.
+     */
+    private static final ForkJoinPool PARALLEL_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The pool for files on rotational disks and network volumes, whose chunks are read one after the other.
+     */
+    private static final ForkJoinPool SEQUENTIAL_POOL = new ForkJoinPool(IoScheduler.DEFAULT_HDD_CONCURRENCY);
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final Checksum checksum;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    public TreeHashComputer(Checksum checksum) {
+        this(checksum, DEFAULT_CHUNK_SIZE);
+    }
+
+    public TreeHashComputer(Checksum checksum, int chunkSize) {
+        this(checksum, chunkSize, null);
+    }
+
+    /**
+     * @param checksum the algorithm of the tree
+     * @param chunkSize the size of each chunk in bytes
+     * @param pool the pool hashing the chunks or null for a dedicated pool per device type, which uses all cores for
+     *             solid-state drives and one thread for rotational disks and network volumes
+     */
+    public TreeHashComputer(Checksum checksum, int chunkSize, ForkJoinPool pool) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.checksum = checksum;
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+    }
+
+    /*==================================================*
+     *==                 ACCESSORS                    ==*
+     *==================================================*/
+
+    /**
+     * Returns the name identifying the tree hash layout, e.g. 'SHA256-TREE-4096K' for SHA256 and 4 MiB chunks.
+     *
+     * @return the name of the layout
+     */
+    public String getName() {
+        String size = chunkSize % 1024 == 0 ? chunkSize / 1024 + "K" : String.valueOf(chunkSize);
+        return checksum.name() + "-TREE-" + size;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Computes the tree hash for the given file and returns it as string.
+     *
+     * The computation stops and returns empty as soon as the current thread is interrupted.
+     *
+     * @param file the file for which the tree hash is to be computed
+     * @return the tree hash as string or empty
+     */
+    public Optional<String> getTreeHash(File file) {
+        return this.getByteTreeHash(file).map(HEX::formatHex);
+    }
+
+    /**
+     * Compares the tree hash of the given file with the given target tree hash.
+     *
+     * @param file the file for which the tree hash should be verified
+     * @param targetTreeHash the should-be tree hash
+     * @return true or false when comparison succeeds, else empty
+     */
+    public Optional<Boolean> verifyTreeHash(File file, String targetTreeHash) {
+        return this.getTreeHash(file).map(actual -> ChecksumComputer.isSameChecksum(actual, targetTreeHash));
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Computes the tree hash for the given file on the fork-join pool.
+     *
+     * @param file the file for which the tree hash is to be computed
+     * @return the tree hash as byte array or empty
+     */
+    private Optional<byte[]> getByteTreeHash(File file) {
+
+        // initialize return value with empty if an error occurs while processing the file
+        Optional<byte[]> hash = Optional.empty();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            HashEngine engine = HashEngines.find(checksum.getAlgorithm())
+                    .orElseThrow(() -> new NoSuchAlgorithmException("Unsupported algorithm: " + checksum.getAlgorithm()));
+
+            // the chunks are read by positional reads, so all workers can share the channel
+            long size = channel.size();
+            long chunks = Math.max(1, (size + chunkSize - 1) / chunkSize);
+            TreeContext context = new TreeContext(channel, engine, size, chunkSize);
+
+            ForkJoinPool workers = pool != null ? pool : selectPool(file);
+            ForkJoinTask<byte[]> root = workers.submit(new SubtreeTask(context, 0, chunks));
+            try {
+                hash = Optional.of(root.get());
+            } catch (InterruptedException e) {
+                context.cancelled = true;
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Tree hashing has been interrupted");
+            } catch (ExecutionException e) {
+                // stop the remaining chunks of the file
+                context.cancelled = true;
+                throw e;
+            }
+
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+            LOGGER.error(cause.getMessage());
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage());
+        }
+
+        // return actual hash or empty if an error had occurred
+        return hash;
+    }
+
+    /**
+     * Selects the dedicated pool by the device the given file is located on.
+     *
+     * @param file the file to hash
+     * @return the pool for the file's device, the parallel one if the device is unknown
+     */
+    private static ForkJoinPool selectPool(File file) {
+        try {
+            return IoScheduler.isRotational(Files.getFileStore(file.toPath())) ? SEQUENTIAL_POOL : PARALLEL_POOL;
+        } catch (IOException e) {
+            return PARALLEL_POOL;
+        }
+    }
+
+    /**
+     * Hashes a single chunk as leaf of the tree.
+     *
+     * @param context the state shared by all tasks of a file
+     * @param index the index of the chunk
+     * @return the leaf hash
+     * @throws IOException if the chunk cannot be read or hashing has been cancelled
+     */
+    private static byte[] hashChunk(TreeContext context, long index) throws IOException {
+        Hasher hasher = context.engine.newHasher();
+        hasher.update(new byte[] { LEAF_PREFIX }, 0, 1);
+
+        long position = index * context.chunkSize;
+        long end = Math.min(position + context.chunkSize, context.size);
+
+        ByteBuffer buffer = BUFFERS.get();
+        while (position < end) {
+            if (context.cancelled) {
+                throw new InterruptedIOException("Tree hashing has been interrupted");
+            }
+
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int length = context.channel.read(buffer, position);
+            if (length < 0) {
+                throw new IOException("File has been truncated while hashing");
+            }
+
+            buffer.flip();
+            hasher.update(buffer);
+            position += length;
+        }
+
+        return hasher.digest();
+    }
+
+    /**
+     * Combines two child hashes to their parent node.
+     *
+     * @param engine the engine of the tree
+     * @param left the hash of the left subtree
+     * @param right the hash of the right subtree
+     * @return the hash of the node
+     */
+    private static byte[] hashNode(HashEngine engine, byte[] left, byte[] right) {
+        Hasher hasher = engine.newHasher();
+        hasher.update(new byte[] { NODE_PREFIX }, 0, 1);
+        hasher.update(left, 0, left.length);
+        hasher.update(right, 0, right.length);
+        return hasher.digest();
+    }
+
+    /*==================================================*
+     *==                INNER CLASSES                 ==*
+     *==================================================*/
+
+    /**
+     * The state shared by all tasks hashing the same file.
+     */
+    private static class TreeContext {
+
+        private final FileChannel channel;
+        private final HashEngine engine;
+        private final long size;
+        private final int chunkSize;
+
+        private volatile boolean cancelled;
+
+        private TreeContext(FileChannel channel, HashEngine engine, long size, int chunkSize) {
+            this.channel = channel;
+            this.engine = engine;
+            this.size = size;
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    /**
+     * Computes the hash of the subtree covering a range of chunks, forking the left subtree.
+     */
+    private static class SubtreeTask extends RecursiveTask<byte[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient TreeContext context;
+        private final long from;
+        private final long to;
+
+        private SubtreeTask(TreeContext context, long from, long to) {
+            this.context = context;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected byte[] compute() {
+            long count = to - from;
+            if (count == 1) {
+                try {
+                    return hashChunk(context, from);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            // split at the largest power of two below the number of chunks
+            long split = from + Long.highestOneBit(count - 1);
+            SubtreeTask left = new SubtreeTask(context, from, split);
+            left.fork();
+            byte[] right = new SubtreeTask(context, split, to).compute();
+            return hashNode(context.engine, left.join(), right);
+        }
+    }
+}
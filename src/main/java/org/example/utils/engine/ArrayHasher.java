@@ -0,0 +1,46 @@
+package org.example.utils.engine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Base class for hashers which process byte arrays, buffers without accessible array are copied in small chunks.
+ */
+abstract class ArrayHasher implements Hasher {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final int CHUNK_SIZE = 8192;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private byte[] chunk;
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    @Override
+    public void update(ByteBuffer data) {
+
+        // process heap buffers without copying
+        if (data.hasArray()) {
+            update(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            data.position(data.limit());
+            return;
+        }
+
+        // copy direct buffers chunk by chunk into a reused array
+        if (chunk == null) {
+            chunk = new byte[CHUNK_SIZE];
+        }
+        while (data.hasRemaining()) {
+            int length = Math.min(chunk.length, data.remaining());
+            data.get(chunk, 0, length);
+            update(chunk, 0, length);
+        }
+    }
+}
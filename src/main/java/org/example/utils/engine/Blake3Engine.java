@@ -0,0 +1,277 @@
+package org.example.utils.engine;
+
+/**
+ * BLAKE3 in its default hash mode with 256 bit output, a cryptographic hash which is considerably faster than SHA-256
+ * when computed in software.
+ *
+ * This is a portable implementation of the reference algorithm, processing one chunk after another.
+ */
+public class Blake3Engine implements HashEngine {
+
+    /*==================================================*
+     *==                 HASH ENGINE                  ==*
+     *==================================================*/
+
+    @Override
+    public String getName() {
+        return "BLAKE3";
+    }
+
+    @Override
+    public int getDigestLength() {
+        return Blake3Hasher.OUT_LEN;
+    }
+
+    @Override
+    public Hasher newHasher() {
+        return new Blake3Hasher();
+    }
+
+    /*==================================================*
+     *==                INNER CLASSES                 ==*
+     *==================================================*/
+
+    /**
+     * Streaming implementation of BLAKE3, which splits the input into chunks of 1 KiB and merges their chaining values
+     * into a binary tree as soon as a subtree is complete.
+     */
+    private static class Blake3Hasher extends ArrayHasher {
+
+        private static final int OUT_LEN = 32;
+        private static final int BLOCK_LEN = 64;
+        private static final int CHUNK_LEN = 1024;
+
+        private static final int CHUNK_START = 1;
+        private static final int CHUNK_END = 1 << 1;
+        private static final int PARENT = 1 << 2;
+        private static final int ROOT = 1 << 3;
+
+        private static final int[] IV = {
+                0x6A09E667, 0xBB67AE85, 0x3C6EF372, 0xA54FF53A, 0x510E527F, 0x9B05688C, 0x1F83D9AB, 0x5BE0CD19
+        };
+
+        private static final int[] MSG_PERMUTATION = {2, 6, 3, 10, 7, 0, 4, 13, 1, 11, 12, 5, 9, 14, 15, 8};
+
+        /**
+         * The message word indexes used by each of the seven rounds, so that the words need not be permuted.
+         */
+        private static final int[][] SCHEDULE = new int[7][16];
+
+        static {
+            for (int i = 0; i < 16; i++) {
+                SCHEDULE[0][i] = i;
+            }
+            for (int round = 1; round < SCHEDULE.length; round++) {
+                for (int i = 0; i < 16; i++) {
+                    SCHEDULE[round][i] = SCHEDULE[round - 1][MSG_PERMUTATION[i]];
+                }
+            }
+        }
+
+        /**
+         * The maximum depth of the tree, which is enough for inputs of 2^64 bytes.
+         */
+        private static final int MAX_DEPTH = 54;
+
+        // state of the current chunk
+        private final int[] chunkCv = new int[8];
+        private final byte[] block = new byte[BLOCK_LEN];
+        private int blockLen;
+        private int blocksCompressed;
+        private long chunkCounter;
+
+        // chaining values of completed subtrees
+        private final int[][] cvStack = new int[MAX_DEPTH][8];
+        private int cvStackLen;
+
+        // reused working memory
+        private final int[] words = new int[16];
+        private final int[] state = new int[16];
+
+        private Blake3Hasher() {
+            reset();
+        }
+
+        @Override
+        public void update(byte[] data, int offset, int length) {
+            int end = offset + length;
+            while (offset < end) {
+
+                // finish the current chunk only when more input follows, the last chunk is finalized differently
+                if (chunkLength() == CHUNK_LEN) {
+                    int[] cv = new int[8];
+                    chunkOutput(cv);
+                    addChunkChainingValue(cv, chunkCounter + 1);
+                    startChunk(chunkCounter + 1);
+                }
+
+                // compress the buffered block only when more input follows, the last block is finalized differently
+                if (blockLen == BLOCK_LEN) {
+                    loadWords(block, BLOCK_LEN);
+                    compress(chunkCv, words, chunkCounter, BLOCK_LEN, chunkFlags(), state);
+                    System.arraycopy(state, 0, chunkCv, 0, 8);
+                    blocksCompressed++;
+                    blockLen = 0;
+                }
+
+                int take = Math.min(BLOCK_LEN - blockLen, Math.min(CHUNK_LEN - chunkLength(), end - offset));
+                System.arraycopy(data, offset, block, blockLen, take);
+                blockLen += take;
+                offset += take;
+            }
+        }
+
+        @Override
+        public byte[] digest() {
+
+            // prepare the output of the last chunk
+            int[] inputCv = chunkCv.clone();
+            loadWords(block, blockLen);
+            int[] blockWords = words.clone();
+            int len = blockLen;
+            long counter = chunkCounter;
+            int flags = chunkFlags() | CHUNK_END;
+
+            // merge it with the completed subtrees from right to left
+            for (int i = cvStackLen - 1; i >= 0; i--) {
+                int[] rightCv = new int[8];
+                compress(inputCv, blockWords, counter, len, flags, state);
+                System.arraycopy(state, 0, rightCv, 0, 8);
+
+                System.arraycopy(cvStack[i], 0, blockWords, 0, 8);
+                System.arraycopy(rightCv, 0, blockWords, 8, 8);
+                inputCv = IV.clone();
+                len = BLOCK_LEN;
+                counter = 0;
+                flags = PARENT;
+            }
+
+            // compress the root node
+            compress(inputCv, blockWords, counter, len, flags | ROOT, state);
+            byte[] result = new byte[OUT_LEN];
+            for (int i = 0; i < 8; i++) {
+                int word = state[i];
+                result[i * 4] = (byte) word;
+                result[i * 4 + 1] = (byte) (word >>> 8);
+                result[i * 4 + 2] = (byte) (word >>> 16);
+                result[i * 4 + 3] = (byte) (word >>> 24);
+            }
+
+            reset();
+            return result;
+        }
+
+        @Override
+        public void reset() {
+            cvStackLen = 0;
+            startChunk(0);
+        }
+
+        private void startChunk(long counter) {
+            System.arraycopy(IV, 0, chunkCv, 0, 8);
+            chunkCounter = counter;
+            blockLen = 0;
+            blocksCompressed = 0;
+        }
+
+        private int chunkLength() {
+            return blocksCompressed * BLOCK_LEN + blockLen;
+        }
+
+        private int chunkFlags() {
+            return blocksCompressed == 0 ? CHUNK_START : 0;
+        }
+
+        /**
+         * Computes the chaining value of the current chunk, which must not be the root.
+         *
+         * @param cv the array receiving the chaining value
+         */
+        private void chunkOutput(int[] cv) {
+            loadWords(block, blockLen);
+            compress(chunkCv, words, chunkCounter, blockLen, chunkFlags() | CHUNK_END, state);
+            System.arraycopy(state, 0, cv, 0, 8);
+        }
+
+        /**
+         * Pushes the chaining value of a completed chunk, after merging all subtrees completed by it.
+         *
+         * @param cv the chaining value of the chunk, is overwritten
+         * @param totalChunks the number of chunks completed so far
+         */
+        private void addChunkChainingValue(int[] cv, long totalChunks) {
+            while ((totalChunks & 1) == 0) {
+                int[] left = cvStack[--cvStackLen];
+                System.arraycopy(left, 0, words, 0, 8);
+                System.arraycopy(cv, 0, words, 8, 8);
+                compress(IV, words, 0, BLOCK_LEN, PARENT, state);
+                System.arraycopy(state, 0, cv, 0, 8);
+                totalChunks >>= 1;
+            }
+            System.arraycopy(cv, 0, cvStack[cvStackLen++], 0, 8);
+        }
+
+        /**
+         * Loads a block as little-endian words into {@link #words}, padding it with zeros.
+         *
+         * @param data the block
+         * @param length the number of valid bytes of the block
+         */
+        private void loadWords(byte[] data, int length) {
+            for (int i = length; i < BLOCK_LEN; i++) {
+                data[i] = 0;
+            }
+            for (int i = 0; i < 16; i++) {
+                int offset = i * 4;
+                words[i] = (data[offset] & 0xFF)
+                        | (data[offset + 1] & 0xFF) << 8
+                        | (data[offset + 2] & 0xFF) << 16
+                        | (data[offset + 3] & 0xFF) << 24;
+            }
+        }
+
+        /**
+         * The BLAKE3 compression function.
+         *
+         * @param cv the input chaining value
+         * @param m the message words of the block
+         * @param counter the chunk counter
+         * @param blockLen the number of valid bytes of the block
+         * @param flags the domain separation flags
+         * @param out the array receiving the 16 output words
+         */
+        private static void compress(int[] cv, int[] m, long counter, int blockLen, int flags, int[] out) {
+            int s0 = cv[0], s1 = cv[1], s2 = cv[2], s3 = cv[3];
+            int s4 = cv[4], s5 = cv[5], s6 = cv[6], s7 = cv[7];
+            int s8 = IV[0], s9 = IV[1], s10 = IV[2], s11 = IV[3];
+            int s12 = (int) counter, s13 = (int) (counter >>> 32), s14 = blockLen, s15 = flags;
+
+            for (int[] r : SCHEDULE) {
+                // mix the columns
+                s0 += s4 + m[r[0]]; s12 = Integer.rotateRight(s12 ^ s0, 16); s8 += s12; s4 = Integer.rotateRight(s4 ^ s8, 12);
+                s0 += s4 + m[r[1]]; s12 = Integer.rotateRight(s12 ^ s0, 8); s8 += s12; s4 = Integer.rotateRight(s4 ^ s8, 7);
+                s1 += s5 + m[r[2]]; s13 = Integer.rotateRight(s13 ^ s1, 16); s9 += s13; s5 = Integer.rotateRight(s5 ^ s9, 12);
+                s1 += s5 + m[r[3]]; s13 = Integer.rotateRight(s13 ^ s1, 8); s9 += s13; s5 = Integer.rotateRight(s5 ^ s9, 7);
+                s2 += s6 + m[r[4]]; s14 = Integer.rotateRight(s14 ^ s2, 16); s10 += s14; s6 = Integer.rotateRight(s6 ^ s10, 12);
+                s2 += s6 + m[r[5]]; s14 = Integer.rotateRight(s14 ^ s2, 8); s10 += s14; s6 = Integer.rotateRight(s6 ^ s10, 7);
+                s3 += s7 + m[r[6]]; s15 = Integer.rotateRight(s15 ^ s3, 16); s11 += s15; s7 = Integer.rotateRight(s7 ^ s11, 12);
+                s3 += s7 + m[r[7]]; s15 = Integer.rotateRight(s15 ^ s3, 8); s11 += s15; s7 = Integer.rotateRight(s7 ^ s11, 7);
+
+                // mix the diagonals
+                s0 += s5 + m[r[8]]; s15 = Integer.rotateRight(s15 ^ s0, 16); s10 += s15; s5 = Integer.rotateRight(s5 ^ s10, 12);
+                s0 += s5 + m[r[9]]; s15 = Integer.rotateRight(s15 ^ s0, 8); s10 += s15; s5 = Integer.rotateRight(s5 ^ s10, 7);
+                s1 += s6 + m[r[10]]; s12 = Integer.rotateRight(s12 ^ s1, 16); s11 += s12; s6 = Integer.rotateRight(s6 ^ s11, 12);
+                s1 += s6 + m[r[11]]; s12 = Integer.rotateRight(s12 ^ s1, 8); s11 += s12; s6 = Integer.rotateRight(s6 ^ s11, 7);
+                s2 += s7 + m[r[12]]; s13 = Integer.rotateRight(s13 ^ s2, 16); s8 += s13; s7 = Integer.rotateRight(s7 ^ s8, 12);
+                s2 += s7 + m[r[13]]; s13 = Integer.rotateRight(s13 ^ s2, 8); s8 += s13; s7 = Integer.rotateRight(s7 ^ s8, 7);
+                s3 += s4 + m[r[14]]; s14 = Integer.rotateRight(s14 ^ s3, 16); s9 += s14; s4 = Integer.rotateRight(s4 ^ s9, 12);
+                s3 += s4 + m[r[15]]; s14 = Integer.rotateRight(s14 ^ s3, 8); s9 += s14; s4 = Integer.rotateRight(s4 ^ s9, 7);
+            }
+
+            out[0] = s0 ^ s8; out[1] = s1 ^ s9; out[2] = s2 ^ s10; out[3] = s3 ^ s11;
+            out[4] = s4 ^ s12; out[5] = s5 ^ s13; out[6] = s6 ^ s14; out[7] = s7 ^ s15;
+            out[8] = s8 ^ cv[0]; out[9] = s9 ^ cv[1]; out[10] = s10 ^ cv[2]; out[11] = s11 ^ cv[3];
+            out[12] = s12 ^ cv[4]; out[13] = s13 ^ cv[5]; out[14] = s14 ^ cv[6]; out[15] = s15 ^ cv[7];
+        }
+    }
+}
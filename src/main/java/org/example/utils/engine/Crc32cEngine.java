@@ -0,0 +1,56 @@
+package org.example.utils.engine;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * CRC32C, computed by {@link CRC32C} which uses the CPU's crc32 instructions where available.
+ *
+ * The checksum is the 32 bit value in big-endian byte order, as printed by common tools.
+ */
+public class Crc32cEngine implements HashEngine {
+
+    /*==================================================*
+     *==                 HASH ENGINE                  ==*
+     *==================================================*/
+
+    @Override
+    public String getName() {
+        return "CRC32C";
+    }
+
+    @Override
+    public int getDigestLength() {
+        return 4;
+    }
+
+    @Override
+    public Hasher newHasher() {
+        return new Hasher() {
+
+            private final CRC32C crc = new CRC32C();
+
+            @Override
+            public void update(ByteBuffer data) {
+                crc.update(data);
+            }
+
+            @Override
+            public void update(byte[] data, int offset, int length) {
+                crc.update(data, offset, length);
+            }
+
+            @Override
+            public byte[] digest() {
+                int value = (int) crc.getValue();
+                crc.reset();
+                return ByteBuffer.allocate(4).putInt(value).array();
+            }
+
+            @Override
+            public void reset() {
+                crc.reset();
+            }
+        };
+    }
+}
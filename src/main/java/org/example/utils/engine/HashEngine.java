@@ -0,0 +1,31 @@
+package org.example.utils.engine;
+
+/**
+ * A hash algorithm which can be driven by the read loop of the {@link org.example.utils.ChecksumComputer}.
+ *
+ * Additional engines are loaded through {@link java.util.ServiceLoader}, so implementations need a public constructor
+ * without arguments and have to be listed in 'META-INF/services/org.example.utils.engine.HashEngine'.
+ */
+public interface HashEngine {
+
+    /**
+     * Returns the unique name of the algorithm, e.g. 'SHA-256' or 'XXH64'.
+     *
+     * @return the name of the algorithm
+     */
+    String getName();
+
+    /**
+     * Returns the length of the computed checksums in bytes.
+     *
+     * @return the length of a checksum in bytes
+     */
+    int getDigestLength();
+
+    /**
+     * Creates a new hasher, each hasher is only used by one thread at once.
+     *
+     * @return the new hasher
+     */
+    Hasher newHasher();
+}
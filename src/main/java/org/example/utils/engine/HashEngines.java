@@ -0,0 +1,82 @@
+package org.example.utils.engine;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of all available hash engines.
+ *
+ * Engines registered through {@link ServiceLoader} take precedence, all other names are looked up as
+ * {@link java.security.MessageDigest} algorithms.
+ */
+public final class HashEngines {
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private static final Map<String, HashEngine> ENGINES = new ConcurrentHashMap<>();
+
+    static {
+        for (HashEngine engine : ServiceLoader.load(HashEngine.class)) {
+            ENGINES.putIfAbsent(normalize(engine.getName()), engine);
+        }
+    }
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    private HashEngines() {
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Returns the engine of the given algorithm, the name is not case-sensitive.
+     *
+     * @param name the name of the algorithm, e.g. 'SHA-256' or 'BLAKE3'
+     * @return the engine or empty if the algorithm is not supported
+     */
+    public static Optional<HashEngine> find(String name) {
+        String key = normalize(name);
+        HashEngine engine = ENGINES.get(key);
+        if (engine != null) {
+            return Optional.of(engine);
+        }
+
+        // fall back to the algorithms of the JCA providers
+        try {
+            engine = new MessageDigestEngine(name);
+        } catch (NoSuchAlgorithmException e) {
+            return Optional.empty();
+        }
+        HashEngine existing = ENGINES.putIfAbsent(key, engine);
+        return Optional.of(existing != null ? existing : engine);
+    }
+
+    /**
+     * Returns all engines which have been registered or looked up so far.
+     *
+     * @return an unmodifiable view of the engines
+     */
+    public static Collection<HashEngine> getAll() {
+        return Collections.unmodifiableCollection(ENGINES.values());
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    private static String normalize(String name) {
+        return name.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.utils.engine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Computes a single checksum incrementally, like {@link java.security.MessageDigest} does.
+ */
+public interface Hasher {
+
+    /**
+     * Processes all remaining bytes of the given buffer.
+     *
+     * @param data the data to process, is consumed completely
+     */
+    void update(ByteBuffer data);
+
+    /**
+     * Processes the given bytes.
+     *
+     * @param data the array containing the data
+     * @param offset the index of the first byte to process
+     * @param length the number of bytes to process
+     */
+    void update(byte[] data, int offset, int length);
+
+    /**
+     * Finishes the computation and resets the hasher, so that it can be reused.
+     *
+     * @return the checksum of all processed bytes
+     */
+    byte[] digest();
+
+    /**
+     * Discards all processed bytes, so that the hasher can be reused.
+     */
+    void reset();
+}
@@ -0,0 +1,102 @@
+package org.example.utils.engine;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Engine for the algorithms provided by the JCA, like MD5 or SHA-256.
+ *
+ * New hashers are cloned from a prototype instead of looking up the provider again, as long as the provider supports
+ * cloning.
+ */
+public class MessageDigestEngine implements HashEngine {
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final String algorithm;
+    private final int digestLength;
+    private final MessageDigest prototype;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    /**
+     * @param algorithm the JCA name of the algorithm, like 'SHA-256'
+     * @throws NoSuchAlgorithmException if no provider supports the algorithm
+     */
+    public MessageDigestEngine(String algorithm) throws NoSuchAlgorithmException {
+        this.algorithm = algorithm;
+        this.prototype = MessageDigest.getInstance(algorithm);
+        this.digestLength = prototype.getDigestLength();
+    }
+
+    /*==================================================*
+     *==                 HASH ENGINE                  ==*
+     *==================================================*/
+
+    @Override
+    public String getName() {
+        return algorithm;
+    }
+
+    @Override
+    public int getDigestLength() {
+        return digestLength;
+    }
+
+    @Override
+    public Hasher newHasher() {
+        try {
+            return new MessageDigestHasher((MessageDigest) prototype.clone());
+        } catch (CloneNotSupportedException e) {
+            // fall back to the provider lookup below
+        }
+
+        try {
+            return new MessageDigestHasher(MessageDigest.getInstance(algorithm));
+        } catch (NoSuchAlgorithmException e) {
+            // already checked by the constructor
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*==================================================*
+     *==                INNER CLASSES                 ==*
+     *==================================================*/
+
+    /**
+     * Hasher delegating to a {@link MessageDigest}.
+     */
+    private static class MessageDigestHasher implements Hasher {
+
+        private final MessageDigest md;
+
+        private MessageDigestHasher(MessageDigest md) {
+            this.md = md;
+        }
+
+        @Override
+        public void update(ByteBuffer data) {
+            md.update(data);
+        }
+
+        @Override
+        public void update(byte[] data, int offset, int length) {
+            md.update(data, offset, length);
+        }
+
+        @Override
+        public byte[] digest() {
+            return md.digest();
+        }
+
+        @Override
+        public void reset() {
+            md.reset();
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package org.example.utils.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Pure Java implementations of SHA-256 and SHA-512 whose state can be saved, see {@link StatefulHasher}.
+ *
+ * The JCA implementations are faster since the JIT replaces them by intrinsics, so these engines are not registered
+ * and only used where the state is needed, e.g. for resumable hashing.
+ */
+public class Sha2Engine implements HashEngine {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final int[] K256 = {
+                0x428A2F98, 0x71374491, 0xB5C0FBCF, 0xE9B5DBA5, 0x3956C25B, 0x59F111F1, 0x923F82A4, 0xAB1C5ED5,
+                0xD807AA98, 0x12835B01, 0x243185BE, 0x550C7DC3, 0x72BE5D74, 0x80DEB1FE, 0x9BDC06A7, 0xC19BF174,
+                0xE49B69C1, 0xEFBE4786, 0x0FC19DC6, 0x240CA1CC, 0x2DE92C6F, 0x4A7484AA, 0x5CB0A9DC, 0x76F988DA,
+                0x983E5152, 0xA831C66D, 0xB00327C8, 0xBF597FC7, 0xC6E00BF3, 0xD5A79147, 0x06CA6351, 0x14292967,
+                0x27B70A85, 0x2E1B2138, 0x4D2C6DFC, 0x53380D13, 0x650A7354, 0x766A0ABB, 0x81C2C92E, 0x92722C85,
+                0xA2BFE8A1, 0xA81A664B, 0xC24B8B70, 0xC76C51A3, 0xD192E819, 0xD6990624, 0xF40E3585, 0x106AA070,
+                0x19A4C116, 0x1E376C08, 0x2748774C, 0x34B0BCB5, 0x391C0CB3, 0x4ED8AA4A, 0x5B9CCA4F, 0x682E6FF3,
+                0x748F82EE, 0x78A5636F, 0x84C87814, 0x8CC70208, 0x90BEFFFA, 0xA4506CEB, 0xBEF9A3F7, 0xC67178F2
+    };
+
+    private static final long[] K512 = {
+                0x428A2F98D728AE22L, 0x7137449123EF65CDL, 0xB5C0FBCFEC4D3B2FL, 0xE9B5DBA58189DBBCL,
+                0x3956C25BF348B538L, 0x59F111F1B605D019L, 0x923F82A4AF194F9BL, 0xAB1C5ED5DA6D8118L,
+                0xD807AA98A3030242L, 0x12835B0145706FBEL, 0x243185BE4EE4B28CL, 0x550C7DC3D5FFB4E2L,
+                0x72BE5D74F27B896FL, 0x80DEB1FE3B1696B1L, 0x9BDC06A725C71235L, 0xC19BF174CF692694L,
+                0xE49B69C19EF14AD2L, 0xEFBE4786384F25E3L, 0x0FC19DC68B8CD5B5L, 0x240CA1CC77AC9C65L,
+                0x2DE92C6F592B0275L, 0x4A7484AA6EA6E483L, 0x5CB0A9DCBD41FBD4L, 0x76F988DA831153B5L,
+                0x983E5152EE66DFABL, 0xA831C66D2DB43210L, 0xB00327C898FB213FL, 0xBF597FC7BEEF0EE4L,
+                0xC6E00BF33DA88FC2L, 0xD5A79147930AA725L, 0x06CA6351E003826FL, 0x142929670A0E6E70L,
+                0x27B70A8546D22FFCL, 0x2E1B21385C26C926L, 0x4D2C6DFC5AC42AEDL, 0x53380D139D95B3DFL,
+                0x650A73548BAF63DEL, 0x766A0ABB3C77B2A8L, 0x81C2C92E47EDAEE6L, 0x92722C851482353BL,
+                0xA2BFE8A14CF10364L, 0xA81A664BBC423001L, 0xC24B8B70D0F89791L, 0xC76C51A30654BE30L,
+                0xD192E819D6EF5218L, 0xD69906245565A910L, 0xF40E35855771202AL, 0x106AA07032BBD1B8L,
+                0x19A4C116B8D2D0C8L, 0x1E376C085141AB53L, 0x2748774CDF8EEB99L, 0x34B0BCB5E19B48A8L,
+                0x391C0CB3C5C95A63L, 0x4ED8AA4AE3418ACBL, 0x5B9CCA4F7763E373L, 0x682E6FF3D6B2B8A3L,
+                0x748F82EE5DEFB2FCL, 0x78A5636F43172F60L, 0x84C87814A1F0AB72L, 0x8CC702081A6439ECL,
+                0x90BEFFFA23631E28L, 0xA4506CEBDE82BDE9L, 0xBEF9A3F7B2C67915L, 0xC67178F2E372532BL,
+                0xCA273ECEEA26619CL, 0xD186B8C721C0C207L, 0xEADA7DD6CDE0EB1EL, 0xF57D4F7FEE6ED178L,
+                0x06F067AA72176FBAL, 0x0A637DC5A2C898A6L, 0x113F9804BEF90DAEL, 0x1B710B35131C471BL,
+                0x28DB77F523047D84L, 0x32CAAB7B40C72493L, 0x3C9EBE0A15C9BEBCL, 0x431D67C49C100D4CL,
+                0x4CC5D4BECB3E42B6L, 0x597F299CFC657E2AL, 0x5FCB6FAB3AD6FAECL, 0x6C44198C4A475817L
+    };
+
+    private static final int[] IV256 = {
+                0x6A09E667, 0xBB67AE85, 0x3C6EF372, 0xA54FF53A, 0x510E527F, 0x9B05688C, 0x1F83D9AB, 0x5BE0CD19
+    };
+
+    private static final long[] IV512 = {
+                0x6A09E667F3BCC908L, 0xBB67AE8584CAA73BL, 0x3C6EF372FE94F82BL, 0xA54FF53A5F1D36F1L,
+                0x510E527FADE682D1L, 0x9B05688C2B3E6C1FL, 0x1F83D9ABFB41BD6BL, 0x5BE0CD19137E2179L
+    };
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final String name;
+    private final int digestLength;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    private Sha2Engine(String name, int digestLength) {
+        this.name = name;
+        this.digestLength = digestLength;
+    }
+
+    /**
+     * Returns the engine of the given algorithm.
+     *
+     * @param name 'SHA-256' or 'SHA-512'
+     * @return the engine
+     * @throws IllegalArgumentException if the algorithm is not supported
+     */
+    public static Sha2Engine of(String name) {
+        switch (name) {
+            case "SHA-256":
+                return new Sha2Engine(name, 32);
+            case "SHA-512":
+                return new Sha2Engine(name, 64);
+            default:
+                throw new IllegalArgumentException("No resumable engine for " + name);
+        }
+    }
+
+    /*==================================================*
+     *==                 HASH ENGINE                  ==*
+     *==================================================*/
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getDigestLength() {
+        return digestLength;
+    }
+
+    @Override
+    public StatefulHasher newHasher() {
+        return digestLength == 32 ? new Sha256Hasher() : new Sha512Hasher();
+    }
+
+    /*==================================================*
+     *==                INNER CLASSES                 ==*
+     *==================================================*/
+
+    /**
+     * Buffers the input into blocks and serializes the state common to both variants.
+     *
+     * The state consists of the number of processed bytes, the buffered bytes of the incomplete block and the
+     * variant's hash words.
+     */
+    private abstract static class Sha2Hasher extends ArrayHasher implements StatefulHasher {
+
+        protected final byte[] block;
+        protected int blockLength;
+        protected long byteCount;
+
+        private Sha2Hasher(int blockSize) {
+            this.block = new byte[blockSize];
+        }
+
+        @Override
+        public void update(byte[] data, int offset, int length) {
+            byteCount += length;
+            while (length > 0) {
+
+                // process complete blocks directly from the input
+                if (blockLength == 0 && length >= block.length) {
+                    processBlock(data, offset);
+                    offset += block.length;
+                    length -= block.length;
+                    continue;
+                }
+
+                // else collect the bytes of the next block
+                int take = Math.min(block.length - blockLength, length);
+                System.arraycopy(data, offset, block, blockLength, take);
+                blockLength += take;
+                offset += take;
+                length -= take;
+
+                if (blockLength == block.length) {
+                    processBlock(block, 0);
+                    blockLength = 0;
+                }
+            }
+        }
+
+        @Override
+        public byte[] digest() {
+
+            // pad with 0x80, zeros and the length in bits, which fills one or two blocks
+            int lengthSize = block.length / 8;
+            long bitCount = byteCount << 3;
+
+            block[blockLength++] = (byte) 0x80;
+            if (blockLength > block.length - lengthSize) {
+                Arrays.fill(block, blockLength, block.length, (byte) 0);
+                processBlock(block, 0);
+                blockLength = 0;
+            }
+            Arrays.fill(block, blockLength, block.length, (byte) 0);
+            for (int i = 0; i < 8; i++) {
+                block[block.length - 1 - i] = (byte) (bitCount >>> (8 * i));
+            }
+            processBlock(block, 0);
+
+            byte[] result = finishWords();
+            reset();
+            return result;
+        }
+
+        @Override
+        public void reset() {
+            blockLength = 0;
+            byteCount = 0;
+            resetWords();
+        }
+
+        @Override
+        public byte[] getState() {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeLong(byteCount);
+                out.writeShort(blockLength);
+                out.write(block, 0, blockLength);
+                writeWords(out);
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                // cannot happen for an in-memory stream
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void setState(byte[] state) {
+            try {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+                long count = in.readLong();
+                int length = in.readUnsignedShort();
+                if (count < 0 || length >= block.length || count % block.length != length) {
+                    throw new IllegalArgumentException("Inconsistent hasher state");
+                }
+                in.readFully(block, 0, length);
+                readWords(in);
+                if (in.available() > 0) {
+                    throw new IllegalArgumentException("Trailing bytes in hasher state");
+                }
+                byteCount = count;
+                blockLength = length;
+            } catch (IOException e) {
+                reset();
+                throw new IllegalArgumentException("Truncated hasher state", e);
+            }
+        }
+
+        protected abstract void processBlock(byte[] data, int offset);
+
+        protected abstract byte[] finishWords();
+
+        protected abstract void resetWords();
+
+        protected abstract void writeWords(DataOutputStream out) throws IOException;
+
+        protected abstract void readWords(DataInputStream in) throws IOException;
+    }
+
+    /**
+     * SHA-256, processing blocks of 64 bytes with 32 bit words.
+     */
+    private static class Sha256Hasher extends Sha2Hasher {
+
+        private final int[] h = new int[8];
+        private final int[] w = new int[64];
+
+        private Sha256Hasher() {
+            super(64);
+            resetWords();
+        }
+
+        @Override
+        protected void processBlock(byte[] data, int offset) {
+            for (int i = 0; i < 16; i++) {
+                int p = offset + i * 4;
+                w[i] = (data[p] & 0xFF) << 24 | (data[p + 1] & 0xFF) << 16 | (data[p + 2] & 0xFF) << 8 | (data[p + 3] & 0xFF);
+            }
+            for (int i = 16; i < 64; i++) {
+                int s0 = Integer.rotateRight(w[i - 15], 7) ^ Integer.rotateRight(w[i - 15], 18) ^ (w[i - 15] >>> 3);
+                int s1 = Integer.rotateRight(w[i - 2], 17) ^ Integer.rotateRight(w[i - 2], 19) ^ (w[i - 2] >>> 10);
+                w[i] = w[i - 16] + s0 + w[i - 7] + s1;
+            }
+
+            int a = h[0], b = h[1], c = h[2], d = h[3], e = h[4], f = h[5], g = h[6], hh = h[7];
+            for (int i = 0; i < 64; i++) {
+                int s1 = Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25);
+                int t1 = hh + s1 + ((e & f) ^ (~e & g)) + K256[i] + w[i];
+                int s0 = Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22);
+                int t2 = s0 + ((a & b) ^ (a & c) ^ (b & c));
+                hh = g;
+                g = f;
+                f = e;
+                e = d + t1;
+                d = c;
+                c = b;
+                b = a;
+                a = t1 + t2;
+            }
+            h[0] += a; h[1] += b; h[2] += c; h[3] += d; h[4] += e; h[5] += f; h[6] += g; h[7] += hh;
+        }
+
+        @Override
+        protected byte[] finishWords() {
+            byte[] result = new byte[32];
+            for (int i = 0; i < 8; i++) {
+                for (int j = 0; j < 4; j++) {
+                    result[i * 4 + j] = (byte) (h[i] >>> (24 - 8 * j));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        protected void resetWords() {
+            System.arraycopy(IV256, 0, h, 0, 8);
+        }
+
+        @Override
+        protected void writeWords(DataOutputStream out) throws IOException {
+            for (int word : h) {
+                out.writeInt(word);
+            }
+        }
+
+        @Override
+        protected void readWords(DataInputStream in) throws IOException {
+            for (int i = 0; i < 8; i++) {
+                h[i] = in.readInt();
+            }
+        }
+    }
+
+    /**
+     * SHA-512, processing blocks of 128 bytes with 64 bit words.
+     *
+     * The message length is limited to 2^63 bytes, which is no restriction for files.
+     */
+    private static class Sha512Hasher extends Sha2Hasher {
+
+        private final long[] h = new long[8];
+        private final long[] w = new long[80];
+
+        private Sha512Hasher() {
+            super(128);
+            resetWords();
+        }
+
+        @Override
+        protected void processBlock(byte[] data, int offset) {
+            for (int i = 0; i < 16; i++) {
+                long word = 0;
+                for (int j = 0; j < 8; j++) {
+                    word = word << 8 | (data[offset + i * 8 + j] & 0xFF);
+                }
+                w[i] = word;
+            }
+            for (int i = 16; i < 80; i++) {
+                long s0 = Long.rotateRight(w[i - 15], 1) ^ Long.rotateRight(w[i - 15], 8) ^ (w[i - 15] >>> 7);
+                long s1 = Long.rotateRight(w[i - 2], 19) ^ Long.rotateRight(w[i - 2], 61) ^ (w[i - 2] >>> 6);
+                w[i] = w[i - 16] + s0 + w[i - 7] + s1;
+            }
+
+            long a = h[0], b = h[1], c = h[2], d = h[3], e = h[4], f = h[5], g = h[6], hh = h[7];
+            for (int i = 0; i < 80; i++) {
+                long s1 = Long.rotateRight(e, 14) ^ Long.rotateRight(e, 18) ^ Long.rotateRight(e, 41);
+                long t1 = hh + s1 + ((e & f) ^ (~e & g)) + K512[i] + w[i];
+                long s0 = Long.rotateRight(a, 28) ^ Long.rotateRight(a, 34) ^ Long.rotateRight(a, 39);
+                long t2 = s0 + ((a & b) ^ (a & c) ^ (b & c));
+                hh = g;
+                g = f;
+                f = e;
+                e = d + t1;
+                d = c;
+                c = b;
+                b = a;
+                a = t1 + t2;
+            }
+            h[0] += a; h[1] += b; h[2] += c; h[3] += d; h[4] += e; h[5] += f; h[6] += g; h[7] += hh;
+        }
+
+        @Override
+        protected byte[] finishWords() {
+            byte[] result = new byte[64];
+            for (int i = 0; i < 8; i++) {
+                for (int j = 0; j < 8; j++) {
+                    result[i * 8 + j] = (byte) (h[i] >>> (56 - 8 * j));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        protected void resetWords() {
+            System.arraycopy(IV512, 0, h, 0, 8);
+        }
+
+        @Override
+        protected void writeWords(DataOutputStream out) throws IOException {
+            for (long word : h) {
+                out.writeLong(word);
+            }
+        }
+
+        @Override
+        protected void readWords(DataInputStream in) throws IOException {
+            for (int i = 0; i < 8; i++) {
+                h[i] = in.readLong();
+            }
+        }
+    }
+}
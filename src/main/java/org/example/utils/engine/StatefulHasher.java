@@ -0,0 +1,23 @@
+package org.example.utils.engine;
+
+/**
+ * A hasher whose intermediate state can be saved and restored, so that a computation can be continued later, e.g.
+ * after the process has been restarted.
+ */
+public interface StatefulHasher extends Hasher {
+
+    /**
+     * Returns the state after all bytes processed so far, the hasher itself is not changed.
+     *
+     * @return the serialized state
+     */
+    byte[] getState();
+
+    /**
+     * Replaces the state of this hasher by a state saved by a hasher of the same engine.
+     *
+     * @param state the serialized state
+     * @throws IllegalArgumentException if the state is malformed
+     */
+    void setState(byte[] state);
+}
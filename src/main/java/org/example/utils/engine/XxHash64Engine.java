@@ -0,0 +1,181 @@
+package org.example.utils.engine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * XXH64 with seed 0, a very fast non-cryptographic hash for integrity checks of internal data.
+ *
+ * The checksum is the 64 bit value in big-endian byte order, as printed by 'xxhsum'.
+ */
+public class XxHash64Engine implements HashEngine {
+
+    /*==================================================*
+     *==                 HASH ENGINE                  ==*
+     *==================================================*/
+
+    @Override
+    public String getName() {
+        return "XXH64";
+    }
+
+    @Override
+    public int getDigestLength() {
+        return 8;
+    }
+
+    @Override
+    public Hasher newHasher() {
+        return new XxHash64Hasher();
+    }
+
+    /*==================================================*
+     *==                INNER CLASSES                 ==*
+     *==================================================*/
+
+    /**
+     * Streaming implementation of XXH64, processing stripes of 32 bytes with four accumulators.
+     */
+    private static class XxHash64Hasher extends ArrayHasher {
+
+        private static final long PRIME1 = 0x9E3779B185EBCA87L;
+        private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+        private static final long PRIME3 = 0x165667B19E3779F9L;
+        private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+        private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+        private static final int STRIPE_LENGTH = 32;
+
+        private final byte[] pending = new byte[STRIPE_LENGTH];
+        private int pendingLength;
+        private long totalLength;
+
+        private long v1;
+        private long v2;
+        private long v3;
+        private long v4;
+
+        private XxHash64Hasher() {
+            reset();
+        }
+
+        @Override
+        public void update(byte[] data, int offset, int length) {
+            totalLength += length;
+
+            // complete a stripe started by a previous call
+            if (pendingLength > 0) {
+                int take = Math.min(STRIPE_LENGTH - pendingLength, length);
+                System.arraycopy(data, offset, pending, pendingLength, take);
+                pendingLength += take;
+                offset += take;
+                length -= take;
+
+                if (pendingLength < STRIPE_LENGTH) {
+                    return;
+                }
+                processStripe(pending, 0);
+                pendingLength = 0;
+            }
+
+            // process all complete stripes directly from the input
+            int end = offset + length;
+            while (end - offset >= STRIPE_LENGTH) {
+                processStripe(data, offset);
+                offset += STRIPE_LENGTH;
+            }
+
+            // keep the rest for the next call
+            pendingLength = end - offset;
+            System.arraycopy(data, offset, pending, 0, pendingLength);
+        }
+
+        @Override
+        public byte[] digest() {
+            long hash;
+            if (totalLength >= STRIPE_LENGTH) {
+                hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+                hash = mergeRound(hash, v1);
+                hash = mergeRound(hash, v2);
+                hash = mergeRound(hash, v3);
+                hash = mergeRound(hash, v4);
+            } else {
+                hash = PRIME5;
+            }
+            hash += totalLength;
+
+            // process the remaining bytes in lanes of 8, 4 and 1 bytes
+            int offset = 0;
+            while (pendingLength - offset >= 8) {
+                hash ^= round(0, readLong(pending, offset));
+                hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+                offset += 8;
+            }
+            if (pendingLength - offset >= 4) {
+                hash ^= (readInt(pending, offset) & 0xFFFFFFFFL) * PRIME1;
+                hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+                offset += 4;
+            }
+            while (offset < pendingLength) {
+                hash ^= (pending[offset] & 0xFFL) * PRIME5;
+                hash = Long.rotateLeft(hash, 11) * PRIME1;
+                offset++;
+            }
+
+            // final avalanche
+            hash ^= hash >>> 33;
+            hash *= PRIME2;
+            hash ^= hash >>> 29;
+            hash *= PRIME3;
+            hash ^= hash >>> 32;
+
+            reset();
+            return ByteBuffer.allocate(8).putLong(hash).array();
+        }
+
+        @Override
+        public void reset() {
+            v1 = PRIME1 + PRIME2;
+            v2 = PRIME2;
+            v3 = 0;
+            v4 = -PRIME1;
+            pendingLength = 0;
+            totalLength = 0;
+        }
+
+        private void processStripe(byte[] data, int offset) {
+            v1 = round(v1, readLong(data, offset));
+            v2 = round(v2, readLong(data, offset + 8));
+            v3 = round(v3, readLong(data, offset + 16));
+            v4 = round(v4, readLong(data, offset + 24));
+        }
+
+        private static long round(long acc, long input) {
+            acc += input * PRIME2;
+            acc = Long.rotateLeft(acc, 31);
+            return acc * PRIME1;
+        }
+
+        private static long mergeRound(long acc, long value) {
+            acc ^= round(0, value);
+            return acc * PRIME1 + PRIME4;
+        }
+
+        private static long readLong(byte[] data, int offset) {
+            return (data[offset] & 0xFFL)
+                    | (data[offset + 1] & 0xFFL) << 8
+                    | (data[offset + 2] & 0xFFL) << 16
+                    | (data[offset + 3] & 0xFFL) << 24
+                    | (data[offset + 4] & 0xFFL) << 32
+                    | (data[offset + 5] & 0xFFL) << 40
+                    | (data[offset + 6] & 0xFFL) << 48
+                    | (data[offset + 7] & 0xFFL) << 56;
+        }
+
+        private static int readInt(byte[] data, int offset) {
+            return (data[offset] & 0xFF)
+                    | (data[offset + 1] & 0xFF) << 8
+                    | (data[offset + 2] & 0xFF) << 16
+                    | (data[offset + 3] & 0xFF) << 24;
+        }
+    }
+}
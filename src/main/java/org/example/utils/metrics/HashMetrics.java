@@ -0,0 +1,434 @@
+package org.example.utils.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.utils.engine.Hasher;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Counters and latency histograms of the hashing components, showing whether hashing is I/O-bound or CPU-bound.
+ *
+ * The time between two blocks delivered by the reader is recorded as read latency, the time spent in the hashers as
+ * digest latency. Memory-mapped blocks are only read from the disk when their pages are touched, so they are loaded
+ * before their read latency is recorded, otherwise their I/O would count as digest latency.
+ *
+ * All recording methods are lock-free and may be called by any thread. The values are exposed as JMX MBean, as
+ * Prometheus text format and as periodic log line.
+ */
+public class HashMetrics implements HashMetricsMXBean {
+
+    /*==================================================*
+     *==                   LOGGER                     ==*
+     *==================================================*/
+
+    private static final Logger LOGGER = LogManager.getLogger(HashMetrics.class);
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    public static final String OBJECT_NAME = "org.example:type=HashMetrics";
+
+    private static final HashMetrics GLOBAL = new HashMetrics();
+
+    private static final double BYTES_PER_MIB = 1024 * 1024;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder filesProcessed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    private final LatencyHistogram readLatency = new LatencyHistogram();
+    private final LatencyHistogram digestLatency = new LatencyHistogram();
+
+    private final Map<String, AlgorithmStats> algorithms = new ConcurrentHashMap<>();
+
+    /**
+     * The thread of all periodic logging, only running while at least one logging has not been stopped.
+     */
+    private ScheduledExecutorService scheduler;
+    private int loggings;
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    /**
+     * Creates metrics independent of the {@link #global()} ones, e.g. for tests.
+     */
+    public HashMetrics() {
+    }
+
+    /**
+     * Returns the metrics recorded by all hashing components by default.
+     *
+     * @return the global metrics
+     */
+    public static HashMetrics global() {
+        return GLOBAL;
+    }
+
+    /*==================================================*
+     *==                  RECORDING                   ==*
+     *==================================================*/
+
+    /**
+     * Wraps a block consumer, so that the time the reader needed for delivering each block is recorded as read latency
+     * and the size of each block as bytes read.
+     *
+     * The first read latency includes opening the file. The pages of memory-mapped blocks are loaded before recording,
+     * so that their page faults are part of the read latency. The returned consumer must only be used for one read.
+     *
+     * @param consumer the consumer processing the blocks
+     * @return the consumer recording the read latencies
+     */
+    public Consumer<ByteBuffer> timeReads(Consumer<ByteBuffer> consumer) {
+        long[] lastReturn = { System.nanoTime() };
+        return block -> {
+            if (block instanceof MappedByteBuffer) {
+                ((MappedByteBuffer) block).load();
+            }
+            readLatency.record(System.nanoTime() - lastReturn[0]);
+            bytesRead.add(block.remaining());
+            consumer.accept(block);
+            lastReturn[0] = System.nanoTime();
+        };
+    }
+
+    /**
+     * Wraps a hasher, so that the time needed for each block is recorded as digest latency of the given algorithm.
+     *
+     * @param algorithm the name of the algorithm
+     * @param hasher the hasher to wrap
+     * @return the hasher recording the digest latencies
+     */
+    public Hasher timeDigests(String algorithm, Hasher hasher) {
+        return new Hasher() {
+
+            @Override
+            public void update(ByteBuffer data) {
+                long start = System.nanoTime();
+                int length = data.remaining();
+                hasher.update(data);
+                recordDigest(algorithm, length, System.nanoTime() - start);
+            }
+
+            @Override
+            public void update(byte[] data, int offset, int length) {
+                long start = System.nanoTime();
+                hasher.update(data, offset, length);
+                recordDigest(algorithm, length, System.nanoTime() - start);
+            }
+
+            @Override
+            public byte[] digest() {
+                return hasher.digest();
+            }
+
+            @Override
+            public void reset() {
+                hasher.reset();
+            }
+        };
+    }
+
+    /**
+     * Records the time a hasher needed for one block.
+     *
+     * @param algorithm the name of the algorithm
+     * @param bytes the size of the block
+     * @param nanos the time spent hashing
+     */
+    public void recordDigest(String algorithm, long bytes, long nanos) {
+        digestLatency.record(nanos);
+        algorithms.computeIfAbsent(algorithm, name -> new AlgorithmStats()).record(bytes, nanos);
+    }
+
+    public void recordFile() {
+        filesProcessed.increment();
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    public void recordCacheHit() {
+        cacheHits.increment();
+    }
+
+    public void recordCacheMiss() {
+        cacheMisses.increment();
+    }
+
+    /*==================================================*
+     *==                  EXPOSURE                    ==*
+     *==================================================*/
+
+    /**
+     * Registers these metrics at the platform MBean server, registering them again has no effect.
+     */
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // already registered
+        } catch (JMException e) {
+            LOGGER.error(e.getMessage());
+        }
+    }
+
+    /**
+     * Logs a summary line at level INFO in the given interval on a daemon thread.
+     *
+     * @param interval the time between two lines
+     * @return the handle for stopping the logging
+     */
+    public synchronized Logging startLogging(Duration interval) {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "hash-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        long millis = interval.toMillis();
+        loggings++;
+        return new Logging(scheduler.scheduleAtFixedRate(() -> LOGGER.info(toLogLine()), millis, millis,
+                TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Formats the most important values as a single line.
+     *
+     * @return the summary line
+     */
+    public String toLogLine() {
+        StringBuilder line = new StringBuilder()
+                .append("files=").append(getFilesProcessed())
+                .append(" bytes=").append(getBytesRead())
+                .append(" errors=").append(getErrors())
+                .append(String.format(Locale.ROOT, " cacheHitRate=%.3f", getCacheHitRate()))
+                .append(" readP50=").append(getReadLatencyP50Micros()).append("us")
+                .append(" readP99=").append(getReadLatencyP99Micros()).append("us")
+                .append(" digestP50=").append(getDigestLatencyP50Micros()).append("us")
+                .append(" digestP99=").append(getDigestLatencyP99Micros()).append("us");
+        getThroughputMiBPerSecond().forEach((algorithm, throughput) ->
+                line.append(String.format(Locale.ROOT, " %s=%.1fMiB/s", algorithm, throughput)));
+        return line.toString();
+    }
+
+    /**
+     * Formats all values in the Prometheus text exposition format, e.g. for the textfile collector.
+     *
+     * @return the metrics as text
+     */
+    public String toPrometheusText() {
+        StringBuilder text = new StringBuilder();
+        appendCounter(text, "checksum_bytes_read_total", "Bytes read from files", getBytesRead());
+        appendCounter(text, "checksum_files_total", "Files hashed", getFilesProcessed());
+        appendCounter(text, "checksum_errors_total", "Files which could not be hashed", getErrors());
+        appendCounter(text, "checksum_cache_hits_total", "Checksums found in the hash cache", getCacheHits());
+        appendCounter(text, "checksum_cache_misses_total", "Checksums not found in the hash cache", getCacheMisses());
+
+        text.append("# HELP checksum_digest_bytes_total Bytes hashed per algorithm\n");
+        text.append("# TYPE checksum_digest_bytes_total counter\n");
+        new TreeMap<>(algorithms).forEach((algorithm, stats) -> text.append("checksum_digest_bytes_total{algorithm=\"")
+                .append(algorithm).append("\"} ").append(stats.bytes.sum()).append('\n'));
+
+        text.append("# HELP checksum_digest_seconds_total Time spent hashing per algorithm\n");
+        text.append("# TYPE checksum_digest_seconds_total counter\n");
+        new TreeMap<>(algorithms).forEach((algorithm, stats) -> text.append("checksum_digest_seconds_total{algorithm=\"")
+                .append(algorithm).append("\"} ").append(toSeconds(stats.nanos.sum())).append('\n'));
+
+        appendHistogram(text, "checksum_read_latency_seconds", "Time for reading one block", readLatency);
+        appendHistogram(text, "checksum_digest_latency_seconds", "Time for hashing one block", digestLatency);
+        return text.toString();
+    }
+
+    /*==================================================*
+     *==                 MXBEAN VALUES                ==*
+     *==================================================*/
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getFilesProcessed() {
+        return filesProcessed.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        long hits = getCacheHits();
+        long total = hits + getCacheMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public Map<String, Double> getThroughputMiBPerSecond() {
+        Map<String, Double> result = new TreeMap<>();
+        algorithms.forEach((algorithm, stats) -> {
+            long nanos = stats.nanos.sum();
+            result.put(algorithm, nanos == 0 ? 0 : stats.bytes.sum() / BYTES_PER_MIB / (nanos / 1e9));
+        });
+        return result;
+    }
+
+    @Override
+    public long getReadLatencyP50Micros() {
+        return readLatency.getQuantileNanos(0.5) / 1000;
+    }
+
+    @Override
+    public long getReadLatencyP99Micros() {
+        return readLatency.getQuantileNanos(0.99) / 1000;
+    }
+
+    @Override
+    public long getDigestLatencyP50Micros() {
+        return digestLatency.getQuantileNanos(0.5) / 1000;
+    }
+
+    @Override
+    public long getDigestLatencyP99Micros() {
+        return digestLatency.getQuantileNanos(0.99) / 1000;
+    }
+
+    @Override
+    public void reset() {
+        bytesRead.reset();
+        filesProcessed.reset();
+        errors.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+        readLatency.reset();
+        digestLatency.reset();
+        algorithms.clear();
+    }
+
+    /*==================================================*
+     *==              PACKAGE METHODS                 ==*
+     *==================================================*/
+
+    synchronized boolean isLogging() {
+        return scheduler != null;
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Stops the given logging and the thread once no other logging is running.
+     *
+     * @param future the scheduled logging
+     */
+    private synchronized void stopLogging(ScheduledFuture<?> future) {
+        if (future.cancel(false) && --loggings == 0) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    private static void appendCounter(StringBuilder text, String name, String help, long value) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(" counter\n");
+        text.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void appendHistogram(StringBuilder text, String name, String help, LatencyHistogram histogram) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(" histogram\n");
+        for (int i = 0; i < histogram.getBucketCount(); i++) {
+            text.append(name).append("_bucket{le=\"").append(toSeconds(histogram.getUpperBoundNanos(i))).append("\"} ")
+                    .append(histogram.getCumulativeCount(i)).append('\n');
+        }
+        text.append(name).append("_bucket{le=\"+Inf\"} ").append(histogram.getCount()).append('\n');
+        text.append(name).append("_sum ").append(toSeconds(histogram.getSumNanos())).append('\n');
+        text.append(name).append("_count ").append(histogram.getCount()).append('\n');
+    }
+
+    private static String toSeconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    /*==================================================*
+     *==                INNER CLASSES                 ==*
+     *==================================================*/
+
+    /**
+     * A periodic logging started by {@link #startLogging(Duration)}.
+     */
+    public final class Logging implements Closeable {
+
+        private final ScheduledFuture<?> future;
+
+        private Logging(ScheduledFuture<?> future) {
+            this.future = future;
+        }
+
+        /**
+         * Stops the logging, stopping it again has no effect.
+         */
+        @Override
+        public void close() {
+            stopLogging(future);
+        }
+    }
+
+    /**
+     * The bytes hashed by an algorithm and the time needed for them.
+     */
+    private static class AlgorithmStats {
+
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        private void record(long byteCount, long nanoCount) {
+            bytes.add(byteCount);
+            nanos.add(nanoCount);
+        }
+    }
+}
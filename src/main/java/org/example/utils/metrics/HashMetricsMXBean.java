@@ -0,0 +1,42 @@
+package org.example.utils.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link HashMetrics}, registered as 'org.example:type=HashMetrics'.
+ */
+public interface HashMetricsMXBean {
+
+    long getBytesRead();
+
+    long getFilesProcessed();
+
+    long getErrors();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    /**
+     * @return the share of checksums found in the hash cache between 0 and 1
+     */
+    double getCacheHitRate();
+
+    /**
+     * @return the throughput of each algorithm in MiB/s, based on the time spent digesting only
+     */
+    Map<String, Double> getThroughputMiBPerSecond();
+
+    long getReadLatencyP50Micros();
+
+    long getReadLatencyP99Micros();
+
+    long getDigestLatencyP50Micros();
+
+    long getDigestLatencyP99Micros();
+
+    /**
+     * Discards all recorded values.
+     */
+    void reset();
+}
@@ -0,0 +1,135 @@
+package org.example.utils.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies with power-of-two buckets from 1 µs to about 1 s, so that recording costs only a
+ * few instructions on the hot path.
+ */
+public class LatencyHistogram {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    /**
+     * The upper bound of the first bucket is 2^10 ns, about 1 µs.
+     */
+    private static final int FIRST_EXPONENT = 10;
+
+    /**
+     * The number of buckets with an upper bound, the last one ends at 2^30 ns, about 1 s.
+     */
+    private static final int BOUNDED_BUCKETS = 21;
+
+    /*==================================================*
+     *==                   FIELDS                     ==*
+     *==================================================*/
+
+    // the last bucket collects all latencies above the largest bound
+    private final LongAdder[] buckets = new LongAdder[BOUNDED_BUCKETS + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    /*==================================================*
+     *==                CONSTRUCTORS                  ==*
+     *==================================================*/
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /*==================================================*
+     *==               PUBLIC METHODS                 ==*
+     *==================================================*/
+
+    /**
+     * Records a single latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        int exponent = 64 - Long.numberOfLeadingZeros(Math.max(nanos, 1) - 1);
+        int index = Math.min(Math.max(exponent - FIRST_EXPONENT, 0), BOUNDED_BUCKETS);
+        buckets[index].increment();
+        count.increment();
+        sumNanos.add(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    /**
+     * Returns the number of bounded buckets, the overflow bucket is not included.
+     *
+     * @return the number of bounded buckets
+     */
+    public int getBucketCount() {
+        return BOUNDED_BUCKETS;
+    }
+
+    /**
+     * Returns the inclusive upper bound of the given bucket.
+     *
+     * @param index the index of a bounded bucket
+     * @return the upper bound in nanoseconds
+     */
+    public long getUpperBoundNanos(int index) {
+        return 1L << (FIRST_EXPONENT + index);
+    }
+
+    /**
+     * Returns the number of latencies up to the upper bound of the given bucket, as needed for Prometheus.
+     *
+     * @param index the index of a bounded bucket
+     * @return the cumulative count
+     */
+    public long getCumulativeCount(int index) {
+        long sum = 0;
+        for (int i = 0; i <= index; i++) {
+            sum += buckets[i].sum();
+        }
+        return sum;
+    }
+
+    /**
+     * Estimates the given quantile by the upper bound of the bucket containing it.
+     *
+     * @param quantile the quantile between 0 and 1, e.g. 0.99
+     * @return the estimated latency in nanoseconds, 0 if nothing has been recorded
+     */
+    public long getQuantileNanos(double quantile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(quantile * total);
+        long sum = 0;
+        for (int i = 0; i < BOUNDED_BUCKETS; i++) {
+            sum += buckets[i].sum();
+            if (sum >= rank) {
+                return getUpperBoundNanos(i);
+            }
+        }
+        return getUpperBoundNanos(BOUNDED_BUCKETS);
+    }
+
+    /**
+     * Discards all recorded latencies.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sumNanos.reset();
+    }
+}
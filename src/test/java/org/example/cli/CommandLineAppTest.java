@@ -0,0 +1,206 @@
+package org.example.cli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+
+public class CommandLineAppTest {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final String SHA256_OF_ABC = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+    private static final String MD5_OF_ABC = "900150983cd24fb0d6963f7d28e17f72";
+
+    /*==================================================*
+     *==                    FIELDS                    ==*
+     *==================================================*/
+
+    ByteArrayOutputStream out;
+    ByteArrayOutputStream err;
+    CommandLineApp app;
+
+    /*==================================================*
+     *==                    SETUP                     ==*
+     *==================================================*/
+
+    @BeforeEach
+    public void setUp() {
+        out = new ByteArrayOutputStream();
+        err = new ByteArrayOutputStream();
+        app = new CommandLineApp(new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+    }
+
+    /*==================================================*
+     *==                  isCommand()                 ==*
+     *==================================================*/
+
+    @Test
+    public void isCommand_GiveNoOrUnknownArguments_ReturnFalse() {
+        Assertions.assertFalse(CommandLineApp.isCommand(new String[0]));
+        Assertions.assertFalse(CommandLineApp.isCommand(new String[] { "--some-javafx-option" }));
+        Assertions.assertTrue(CommandLineApp.isCommand(new String[] { "verify" }));
+    }
+
+    /*==================================================*
+     *==                     run()                    ==*
+     *==================================================*/
+
+    @Test
+    public void run_GiveComputeWithTwoAlgorithms_PrintBothChecksums(@TempDir Path tempDir) throws Exception {
+        Path file = Files.writeString(tempDir.resolve("abc.txt"), "abc");
+
+        int exitCode = app.run(new String[] { "compute", "-a", "sha256,MD5", "--json", file.toString() });
+
+        Assertions.assertEquals(CommandLineApp.EXIT_OK, exitCode);
+        String output = out.toString(StandardCharsets.UTF_8);
+        Assertions.assertTrue(output.contains("\"SHA256\":\"" + SHA256_OF_ABC + "\""));
+        Assertions.assertTrue(output.contains("\"MD5\":\"" + MD5_OF_ABC + "\""));
+    }
+
+    @Test
+    public void run_GiveComputeWithTree_PrintNamedTreeHash(@TempDir Path tempDir) throws Exception {
+        Path file = Files.writeString(tempDir.resolve("abc.txt"), "abc");
+
+        int exitCode = app.run(new String[] { "compute", "--tree", "4M", file.toString() });
+
+        Assertions.assertEquals(CommandLineApp.EXIT_OK, exitCode);
+        String output = out.toString(StandardCharsets.UTF_8);
+        Assertions.assertTrue(output.startsWith("SHA256-TREE-4096K "));
+        Assertions.assertFalse(output.contains(SHA256_OF_ABC));
+    }
+
+    @Test
+    public void run_GiveStdin_HashStandardInput() {
+        app = new CommandLineApp(new ByteArrayInputStream("abc".getBytes(StandardCharsets.UTF_8)),
+                new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+
+        int exitCode = app.run(new String[] { "compute", "-a", "sha256,md5", "-" });
+
+        Assertions.assertEquals(CommandLineApp.EXIT_OK, exitCode);
+        String output = out.toString(StandardCharsets.UTF_8);
+        Assertions.assertTrue(output.contains("SHA256 " + SHA256_OF_ABC + "  -"));
+        Assertions.assertTrue(output.contains("MD5 " + MD5_OF_ABC + "  -"));
+    }
+
+    @Test
+    public void run_GiveEngineByName_ComputeAndVerifyWholeFiles(@TempDir Path tempDir) throws Exception {
+        Path file = Files.writeString(tempDir.resolve("abc.txt"), "abc");
+        String sha3OfAbc = "3a985da74fe225b2045c172d6bd390bd855f086e3e9d525b46bfe24511431532";
+
+        // algorithms which are not built in are resolved by the hash engines
+        Assertions.assertEquals(CommandLineApp.EXIT_OK, app.run(new String[] { "compute", "-a", "SHA3-256", file.toString() }));
+        Assertions.assertEquals(sha3OfAbc + "  " + file + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+        Assertions.assertEquals(CommandLineApp.EXIT_OK, app.run(new String[] { "verify", "-a", "sha3-256", file.toString(), sha3OfAbc.toUpperCase() }));
+        Assertions.assertEquals(CommandLineApp.EXIT_MISMATCH, app.run(new String[] { "verify", "-a", "SHA3-256", file.toString(), SHA256_OF_ABC }));
+
+        // but only for whole files
+        Assertions.assertEquals(CommandLineApp.EXIT_USAGE, app.run(new String[] { "compute", "-a", "SHA3-256", "--tree", "4M", file.toString() }));
+        Assertions.assertEquals(CommandLineApp.EXIT_USAGE, app.run(new String[] { "dupes", "-a", "SHA3-256", tempDir.toString() }));
+        Assertions.assertEquals(CommandLineApp.EXIT_USAGE, app.run(new String[] { "compute", "-a", "SHA3-256,MD5", file.toString() }));
+    }
+
+    @Test
+    public void run_GiveConflictingModes_ReturnUsageError(@TempDir Path tempDir) throws Exception {
+        Path file = Files.writeString(tempDir.resolve("abc.txt"), "abc");
+        String checkpoint = tempDir.resolve("checkpoint").toString();
+
+        Assertions.assertEquals(CommandLineApp.EXIT_USAGE, app.run(new String[] { "compute", "--tree", "4M", "--range", "0:1", file.toString() }));
+        Assertions.assertEquals(CommandLineApp.EXIT_USAGE, app.run(new String[] { "compute", "--checkpoint", checkpoint, "--tree", "4M", file.toString() }));
+        Assertions.assertEquals(CommandLineApp.EXIT_USAGE, app.run(new String[] { "verify", "--range", "0:1", "--tree", "4M", file.toString(), SHA256_OF_ABC }));
+        Assertions.assertEquals(CommandLineApp.EXIT_USAGE, app.run(new String[] { "compute", "--range", "0:1", "-" }));
+        Assertions.assertEquals(CommandLineApp.EXIT_USAGE, app.run(new String[] { "verify", "--tree", "4M", "-", SHA256_OF_ABC }));
+        Assertions.assertEquals("", out.toString(StandardCharsets.UTF_8));
+
+        // a single mode is fine
+        app = new CommandLineApp(new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+        Assertions.assertEquals(CommandLineApp.EXIT_OK, app.run(new String[] { "compute", "--range", "0:3", file.toString() }));
+        Assertions.assertEquals(SHA256_OF_ABC + "  " + file + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void run_GiveVerify_ReturnExitCodePerOutcome(@TempDir Path tempDir) throws Exception {
+        Path file = Files.writeString(tempDir.resolve("abc.txt"), "abc");
+
+        Assertions.assertEquals(CommandLineApp.EXIT_OK, app.run(new String[] { "verify", file.toString(), SHA256_OF_ABC }));
+        Assertions.assertEquals(CommandLineApp.EXIT_MISMATCH, app.run(new String[] { "verify", "-a", "MD5", file.toString(), SHA256_OF_ABC }));
+        Assertions.assertEquals(CommandLineApp.EXIT_UNREADABLE, app.run(new String[] { "verify", tempDir.resolve("missing").toString(), SHA256_OF_ABC }));
+        Assertions.assertEquals(CommandLineApp.EXIT_USAGE, app.run(new String[] { "verify", "-a", "CRC", file.toString(), SHA256_OF_ABC }));
+    }
+
+    @Test
+    public void run_GiveCheckWithManifest_PrintResultPerEntry(@TempDir Path tempDir) throws Exception {
+        Files.writeString(tempDir.resolve("abc.txt"), "abc");
+        Path manifest = Files.writeString(tempDir.resolve("SHA256SUMS"), SHA256_OF_ABC + "  abc.txt\n");
+
+        int exitCode = app.run(new String[] { "check", manifest.toString() });
+
+        Assertions.assertEquals(CommandLineApp.EXIT_OK, exitCode);
+        Assertions.assertTrue(out.toString(StandardCharsets.UTF_8).contains("abc.txt: OK"));
+    }
+
+    @Test
+    public void run_GiveCheckWithSha256sumOutput_VerifyAsSha256(@TempDir Path tempDir) throws Exception {
+        Files.writeString(tempDir.resolve("a.txt"), "abc");
+        Files.writeString(tempDir.resolve("b.txt"), "abc");
+
+        // the output of 'sha256sum' names no algorithm, neither by a tag nor by the file name
+        Path manifest = Files.writeString(tempDir.resolve("checksums.txt"),
+                SHA256_OF_ABC + "  a.txt\n" + "0".repeat(64) + "  b.txt\n");
+
+        int exitCode = app.run(new String[] { "check", manifest.toString() });
+
+        Assertions.assertEquals(CommandLineApp.EXIT_MISMATCH, exitCode);
+        String output = out.toString(StandardCharsets.UTF_8);
+        Assertions.assertTrue(output.contains("a.txt: OK"), output);
+        Assertions.assertTrue(output.contains("b.txt: FAILED MISMATCH"), output);
+    }
+
+    @Test
+    public void run_GiveCheckWithSkippedLinesOrNothingVerified_Fail(@TempDir Path tempDir) throws Exception {
+        Files.writeString(tempDir.resolve("abc.txt"), "abc");
+        Path manifest = Files.writeString(tempDir.resolve("SHA256SUMS"), SHA256_OF_ABC + "  abc.txt\nnot a checksum\n");
+
+        Assertions.assertEquals(CommandLineApp.EXIT_MISMATCH, app.run(new String[] { "check", manifest.toString(), "--json" }));
+        Assertions.assertTrue(out.toString(StandardCharsets.UTF_8).contains(
+                "{\"summary\":{\"ok\":1,\"mismatch\":0,\"missing\":0,\"unreadable\":0,\"skipped\":1}}"));
+
+        // an empty manifest verifies nothing
+        app = new CommandLineApp(new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+        Files.writeString(manifest, "# no entries\n");
+        Assertions.assertEquals(CommandLineApp.EXIT_MISMATCH, app.run(new String[] { "check", manifest.toString() }));
+        Assertions.assertTrue(err.toString(StandardCharsets.UTF_8).contains("no checksum has been verified"));
+    }
+
+    @Test
+    public void run_GiveDigestWithManifest_PrintDigestAndWriteManifest(@TempDir Path tempDir) throws Exception {
+        Path root = Files.createDirectory(tempDir.resolve("root"));
+        Files.writeString(root.resolve("abc.txt"), "abc");
+        Path manifest = tempDir.resolve("SHA256SUMS");
+
+        int exitCode = app.run(new String[] { "digest", "--manifest", manifest.toString(), root.toString() });
+
+        Assertions.assertEquals(CommandLineApp.EXIT_OK, exitCode);
+        Assertions.assertTrue(out.toString(StandardCharsets.UTF_8).trim().endsWith("  " + root));
+        Assertions.assertEquals(SHA256_OF_ABC + "  abc.txt\n", Files.readString(manifest));
+    }
+
+    /*==================================================*
+     *==                    quote()                   ==*
+     *==================================================*/
+
+    @Test
+    public void quote_GiveSpecialCharacters_ReturnEscapedJsonString() {
+        Assertions.assertEquals("\"a\\\"b\\\\c\\nd\\u0001\"", CommandLineApp.quote("a\"b\\c\nd\u0001"));
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.cli;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+
+public class HashServerTest {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final String SHA256_OF_ABC = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+    private static final String MD5_OF_ABC = "900150983cd24fb0d6963f7d28e17f72";
+
+    /*==================================================*
+     *==                    FIELDS                    ==*
+     *==================================================*/
+
+    HashServer server;
+    HttpClient client;
+
+    /*==================================================*
+     *==                    SETUP                     ==*
+     *==================================================*/
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new HashServer(0, 2);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    /*==================================================*
+     *==                  ENDPOINTS                   ==*
+     *==================================================*/
+
+    @Test
+    public void hash_GiveFile_ReturnChecksums(@TempDir Path tempDir) throws Exception {
+        Path file = Files.writeString(tempDir.resolve("abc.txt"), "abc");
+
+        HttpResponse<String> response = get("/hash?algorithm=SHA256,MD5&file=" + encode(file.toString()));
+
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals("{\"file\":" + CommandLineApp.quote(file.toString()) + ",\"checksums\":{\"MD5\":\""
+                + MD5_OF_ABC + "\",\"SHA256\":\"" + SHA256_OF_ABC + "\"}}\n", response.body());
+        Assertions.assertEquals(400, get("/hash?algorithm=NONE&file=" + encode(file.toString())).statusCode());
+        Assertions.assertEquals(404, get("/other").statusCode());
+    }
+
+    @Test
+    public void verify_GiveSingleFileOrManifest_ReturnStatusPerFile(@TempDir Path tempDir) throws Exception {
+        Path file = Files.writeString(tempDir.resolve("abc.txt"), "abc");
+
+        HttpResponse<String> response = get("/verify?file=" + encode(file.toString())
+                + "&checksum=" + SHA256_OF_ABC.toUpperCase());
+        Assertions.assertTrue(response.body().contains("\"status\":\"OK\""), response.body());
+
+        // relative paths of the manifest are resolved against the base directory
+        String manifest = SHA256_OF_ABC + "  abc.txt\n"
+                + MD5_OF_ABC + "  abc.txt\n"
+                + MD5_OF_ABC.replace('9', '8') + "  abc.txt\n"
+                + SHA256_OF_ABC + "  missing.txt\n";
+        response = client.send(HttpRequest.newBuilder(uri("/verify?base=" + encode(tempDir.toString())))
+                .POST(HttpRequest.BodyPublishers.ofString(manifest)).build(), HttpResponse.BodyHandlers.ofString());
+
+        String[] lines = response.body().split("\n");
+        Assertions.assertEquals(4, lines.length);
+        Assertions.assertTrue(lines[0].endsWith("\"algorithm\":\"SHA256\",\"status\":\"OK\"}"), lines[0]);
+        Assertions.assertTrue(lines[1].endsWith("\"algorithm\":\"MD5\",\"status\":\"OK\"}"), lines[1]);
+        Assertions.assertTrue(lines[2].endsWith("\"status\":\"MISMATCH\"}"), lines[2]);
+        Assertions.assertTrue(lines[3].endsWith("\"status\":\"MISSING\"}"), lines[3]);
+    }
+
+    @Test
+    public void hash_GiveConcurrentRequestsForSameFile_ReturnSharedResult(@TempDir Path tempDir) throws Exception {
+
+        // a file large enough that the requests overlap
+        byte[] content = new byte[64 * 1024 * 1024];
+        new Random(3).nextBytes(content);
+        Path file = Files.write(tempDir.resolve("large.bin"), content);
+
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            responses.add(client.sendAsync(HttpRequest.newBuilder(uri("/hash?file=" + encode(file.toString()))).build(),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+
+        String expected = responses.get(0).join().body();
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            Assertions.assertEquals(expected, response.join().body());
+        }
+        Assertions.assertTrue(server.getCoalescedRequests() > 0);
+    }
+
+    @Test
+    public void hash_GiveForeignHostOrOrigin_ReturnForbidden(@TempDir Path tempDir) throws Exception {
+        Path file = Files.writeString(tempDir.resolve("abc.txt"), "abc");
+        String path = "/hash?file=" + encode(file.toString());
+        int port = server.getAddress().getPort();
+
+        // a page reaching the server through DNS rebinding sends its own host name
+        try (Socket socket = new Socket(server.getAddress().getAddress(), port)) {
+            socket.getOutputStream().write(("GET " + path + " HTTP/1.1\r\nHost: rebind.example:" + port
+                    + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            String statusLine = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII))
+                    .readLine();
+            Assertions.assertEquals("HTTP/1.1 403 Forbidden", statusLine);
+        }
+
+        Assertions.assertEquals(403, client.send(HttpRequest.newBuilder(uri(path)).header("Origin", "http://rebind.example")
+                .build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+        Assertions.assertEquals(200, client.send(HttpRequest.newBuilder(uri(path)).header("Origin", "http://localhost:" + port)
+                .build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    /*==================================================*
+     *==                   HELPERS                    ==*
+     *==================================================*/
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
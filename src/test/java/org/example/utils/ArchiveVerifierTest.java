@@ -0,0 +1,206 @@
+package org.example.utils;
+
+import org.example.model.VerificationResult;
+import org.example.model.VerificationStatus;
+import org.example.model.VerificationSummary;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+
+public class ArchiveVerifierTest {
+
+    private static final String ABC_SHA256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+    private static final String EMPTY_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    /*==================================================*
+     *==                   verify()                   ==*
+     *==================================================*/
+
+    @Test
+    public void verify_GiveZipArchive_ReturnStatusPerEntry(@TempDir Path tempDir) throws Exception {
+        Path archive = tempDir.resolve("app.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive))) {
+            zip.putNextEntry(new ZipEntry("lib/"));
+            zip.putNextEntry(new ZipEntry("lib/abc.txt"));
+            zip.write("abc".getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("changed.txt"));
+            zip.write("abd".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        Map<String, VerificationStatus> results = verify(archive, writeManifest(tempDir));
+
+        Assertions.assertEquals(Map.of(
+                "lib/abc.txt", VerificationStatus.OK,
+                "changed.txt", VerificationStatus.MISMATCH,
+                "missing.txt", VerificationStatus.MISSING), results);
+    }
+
+    @Test
+    public void verify_GiveCompressedTarArchive_ReturnStatusPerEntry(@TempDir Path tempDir) throws Exception {
+        Path archive = tempDir.resolve("app.tar.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive))) {
+            writeTarEntry(out, "./lib/", '5', new byte[0]);
+            writeTarEntry(out, "./lib/abc.txt", '0', "abc".getBytes(StandardCharsets.UTF_8));
+            writeTarEntry(out, "./other.txt", '0', new byte[1000]);
+            writeTarEntry(out, "./changed.txt", '0', "abd".getBytes(StandardCharsets.UTF_8));
+            out.write(new byte[1024]);
+        }
+
+        Map<String, VerificationStatus> results = verify(archive, writeManifest(tempDir));
+
+        Assertions.assertEquals(Map.of(
+                "lib/abc.txt", VerificationStatus.OK,
+                "changed.txt", VerificationStatus.MISMATCH,
+                "missing.txt", VerificationStatus.MISSING), results);
+    }
+
+    @Test
+    public void verify_GiveTarArchiveWithPaxHeaders_SplitRecordsByLength(@TempDir Path tempDir) throws Exception {
+        Path archive = tempDir.resolve("app.tar");
+        try (OutputStream out = Files.newOutputStream(archive)) {
+
+            // the comment contains what looks like another record when splitting at newlines
+            byte[] pax = (paxRecord("comment", "line\n27 path=changed.txt") + paxRecord("path", "lib/abc.txt"))
+                    .getBytes(StandardCharsets.UTF_8);
+            writeTarEntry(out, "./PaxHeaders/short", 'x', pax);
+            writeTarEntry(out, "short", '0', "abc".getBytes(StandardCharsets.UTF_8));
+            writeTarEntry(out, "changed.txt", '0', "abd".getBytes(StandardCharsets.UTF_8));
+            out.write(new byte[1024]);
+        }
+
+        Map<String, VerificationStatus> results = verify(archive, writeManifest(tempDir));
+
+        Assertions.assertEquals(Map.of(
+                "lib/abc.txt", VerificationStatus.OK,
+                "changed.txt", VerificationStatus.MISMATCH,
+                "missing.txt", VerificationStatus.MISSING), results);
+    }
+
+    @Test
+    public void verify_GiveOldGnuTarArchive_IgnoreTimesAsPrefix(@TempDir Path tempDir) throws Exception {
+        Path archive = tempDir.resolve("incremental.tar");
+        try (OutputStream out = Files.newOutputStream(archive)) {
+            for (String[] file : new String[][] { { "lib/abc.txt", "abc" }, { "changed.txt", "abd" } }) {
+
+                // old GNU headers have another magic and store access and change times where ustar has the prefix
+                ByteArrayOutputStream entry = new ByteArrayOutputStream();
+                writeTarEntry(entry, file[0], '0', file[1].getBytes(StandardCharsets.UTF_8));
+                byte[] bytes = entry.toByteArray();
+                put(bytes, 257, "ustar  \0");
+                put(bytes, 345, "14751242561");
+                put(bytes, 357, "14751242561");
+                out.write(bytes);
+            }
+            out.write(new byte[1024]);
+        }
+
+        Map<String, VerificationStatus> results = verify(archive, writeManifest(tempDir));
+
+        Assertions.assertEquals(Map.of(
+                "lib/abc.txt", VerificationStatus.OK,
+                "changed.txt", VerificationStatus.MISMATCH,
+                "missing.txt", VerificationStatus.MISSING), results);
+    }
+
+    @Test
+    public void verify_GiveMalformedPaxHeaders_ThrowIOException(@TempDir Path tempDir) throws Exception {
+        Path manifest = writeManifest(tempDir);
+        String[] headers = { paxRecord("size", "12x"), paxRecord("size", "-1"), "99 path=abc.txt\n", "x path=abc.txt\n" };
+
+        for (String header : headers) {
+            Path archive = tempDir.resolve("malformed.tar");
+            try (OutputStream out = Files.newOutputStream(archive)) {
+                writeTarEntry(out, "./PaxHeaders/abc.txt", 'x', header.getBytes(StandardCharsets.UTF_8));
+                writeTarEntry(out, "abc.txt", '0', "abc".getBytes(StandardCharsets.UTF_8));
+                out.write(new byte[1024]);
+            }
+
+            IOException e = Assertions.assertThrows(IOException.class,
+                    () -> new ArchiveVerifier(2).verify(archive, manifest, result -> { }));
+            Assertions.assertTrue(e.getMessage().startsWith("Malformed TAR header"), e.getMessage());
+        }
+    }
+
+    @Test
+    public void verify_GiveUnknownFormat_ThrowIOException(@TempDir Path tempDir) throws Exception {
+        Path archive = Files.writeString(tempDir.resolve("plain.txt"), "abc");
+
+        Assertions.assertThrows(IOException.class,
+                () -> new ArchiveVerifier(2).verify(archive, writeManifest(tempDir), result -> { }));
+    }
+
+    /*==================================================*
+     *==                   HELPERS                    ==*
+     *==================================================*/
+
+    private static Path writeManifest(Path dir) throws IOException {
+        return Files.writeString(dir.resolve("SHA256SUMS"), ABC_SHA256 + "  lib/abc.txt\n"
+                + ABC_SHA256 + "  changed.txt\n"
+                + EMPTY_SHA256 + "  missing.txt\n");
+    }
+
+    private static Map<String, VerificationStatus> verify(Path archive, Path manifest) throws Exception {
+        Map<String, VerificationStatus> results = new TreeMap<>();
+        VerificationSummary summary = new ArchiveVerifier(2).verify(archive, manifest,
+                (VerificationResult result) -> results.put(result.getEntry().getFile().getPath(), result.getStatus()));
+        Assertions.assertEquals(3, summary.getTotal());
+        return results;
+    }
+
+    /**
+     * Writes a minimal ustar header and the padded content.
+     */
+    private static void writeTarEntry(OutputStream out, String name, char type, byte[] content) throws IOException {
+        byte[] header = new byte[512];
+        put(header, 0, name);
+        put(header, 100, "0000644");
+        put(header, 124, String.format("%011o", content.length));
+        put(header, 136, String.format("%011o", 0));
+        header[156] = (byte) type;
+        put(header, 257, "ustar");
+        put(header, 263, "00");
+
+        // the checksum is computed with spaces in its own field
+        Arrays.fill(header, 148, 156, (byte) ' ');
+        int sum = 0;
+        for (byte b : header) {
+            sum += b & 0xFF;
+        }
+        put(header, 148, String.format("%06o", sum));
+
+        ByteArrayOutputStream entry = new ByteArrayOutputStream();
+        entry.write(header);
+        entry.write(content);
+        entry.write(new byte[(512 - content.length % 512) % 512]);
+        out.write(entry.toByteArray());
+    }
+
+    /**
+     * Creates a PAX record, whose length includes the digits of the length itself.
+     */
+    private static String paxRecord(String key, String value) {
+        int length = key.length() + value.getBytes(StandardCharsets.UTF_8).length + 3;
+        length += String.valueOf(length + String.valueOf(length).length()).length();
+        return length + " " + key + "=" + value + "\n";
+    }
+
+    private static void put(byte[] header, int offset, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.utils;
+
+import org.example.model.Checksum;
+import org.example.model.VerificationEntry;
+import org.example.model.VerificationResult;
+import org.example.model.VerificationStatus;
+import org.example.model.VerificationSummary;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class BatchVerifierTest {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final String SHA256_OF_ABC = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    /*==================================================*
+     *==                   verify()                   ==*
+     *==================================================*/
+
+    @Test
+    public void verify_GiveMixedEntries_ReturnSummaryPerStatus(@TempDir Path tempDir) throws Exception {
+
+        // test files
+        File abc = tempDir.resolve("abc.txt").toFile();
+        Files.writeString(abc.toPath(), "abc");
+        File missing = tempDir.resolve("missing.txt").toFile();
+
+        List<VerificationEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            entries.add(new VerificationEntry(abc, Checksum.SHA256, SHA256_OF_ABC));
+        }
+        entries.add(new VerificationEntry(abc, Checksum.SHA256, "0000"));
+        entries.add(new VerificationEntry(missing, Checksum.SHA256, SHA256_OF_ABC));
+
+        // verify with a small pool
+        List<VerificationResult> results = new ArrayList<>();
+        VerificationSummary summary = new BatchVerifier(3).verify(entries, results::add);
+
+        Assertions.assertEquals(entries.size(), results.size());
+        Assertions.assertEquals(entries.size(), summary.getTotal());
+        Assertions.assertEquals(50, summary.getCount(VerificationStatus.OK));
+        Assertions.assertEquals(1, summary.getCount(VerificationStatus.MISMATCH));
+        Assertions.assertEquals(1, summary.getCount(VerificationStatus.MISSING));
+        Assertions.assertEquals(0, summary.getCount(VerificationStatus.UNREADABLE));
+        Assertions.assertFalse(summary.isAllOk());
+    }
+
+    /*==================================================*
+     *==              verifyDirectory()               ==*
+     *==================================================*/
+
+    @Test
+    public void verifyDirectory_GiveSidecarFiles_ReturnResultPerSidecar(@TempDir Path tempDir) throws Exception {
+
+        // one correct file in a sub directory, one sidecar without its file and one file without sidecar
+        Path subDir = Files.createDirectory(tempDir.resolve("sub"));
+        Files.writeString(subDir.resolve("abc.txt"), "abc");
+        Files.writeString(subDir.resolve("abc.txt.sha256"), SHA256_OF_ABC + "  abc.txt\n");
+        Files.writeString(tempDir.resolve("gone.txt.sha256"), SHA256_OF_ABC);
+        Files.writeString(tempDir.resolve("unrelated.txt"), "unrelated");
+
+        VerificationSummary summary = new BatchVerifier().verifyDirectory(tempDir, result -> {});
+
+        Assertions.assertEquals(2, summary.getTotal());
+        Assertions.assertEquals(1, summary.getCount(VerificationStatus.OK));
+        Assertions.assertEquals(1, summary.getCount(VerificationStatus.MISSING));
+    }
+}
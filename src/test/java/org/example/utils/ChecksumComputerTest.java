@@ -1,15 +1,33 @@
 package org.example.utils;
 
 import org.example.model.Checksum;
+import org.example.model.HashResult;
+import org.example.model.ReadStrategy;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 public class ChecksumComputerTest {
@@ -92,6 +110,229 @@ public class ChecksumComputerTest {
         Assertions.assertEquals("cf83e1357eefb8bdf1542850d66d8007d620e4050b5715dc83f4a921d36ce9ce47d0d13c5d85f2b0ff8318d2877eec2f63b931bd47417a81a538327af927da3e", checksum.get());
     }
 
+    @Test
+    public void getChecksum_GiveEachReadStrategy_ReturnSameChecksums(@TempDir Path tempDir) throws IOException {
+
+        // test file with random content spanning multiple buffers
+        byte[] content = new byte[ChannelReader.DEFAULT_BUFFER_SIZE * 3 + 17];
+        new Random(42).nextBytes(content);
+
+        File file = tempDir.resolve("random.bin").toFile();
+        Files.write(file.toPath(), content);
+
+        // each strategy must compute the same checksum for each algorithm
+        for (Checksum alg : Checksum.values()) {
+            Optional<String> expected = new ChecksumComputer(alg, ReadStrategy.BUFFERED).getChecksum(file);
+            Assertions.assertTrue(expected.isPresent());
+
+            for (ReadStrategy strategy : ReadStrategy.values()) {
+                Assertions.assertEquals(expected, new ChecksumComputer(alg, strategy).getChecksum(file));
+            }
+        }
+    }
+
+    @Test
+    public void getChecksum_GiveReusedComputerOnManyThreads_ReturnIndependentChecksums(@TempDir Path tempDir) throws Exception {
+
+        // small test files with known checksums
+        File abc = Files.writeString(tempDir.resolve("abc.txt"), "abc").toFile();
+        File empty = Files.writeString(tempDir.resolve("empty.txt"), "").toFile();
+        File missing = tempDir.resolve("missing.txt").toFile();
+        String sha256OfAbc = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        String sha256OfEmpty = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+        // pooled hashers and buffers must not leak state between files, failures or threads
+        Thread[] threads = new Thread[4];
+        AtomicLong failures = new AtomicLong();
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                ChecksumComputer comp = new ChecksumComputer(Checksum.SHA256, ReadStrategy.BUFFERED);
+                for (int i = 0; i < 50; i++) {
+                    if (!Optional.of(sha256OfAbc).equals(comp.getChecksum(abc))
+                            || comp.getChecksum(missing).isPresent()
+                            || !Optional.of(sha256OfEmpty).equals(new ChecksumComputer(Checksum.SHA256).getChecksum(empty))) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(0, failures.get());
+    }
+
+    @Test
+    public void getChecksum_GiveStreamOrChannel_ReturnSameAsFile(@TempDir Path tempDir) throws Exception {
+
+        // test data spanning multiple buffers
+        byte[] content = new byte[ChannelReader.DEFAULT_BUFFER_SIZE * 2 + 5];
+        new Random(7).nextBytes(content);
+        File file = Files.write(tempDir.resolve("random.bin"), content).toFile();
+
+        for (Checksum alg : Checksum.values()) {
+            ChecksumComputer comp = new ChecksumComputer(alg);
+            Optional<String> expected = comp.getChecksum(file);
+
+            Assertions.assertEquals(expected, comp.getChecksum(new ByteArrayInputStream(content)));
+            Assertions.assertEquals(expected, comp.getChecksum(Channels.newChannel(new ByteArrayInputStream(content))));
+            Assertions.assertEquals(Optional.of(true), comp.verifyChecksum(new ByteArrayInputStream(content), expected.orElseThrow()));
+            Assertions.assertEquals(Optional.of(false), comp.verifyChecksum(new ByteArrayInputStream(new byte[1]), expected.orElseThrow()));
+
+            // hash while copying through the pass-through channel
+            try (DigestingChannel channel = new DigestingChannel(Channels.newChannel(new ByteArrayInputStream(content)), alg)) {
+                ByteBuffer buffer = ByteBuffer.allocate(1000);
+                while (channel.read(buffer) >= 0) {
+                    buffer.clear();
+                }
+                Assertions.assertEquals(content.length, channel.getBytesRead());
+                Assertions.assertEquals(expected.orElseThrow(), channel.getChecksum());
+            }
+        }
+    }
+
+    @Test
+    public void getChecksum_GiveRange_ReturnSameAsFileWithRangeContent(@TempDir Path tempDir) throws IOException {
+
+        // test file spanning multiple buffers
+        byte[] content = new byte[ChannelReader.DEFAULT_BUFFER_SIZE * 3 + 17];
+        new Random(11).nextBytes(content);
+        File file = Files.write(tempDir.resolve("random.bin"), content).toFile();
+
+        int offset = ChannelReader.DEFAULT_BUFFER_SIZE - 3;
+        int length = ChannelReader.DEFAULT_BUFFER_SIZE + 100;
+        File part = Files.write(tempDir.resolve("part.bin"), Arrays.copyOfRange(content, offset, offset + length)).toFile();
+        File tail = Files.write(tempDir.resolve("tail.bin"), Arrays.copyOfRange(content, offset, content.length)).toFile();
+
+        // a range reaching beyond the end of the file ends with the file
+        for (ReadStrategy strategy : ReadStrategy.values()) {
+            ChecksumComputer comp = new ChecksumComputer(Checksum.SHA256, strategy);
+            Optional<String> expected = comp.getChecksum(part);
+
+            Assertions.assertTrue(expected.isPresent());
+            Assertions.assertEquals(expected, comp.getChecksum(file, offset, length));
+            Assertions.assertEquals(Optional.of(true), comp.verifyChecksum(file, offset, length, expected.get()));
+            Assertions.assertEquals(comp.getChecksum(tail), comp.getChecksum(file, offset, Long.MAX_VALUE));
+            Assertions.assertEquals(comp.getChecksum(file), comp.getChecksum(file, 0, content.length));
+        }
+    }
+
+    @Test
+    public void getChecksumAsync_GiveFilesOnExecutor_ReturnSameAsSynchronous(@TempDir Path tempDir) throws Exception {
+
+        // test files spanning both pipelined buffers several times, and an empty one
+        byte[] content = new byte[AsyncFileHasher.BUFFER_SIZE * 3 + 17];
+        new Random(5).nextBytes(content);
+        Path file = Files.write(tempDir.resolve("random.bin"), content);
+        Path empty = Files.write(tempDir.resolve("empty.bin"), new byte[0]);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (Checksum alg : Checksum.values()) {
+                ChecksumComputer comp = new ChecksumComputer(alg);
+                comp.setExecutor(executor);
+
+                HashResult result = comp.getChecksumAsync(file).get();
+                Assertions.assertEquals(comp.getChecksum(file.toFile()), Optional.of(result.getValue()));
+                Assertions.assertEquals(content.length, result.getBytes());
+                Assertions.assertEquals(comp.getChecksum(empty.toFile()), Optional.of(comp.getChecksumAsync(empty).get().getValue()));
+                Assertions.assertTrue(comp.verifyChecksumAsync(file, result.getValue().toUpperCase()).get());
+                Assertions.assertFalse(comp.verifyChecksumAsync(empty, result.getValue()).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void getChecksumAsync_GiveMissingFile_FailWithCause(@TempDir Path tempDir) {
+        CompletableFuture<HashResult> result = new ChecksumComputer(Checksum.SHA256).getChecksumAsync(tempDir.resolve("missing.bin"));
+
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, result::get);
+        Assertions.assertInstanceOf(NoSuchFileException.class, e.getCause());
+    }
+
+    @Test
+    public void getChecksum_GiveProgressListener_ReportWholeFile(@TempDir Path tempDir) throws IOException {
+
+        // test file spanning multiple buffers
+        byte[] content = new byte[ChannelReader.DEFAULT_BUFFER_SIZE * 2 + 1];
+        File file = tempDir.resolve("progress.bin").toFile();
+        Files.write(file.toPath(), content);
+
+        // the last reported progress must cover the whole file
+        for (ReadStrategy strategy : ReadStrategy.values()) {
+            AtomicLong processed = new AtomicLong();
+            Optional<String> checksum = new ChecksumComputer(Checksum.SHA256, strategy).getChecksum(file, (bytes, total) -> {
+                Assertions.assertEquals(content.length, total);
+                processed.set(bytes);
+            });
+
+            Assertions.assertTrue(checksum.isPresent());
+            Assertions.assertEquals(content.length, processed.get());
+        }
+    }
+
+    @Test
+    public void getChecksum_GiveInterruptedThread_ReturnEmpty(@TempDir Path tempDir) throws IOException {
+
+        // test file spanning multiple buffers and mapped slices
+        File file = tempDir.resolve("cancel.bin").toFile();
+        Files.write(file.toPath(), new byte[ChannelReader.MAPPING_SLICE_SIZE * 2]);
+
+        // interrupt while reading like cancelling in the GUI does
+        for (ReadStrategy strategy : ReadStrategy.values()) {
+            Optional<String> checksum = new ChecksumComputer(Checksum.SHA256, strategy).getChecksum(file, (bytes, total) -> Thread.currentThread().interrupt());
+
+            Assertions.assertTrue(checksum.isEmpty());
+            Assertions.assertTrue(Thread.interrupted());
+        }
+    }
+
+    /*==================================================*
+     *==                getChecksums()                ==*
+     *==================================================*/
+
+    @Test
+    public void getChecksums_GiveInvalidFile_ReturnEmpty() {
+
+        // test file, not existing
+        Path pathToNonExisting = Path.of("./not-existing");
+        if (Files.exists(pathToNonExisting)) {
+            throw new AssertionError("Test file must not exist!");
+        }
+
+        Optional<EnumMap<Checksum, String>> checksums = compSHA256.getChecksums(pathToNonExisting.toFile(), EnumSet.allOf(Checksum.class));
+        Assertions.assertTrue(checksums.isEmpty());
+    }
+
+    @Test
+    public void getChecksums_GiveSmallAndLargeFiles_ReturnSameChecksumsAsSingleAlgorithms(@TempDir Path tempDir) throws IOException {
+
+        // one file hashed sequentially and one file hashed by the parallel pipeline
+        long[] sizes = { 1000, ChecksumComputer.PARALLEL_DIGEST_THRESHOLD + 12345 };
+
+        for (long size : sizes) {
+            byte[] content = new byte[(int) size];
+            new Random(size).nextBytes(content);
+
+            File file = tempDir.resolve("random-" + size + ".bin").toFile();
+            Files.write(file.toPath(), content);
+
+            // compute all checksums at once
+            Optional<EnumMap<Checksum, String>> checksums = compSHA256.getChecksums(file, EnumSet.allOf(Checksum.class));
+            Assertions.assertTrue(checksums.isPresent());
+            Assertions.assertEquals(Checksum.values().length, checksums.get().size());
+
+            // each checksum must be the same as when computed alone
+            for (Checksum alg : Checksum.values()) {
+                Assertions.assertEquals(new ChecksumComputer(alg).getChecksum(file), Optional.of(checksums.get().get(alg)));
+            }
+        }
+    }
+
     /*==================================================*
      *==               verifyChecksum()               ==*
      *==================================================*/
@@ -143,6 +384,54 @@ public class ChecksumComputerTest {
         Assertions.assertTrue(correctChecksum.get());
     }
 
+    @Test
+    public void verifyChecksum_GiveUpperCaseChecksum_ReturnTrue() {
+
+        // test file, must exist (or throws an exception)
+        URL fileUrl = getClass().getClassLoader().getResource("test_checksum.txt");
+        if (fileUrl == null) {
+            throw new AssertionError("Test file not found!");
+        }
+        File file = new File(fileUrl.getFile());
+
+        // vendors often publish checksums in upper case
+        Optional<Boolean> correctChecksum = compSHA256.verifyChecksum(file, "E3B0C44298FC1C149AFBF4C8996FB92427AE41E4649B934CA495991B7852B855");
+
+        Assertions.assertTrue(correctChecksum.isPresent());
+        Assertions.assertTrue(correctChecksum.get());
+    }
+
+    @Test
+    public void verifyChecksum_GiveChecksumWithSurroundingWhitespace_ReturnTrueOnEveryPath() throws Exception {
+
+        // test file, must exist (or throws an exception)
+        URL fileUrl = getClass().getClassLoader().getResource("test_checksum.txt");
+        if (fileUrl == null) {
+            throw new AssertionError("Test file not found!");
+        }
+        File file = new File(fileUrl.getFile());
+
+        // checksums copied from web pages often come with a trailing space or line break
+        String checksum = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+        for (String copied : new String[] { checksum + " ", " " + checksum + "\n" }) {
+            Assertions.assertEquals(Optional.of(true), compSHA256.verifyChecksum(file, copied));
+            Assertions.assertTrue(compSHA256.verifyChecksumAsync(file.toPath(), copied).get());
+            Assertions.assertTrue(ChecksumComputer.isSameChecksum(checksum, copied));
+        }
+    }
+
+    @Test
+    public void verifyChecksum_GiveInvalidChecksumForMissingFile_ReturnEmpty() {
+
+        // test file, not existing
+        Path pathToNonExisting = Path.of("./not-existing");
+        if (Files.exists(pathToNonExisting)) {
+            throw new AssertionError("Test file must not exist!");
+        }
+
+        Assertions.assertTrue(compSHA256.verifyChecksum(pathToNonExisting.toFile(), "invalid").isEmpty());
+    }
+
     @Test
     public void verifyChecksum_GiveInvalidChecksum_ReturnFalse() {
 
@@ -0,0 +1,90 @@
+package org.example.utils;
+
+import org.example.model.Checksum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+
+public class DirectoryDigestTest {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final String SHA256_OF_ABC = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    /*==================================================*
+     *==                   digest()                   ==*
+     *==================================================*/
+
+    @Test
+    public void digest_GiveDifferentConcurrency_ReturnSameDigestAndManifest(@TempDir Path tempDir) throws Exception {
+
+        // test tree with more files than the window of pending checksums
+        Path root = createTree(tempDir.resolve("root"));
+
+        StringWriter sequential = new StringWriter();
+        StringWriter parallel = new StringWriter();
+        String expected = new DirectoryDigest(Checksum.SHA256, 1).digest(root, sequential);
+        String actual = new DirectoryDigest(Checksum.SHA256, 4).digest(root, parallel);
+
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertEquals(sequential.toString(), parallel.toString());
+
+        // the manifest is sorted by the path components and in the format of 'sha256sum'
+        String[] lines = parallel.toString().split("\n");
+        Assertions.assertEquals(42, lines.length);
+        Assertions.assertEquals(SHA256_OF_ABC + "  a/abc.txt", lines[0]);
+        Assertions.assertTrue(lines[1].endsWith("  a/sub/file00.txt"));
+        Assertions.assertTrue(lines[41].endsWith("  b.txt"));
+    }
+
+    @Test
+    public void digest_GiveChangedTree_ReturnDifferentDigest(@TempDir Path tempDir) throws Exception {
+
+        // digest of the original tree
+        Path root = createTree(tempDir.resolve("root"));
+        DirectoryDigest digest = new DirectoryDigest(Checksum.SHA256, 2);
+        String original = digest.digest(root, null);
+
+        // modified content
+        Files.writeString(root.resolve("b.txt"), "B");
+        String modified = digest.digest(root, null);
+        Assertions.assertNotEquals(original, modified);
+
+        // renamed file with the same content
+        Files.move(root.resolve("b.txt"), root.resolve("c.txt"));
+        Assertions.assertNotEquals(modified, digest.digest(root, null));
+
+        // empty directories are part of the tree as well
+        String renamed = digest.digest(root, null);
+        Files.createDirectory(root.resolve("empty"));
+        Assertions.assertNotEquals(renamed, digest.digest(root, null));
+    }
+
+    @Test
+    public void digest_GiveUnreadableTree_ThrowException(@TempDir Path tempDir) {
+        DirectoryDigest digest = new DirectoryDigest(Checksum.SHA256);
+        Assertions.assertThrows(IOException.class, () -> digest.digest(tempDir.resolve("missing"), null));
+    }
+
+    /*==================================================*
+     *==                   HELPERS                    ==*
+     *==================================================*/
+
+    private static Path createTree(Path root) throws Exception {
+        Files.createDirectories(root.resolve("a/sub"));
+        Files.writeString(root.resolve("a/abc.txt"), "abc");
+        for (int i = 0; i < 40; i++) {
+            Files.writeString(root.resolve(String.format("a/sub/file%02d.txt", i)), "content " + i);
+        }
+        Files.writeString(root.resolve("b.txt"), "b");
+        return root;
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.utils;
+
+import org.example.model.Checksum;
+import org.example.model.DuplicateGroup;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+
+public class DuplicateFinderTest {
+
+    /*==================================================*
+     *==                    find()                    ==*
+     *==================================================*/
+
+    @Test
+    public void find_GiveFilesWithSharedSizesAndSamples_ReturnOnlyIdenticalFiles(@TempDir Path tempDir) throws Exception {
+
+        // large files which only differ in the middle, so that the samples collide
+        byte[] content = new byte[3 * DuplicateFinder.DEFAULT_SAMPLE_SIZE];
+        Arrays.fill(content, (byte) 'x');
+        Path large1 = Files.write(Files.createDirectories(tempDir.resolve("a")).resolve("large1"), content);
+        Path large2 = Files.write(Files.createDirectories(tempDir.resolve("b")).resolve("large2"), content);
+        content[content.length / 2] = 'y';
+        Files.write(tempDir.resolve("large3"), content);
+
+        // small files with the same size, but different content
+        Path small1 = Files.writeString(tempDir.resolve("small1"), "abc");
+        Path small2 = Files.writeString(tempDir.resolve("small2"), "abc");
+        Files.writeString(tempDir.resolve("small3"), "abd");
+
+        // hard links and empty files are no duplicates
+        Files.createLink(tempDir.resolve("link"), tempDir.resolve("large3"));
+        Files.createFile(tempDir.resolve("empty1"));
+        Files.createFile(tempDir.resolve("empty2"));
+
+        List<DuplicateGroup> groups = new DuplicateFinder(Checksum.SHA256, 2, 2).find(List.of(tempDir));
+
+        Assertions.assertEquals(2, groups.size());
+        Assertions.assertEquals(List.of(large1, large2), groups.get(0).getFiles());
+        Assertions.assertEquals(content.length, groups.get(0).getReclaimableBytes());
+        Assertions.assertEquals(List.of(small1, small2), groups.get(1).getFiles());
+        Assertions.assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", groups.get(1).getChecksum());
+        Assertions.assertEquals(3, groups.get(1).getReclaimableBytes());
+    }
+}
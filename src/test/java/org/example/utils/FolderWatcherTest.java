@@ -0,0 +1,117 @@
+package org.example.utils;
+
+import org.example.model.VerificationResult;
+import org.example.model.VerificationStatus;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+
+public class FolderWatcherTest {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final String SHA256_OF_ABC = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+    private static final String MD5_OF_ABC = "900150983cd24fb0d6963f7d28e17f72";
+
+    /*==================================================*
+     *==                    run()                     ==*
+     *==================================================*/
+
+    @Test
+    public void run_GiveArrivingFiles_VerifyEachOnce(@TempDir Path tempDir) throws Exception {
+        Path drop = Files.createDirectory(tempDir.resolve("drop"));
+        Files.writeString(drop.resolve("existing.txt"), "abc");
+        Files.writeString(drop.resolve("existing.txt.sha256"), SHA256_OF_ABC + "  existing.txt\n");
+        Files.writeString(tempDir.resolve("MD5SUMS"), MD5_OF_ABC + "  drop/listed.txt\n");
+
+        BlockingQueue<VerificationResult> results = new LinkedBlockingQueue<>();
+        try (FolderWatcher watcher = new FolderWatcher(drop, 2, Duration.ofMillis(200))) {
+            watcher.setManifest(tempDir.resolve("MD5SUMS"));
+            Thread thread = new Thread(() -> {
+                try {
+                    watcher.run(results::add);
+                } catch (Exception e) {
+                    // stopped by the test
+                }
+            });
+            thread.start();
+
+            // files present before starting are verified, even though the file and its sidecar both trigger it
+            VerificationResult result = results.poll(10, TimeUnit.SECONDS);
+            Assertions.assertNotNull(result);
+            Assertions.assertEquals(VerificationStatus.OK, result.getStatus());
+
+            // the sidecar arrives before the file, which is corrupt
+            Files.writeString(drop.resolve("new.txt.sha256"), SHA256_OF_ABC);
+            Files.writeString(drop.resolve("new.txt"), "abd");
+            result = results.poll(10, TimeUnit.SECONDS);
+            Assertions.assertNotNull(result);
+            Assertions.assertEquals("new.txt", result.getEntry().getFile().getName());
+            Assertions.assertEquals(VerificationStatus.MISMATCH, result.getStatus());
+
+            // a file without sidecar is verified with its manifest entry
+            Files.writeString(drop.resolve("listed.txt"), "abc");
+            result = results.poll(10, TimeUnit.SECONDS);
+            Assertions.assertNotNull(result);
+            Assertions.assertEquals("listed.txt", result.getEntry().getFile().getName());
+            Assertions.assertEquals(VerificationStatus.OK, result.getStatus());
+
+            // no further results for unchanged files
+            Assertions.assertNull(results.poll(500, TimeUnit.MILLISECONDS));
+
+            thread.interrupt();
+            thread.join(5000);
+        }
+    }
+
+    @Test
+    public void run_GiveDeletedFiles_ForgetThem(@TempDir Path tempDir) throws Exception {
+        Path drop = Files.createDirectory(tempDir.resolve("drop"));
+        Path subdirectory = Files.createDirectory(drop.resolve("batch"));
+        Files.writeString(drop.resolve("single.txt"), "abc");
+        Files.writeString(drop.resolve("single.txt.sha256"), SHA256_OF_ABC);
+        Files.writeString(subdirectory.resolve("nested.txt"), "abc");
+        Files.writeString(subdirectory.resolve("nested.txt.sha256"), SHA256_OF_ABC);
+
+        BlockingQueue<VerificationResult> results = new LinkedBlockingQueue<>();
+        try (FolderWatcher watcher = new FolderWatcher(drop, 2, Duration.ofMillis(200))) {
+            Thread thread = new Thread(() -> {
+                try {
+                    watcher.run(results::add);
+                } catch (Exception e) {
+                    // stopped by the test
+                }
+            });
+            thread.start();
+
+            for (int i = 0; i < 2; i++) {
+                VerificationResult result = results.poll(10, TimeUnit.SECONDS);
+                Assertions.assertNotNull(result);
+                Assertions.assertEquals(VerificationStatus.OK, result.getStatus());
+            }
+            Assertions.assertEquals(2, watcher.getVerifiedCount());
+
+            // a deleted file is forgotten, and so are the files of a directory moved away as a whole
+            Files.delete(drop.resolve("single.txt"));
+            Files.move(subdirectory, tempDir.resolve("moved"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (watcher.getVerifiedCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            Assertions.assertEquals(0, watcher.getVerifiedCount());
+
+            thread.interrupt();
+            thread.join(5000);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.utils;
+
+import org.example.model.Checksum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+
+
+public class HashCacheTest {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final byte[] HASH = { 1, 2, 3, 4 };
+
+    /*==================================================*
+     *==                 get() / put()                ==*
+     *==================================================*/
+
+    @Test
+    public void get_GiveUnchangedFile_ReturnCachedChecksum(@TempDir Path tempDir) throws Exception {
+        File file = Files.writeString(tempDir.resolve("file.txt"), "abc").toFile();
+        HashCache cache = new HashCache(tempDir.resolve("cache.bin"), 10, Long.MAX_VALUE);
+
+        cache.put(HashCache.FileState.of(file).orElseThrow(), Checksum.SHA256, HASH);
+
+        Optional<byte[]> cached = cache.get(HashCache.FileState.of(file).orElseThrow(), Checksum.SHA256);
+        Assertions.assertTrue(cached.isPresent());
+        Assertions.assertArrayEquals(HASH, cached.get());
+
+        // other algorithms are not cached
+        Assertions.assertTrue(cache.get(HashCache.FileState.of(file).orElseThrow(), Checksum.MD5).isEmpty());
+    }
+
+    @Test
+    public void get_GiveChangedFile_ReturnEmpty(@TempDir Path tempDir) throws Exception {
+        File file = Files.writeString(tempDir.resolve("file.txt"), "abc").toFile();
+        HashCache cache = new HashCache(tempDir.resolve("cache.bin"), 10, Long.MAX_VALUE);
+
+        cache.put(HashCache.FileState.of(file).orElseThrow(), Checksum.SHA256, HASH);
+
+        // change the content and the modification time
+        Files.writeString(file.toPath(), "abcd");
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+
+        Assertions.assertTrue(cache.get(HashCache.FileState.of(file).orElseThrow(), Checksum.SHA256).isEmpty());
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void put_GiveMoreFilesThanAllowed_EvictLeastRecentlyUsed(@TempDir Path tempDir) throws Exception {
+        HashCache cache = new HashCache(tempDir.resolve("cache.bin"), 2, Long.MAX_VALUE);
+
+        File first = Files.writeString(tempDir.resolve("first.txt"), "1").toFile();
+        File second = Files.writeString(tempDir.resolve("second.txt"), "2").toFile();
+        File third = Files.writeString(tempDir.resolve("third.txt"), "3").toFile();
+
+        cache.put(HashCache.FileState.of(first).orElseThrow(), Checksum.SHA256, HASH);
+        cache.put(HashCache.FileState.of(second).orElseThrow(), Checksum.SHA256, HASH);
+
+        // access the first file, so that the second one is the least recently used
+        cache.get(HashCache.FileState.of(first).orElseThrow(), Checksum.SHA256);
+        cache.put(HashCache.FileState.of(third).orElseThrow(), Checksum.SHA256, HASH);
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertTrue(cache.get(HashCache.FileState.of(first).orElseThrow(), Checksum.SHA256).isPresent());
+        Assertions.assertTrue(cache.get(HashCache.FileState.of(second).orElseThrow(), Checksum.SHA256).isEmpty());
+    }
+
+    /*==================================================*
+     *==                    save()                    ==*
+     *==================================================*/
+
+    @Test
+    public void save_GiveTwoInstances_MergeEntries(@TempDir Path tempDir) throws Exception {
+        Path index = tempDir.resolve("cache.bin");
+        File first = Files.writeString(tempDir.resolve("first.txt"), "1").toFile();
+        File second = Files.writeString(tempDir.resolve("second.txt"), "2").toFile();
+
+        // two instances opened at the same time, each caching another file
+        HashCache cacheA = new HashCache(index, 10, Long.MAX_VALUE);
+        HashCache cacheB = new HashCache(index, 10, Long.MAX_VALUE);
+
+        cacheA.put(HashCache.FileState.of(first).orElseThrow(), Checksum.SHA256, HASH);
+        cacheB.put(HashCache.FileState.of(second).orElseThrow(), Checksum.MD5, HASH);
+        cacheA.save();
+        cacheB.save();
+
+        // a new instance sees both
+        HashCache reopened = new HashCache(index, 10, Long.MAX_VALUE);
+        Assertions.assertEquals(2, reopened.size());
+        Assertions.assertTrue(reopened.get(HashCache.FileState.of(first).orElseThrow(), Checksum.SHA256).isPresent());
+        Assertions.assertTrue(reopened.get(HashCache.FileState.of(second).orElseThrow(), Checksum.MD5).isPresent());
+    }
+
+    @Test
+    public void save_GiveOlderSavedEntries_EvictThoseFirst(@TempDir Path tempDir) throws Exception {
+        Path index = tempDir.resolve("cache.bin");
+        File old = Files.writeString(tempDir.resolve("old.txt"), "0").toFile();
+        File first = Files.writeString(tempDir.resolve("first.txt"), "1").toFile();
+        File second = Files.writeString(tempDir.resolve("second.txt"), "2").toFile();
+
+        // another instance has saved a file used before the files of this instance
+        HashCache cache = new HashCache(index, 2, Long.MAX_VALUE);
+        HashCache other = new HashCache(index, 2, Long.MAX_VALUE);
+        other.put(HashCache.FileState.of(old).orElseThrow(), Checksum.SHA256, HASH);
+        other.save();
+        Thread.sleep(20);
+
+        cache.put(HashCache.FileState.of(first).orElseThrow(), Checksum.SHA256, HASH);
+        cache.put(HashCache.FileState.of(second).orElseThrow(), Checksum.SHA256, HASH);
+        cache.save();
+
+        HashCache reopened = new HashCache(index, 2, Long.MAX_VALUE);
+        Assertions.assertTrue(reopened.get(HashCache.FileState.of(old).orElseThrow(), Checksum.SHA256).isEmpty());
+        Assertions.assertTrue(reopened.get(HashCache.FileState.of(first).orElseThrow(), Checksum.SHA256).isPresent());
+        Assertions.assertTrue(reopened.get(HashCache.FileState.of(second).orElseThrow(), Checksum.SHA256).isPresent());
+    }
+
+    @Test
+    public void save_GiveUnreadableIndex_ReplaceIt(@TempDir Path tempDir) throws Exception {
+        Path index = Files.writeString(tempDir.resolve("cache.bin"), "index of an unknown version");
+        File file = Files.writeString(tempDir.resolve("file.txt"), "abc").toFile();
+
+        HashCache cache = new HashCache(index, 10, Long.MAX_VALUE);
+        cache.put(HashCache.FileState.of(file).orElseThrow(), Checksum.SHA256, HASH);
+        cache.save();
+
+        HashCache reopened = new HashCache(index, 10, Long.MAX_VALUE);
+        Assertions.assertEquals(1, reopened.size());
+    }
+
+    /*==================================================*
+     *==           usage by ChecksumComputer          ==*
+     *==================================================*/
+
+    @Test
+    public void getChecksum_GiveCache_StoreAndReuseChecksum(@TempDir Path tempDir) throws Exception {
+        File file = Files.writeString(tempDir.resolve("abc.txt"), "abc").toFile();
+        HashCache cache = new HashCache(tempDir.resolve("cache.bin"), 10, Long.MAX_VALUE);
+
+        ChecksumComputer comp = new ChecksumComputer(Checksum.SHA256);
+        comp.setHashCache(cache);
+
+        Optional<String> computed = comp.getChecksum(file);
+        Assertions.assertEquals(1, cache.size());
+        Assertions.assertEquals(computed, comp.getChecksum(file));
+        Assertions.assertTrue(cache.get(HashCache.FileState.of(file).orElseThrow(), Checksum.SHA256).isPresent());
+    }
+}
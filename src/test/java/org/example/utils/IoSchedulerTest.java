@@ -0,0 +1,227 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileAttributeView;
+import java.nio.file.attribute.FileStoreAttributeView;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class IoSchedulerTest {
+
+    /*==================================================*
+     *==                    run()                     ==*
+     *==================================================*/
+
+    @Test
+    public void run_GiveMoreFilesThanWindow_ProcessEachOnceWithinLimit(@TempDir Path tempDir) throws Exception {
+
+        // test files including a missing one on an unknown device
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            files.add(Files.writeString(tempDir.resolve("file" + i), "content " + i));
+        }
+        files.add(tempDir.resolve("missing/file"));
+
+        IoScheduler scheduler = new IoScheduler(2, 2);
+        scheduler.setWindowSize(5);
+
+        Map<Path, Integer> processed = new ConcurrentHashMap<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        scheduler.run(files.iterator(), path -> path, path -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            processed.merge(path, 1, Integer::sum);
+        });
+
+        Assertions.assertEquals(files.size(), processed.size());
+        Assertions.assertTrue(processed.values().stream().allMatch(count -> count == 1));
+        Assertions.assertTrue(maxRunning.get() <= 4, "at most two reads per device: " + maxRunning.get());
+    }
+
+    @Test
+    public void run_GiveDiskAndSsd_LimitEachDeviceAndOrderDiskByInode() throws Exception {
+
+        // files on a network volume scheduled like a disk and on a solid-state drive, each disk file with its inode
+        FileStore hdd = new FakeFileStore("server:/export", "nfs");
+        FileStore ssd = new FakeFileStore("fast", "ext4");
+        long[] inodes = { 50, 10, 40, 30, 20, 60 };
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < inodes.length; i++) {
+            files.add(Path.of("/hdd/file" + inodes[i]));
+            files.add(Path.of("/ssd/file" + i));
+        }
+
+        IoScheduler scheduler = new IoScheduler(3, 1) {
+            @Override
+            FileStore getFileStore(Path directory) {
+                return directory.endsWith("hdd") ? hdd : ssd;
+            }
+
+            @Override
+            long readInode(Path path) {
+                return Long.parseLong(path.getFileName().toString().substring("file".length()));
+            }
+        };
+
+        List<Path> order = Collections.synchronizedList(new ArrayList<>());
+        Map<String, AtomicInteger> running = Map.of("hdd", new AtomicInteger(), "ssd", new AtomicInteger());
+        Map<String, AtomicInteger> maxRunning = Map.of("hdd", new AtomicInteger(), "ssd", new AtomicInteger());
+
+        scheduler.run(files.iterator(), path -> path, path -> {
+            String device = path.getParent().getFileName().toString();
+            order.add(path);
+            maxRunning.get(device).accumulateAndGet(running.get(device).incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.get(device).decrementAndGet();
+        });
+
+        // the disk is read one file at a time in the order of the inodes, the solid-state drive concurrently
+        Assertions.assertEquals(1, maxRunning.get("hdd").get());
+        Assertions.assertEquals(3, maxRunning.get("ssd").get());
+        Assertions.assertEquals(List.of(Path.of("/hdd/file10"), Path.of("/hdd/file20"), Path.of("/hdd/file30"),
+                        Path.of("/hdd/file40"), Path.of("/hdd/file50"), Path.of("/hdd/file60")),
+                order.stream().filter(path -> path.startsWith("/hdd")).toList());
+    }
+
+    @Test
+    public void run_GiveFailingTask_SkipRemainingAndThrow(@TempDir Path tempDir) throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            files.add(tempDir.resolve("file" + i));
+        }
+
+        IoScheduler scheduler = new IoScheduler(2);
+        scheduler.setWindowSize(4);
+        AtomicInteger processed = new AtomicInteger();
+
+        IllegalStateException thrown = Assertions.assertThrows(IllegalStateException.class,
+                () -> scheduler.run(files.iterator(), path -> path, path -> {
+                    if (processed.incrementAndGet() == 3) {
+                        throw new IllegalStateException("failed " + path);
+                    }
+                }));
+        Assertions.assertTrue(thrown.getMessage().startsWith("failed "));
+        Assertions.assertTrue(processed.get() < files.size(), "remaining files skipped: " + processed.get());
+    }
+
+    /*==================================================*
+     *==               isRotational()                 ==*
+     *==================================================*/
+
+    @Test
+    public void isRotational_GiveBlockDevices_ReturnFlagOfDiskOrPartition(@TempDir Path sysBlock) throws Exception {
+
+        // fake sysfs with a rotational disk including a partition and a solid-state drive
+        Path disk = Files.createDirectories(sysBlock.resolve("devices/sda"));
+        Files.createDirectories(disk.resolve("queue"));
+        Files.writeString(disk.resolve("queue/rotational"), "1\n");
+        Files.createDirectory(disk.resolve("sda1"));
+        Files.createSymbolicLink(sysBlock.resolve("sda"), disk);
+        Files.createSymbolicLink(sysBlock.resolve("sda1"), disk.resolve("sda1"));
+
+        Path ssd = Files.createDirectories(sysBlock.resolve("devices/nvme0n1/queue"));
+        Files.writeString(ssd.resolve("rotational"), "0\n");
+        Files.createSymbolicLink(sysBlock.resolve("nvme0n1"), ssd.getParent());
+
+        Assertions.assertTrue(IoScheduler.isRotational(Path.of("/dev/not-existing/sda"), sysBlock));
+        Assertions.assertTrue(IoScheduler.isRotational(Path.of("/dev/not-existing/sda1"), sysBlock));
+        Assertions.assertFalse(IoScheduler.isRotational(Path.of("/dev/not-existing/nvme0n1"), sysBlock));
+        Assertions.assertFalse(IoScheduler.isRotational(Path.of("/dev/not-existing/unknown"), sysBlock));
+    }
+
+    /*==================================================*
+     *==                INNER CLASSES                 ==*
+     *==================================================*/
+
+    /**
+     * A file store only providing its name and type.
+     */
+    private static class FakeFileStore extends FileStore {
+
+        private final String name;
+        private final String type;
+
+        private FakeFileStore(String name, String type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String type() {
+            return type;
+        }
+
+        @Override
+        public boolean isReadOnly() {
+            return true;
+        }
+
+        @Override
+        public long getTotalSpace() {
+            return 0;
+        }
+
+        @Override
+        public long getUsableSpace() {
+            return 0;
+        }
+
+        @Override
+        public long getUnallocatedSpace() {
+            return 0;
+        }
+
+        @Override
+        public boolean supportsFileAttributeView(Class<? extends FileAttributeView> type) {
+            return false;
+        }
+
+        @Override
+        public boolean supportsFileAttributeView(String name) {
+            return false;
+        }
+
+        @Override
+        public <V extends FileStoreAttributeView> V getFileStoreAttributeView(Class<V> type) {
+            return null;
+        }
+
+        @Override
+        public Object getAttribute(String attribute) throws IOException {
+            throw new UnsupportedOperationException(attribute);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.utils;
+
+import org.example.model.Checksum;
+import org.example.model.VerificationEntry;
+import org.example.model.VerificationStatus;
+import org.example.model.VerificationSummary;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+
+public class ManifestReaderTest {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final String MD5_OF_ABC = "900150983cd24fb0d6963f7d28e17f72";
+    private static final String SHA256_OF_ABC = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    private static final Path BASE_DIR = Path.of("/base");
+
+    /*==================================================*
+     *==                 parseLine()                  ==*
+     *==================================================*/
+
+    @Test
+    public void parseLine_GiveGnuLines_ReturnEntries() {
+
+        // text mode
+        Optional<VerificationEntry> entry = ManifestReader.parseLine(SHA256_OF_ABC + "  dir/abc.txt", BASE_DIR, null);
+        Assertions.assertTrue(entry.isPresent());
+        Assertions.assertEquals(Checksum.SHA256, entry.get().getChecksum());
+        Assertions.assertEquals(SHA256_OF_ABC, entry.get().getExpectedChecksum());
+        Assertions.assertEquals(BASE_DIR.resolve("dir/abc.txt").toFile(), entry.get().getFile());
+
+        // binary mode and Windows line ending, algorithm detected by length
+        entry = ManifestReader.parseLine(MD5_OF_ABC + " *abc.bin\r", BASE_DIR, null);
+        Assertions.assertTrue(entry.isPresent());
+        Assertions.assertEquals(Checksum.MD5, entry.get().getChecksum());
+        Assertions.assertEquals(BASE_DIR.resolve("abc.bin").toFile(), entry.get().getFile());
+
+        // escaped file name
+        entry = ManifestReader.parseLine("\\" + SHA256_OF_ABC + "  a\\\\b\\nc", BASE_DIR, Checksum.SHA256);
+        Assertions.assertTrue(entry.isPresent());
+        Assertions.assertEquals(BASE_DIR.resolve("a\\b\nc").toFile(), entry.get().getFile());
+    }
+
+    @Test
+    public void parseLine_GiveBsdLines_ReturnEntries() {
+
+        // BSD style
+        Optional<VerificationEntry> entry = ManifestReader.parseLine("SHA256 (abc.txt) = " + SHA256_OF_ABC, BASE_DIR, Checksum.MD5);
+        Assertions.assertTrue(entry.isPresent());
+        Assertions.assertEquals(Checksum.SHA256, entry.get().getChecksum());
+        Assertions.assertEquals(BASE_DIR.resolve("abc.txt").toFile(), entry.get().getFile());
+
+        // OpenSSL style
+        entry = ManifestReader.parseLine("MD5(my file.txt)= " + MD5_OF_ABC, BASE_DIR, null);
+        Assertions.assertTrue(entry.isPresent());
+        Assertions.assertEquals(Checksum.MD5, entry.get().getChecksum());
+        Assertions.assertEquals(BASE_DIR.resolve("my file.txt").toFile(), entry.get().getFile());
+    }
+
+    @Test
+    public void parseLine_GiveMalformedLines_ReturnEmpty() {
+        Assertions.assertTrue(ManifestReader.parseLine("not a checksum", BASE_DIR, null).isEmpty());
+        Assertions.assertTrue(ManifestReader.parseLine("abcd  unknown-length.txt", BASE_DIR, null).isEmpty());
+        Assertions.assertTrue(ManifestReader.parseLine("WHIRLPOOL (abc.txt) = abcd", BASE_DIR, null).isEmpty());
+    }
+
+    /*==================================================*
+     *==            detectFromFileName()              ==*
+     *==================================================*/
+
+    @Test
+    public void detectFromFileName_GiveCommonNames_ReturnAlgorithm() {
+        Assertions.assertEquals(Optional.of(Checksum.SHA256), ManifestReader.detectFromFileName("SHA256SUMS"));
+        Assertions.assertEquals(Optional.of(Checksum.SHA512), ManifestReader.detectFromFileName("release.sha512"));
+        Assertions.assertEquals(Optional.of(Checksum.SHA1), ManifestReader.detectFromFileName("sha1sums.txt"));
+        Assertions.assertEquals(Optional.of(Checksum.MD5), ManifestReader.detectFromFileName("MD5SUMS"));
+        Assertions.assertEquals(Optional.empty(), ManifestReader.detectFromFileName("CHECKSUMS"));
+    }
+
+    /*==================================================*
+     *==              reading manifests               ==*
+     *==================================================*/
+
+    @Test
+    public void next_GiveManifestWithCommentsAndMalformedLines_ReturnValidEntries(@TempDir Path tempDir) throws Exception {
+
+        // manifest next to the files it describes
+        Files.writeString(tempDir.resolve("abc.txt"), "abc");
+        Path manifest = tempDir.resolve("SHA256SUMS");
+        Files.writeString(manifest, "# comment\n\n" + SHA256_OF_ABC + "  abc.txt\ngarbage\n" + SHA256_OF_ABC + " *missing.txt\n");
+
+        // read lazily
+        List<VerificationEntry> entries = new ArrayList<>();
+        try (ManifestReader reader = new ManifestReader(manifest)) {
+            reader.forEachRemaining(entries::add);
+            Assertions.assertEquals(1, reader.getMalformedLines());
+        }
+        Assertions.assertEquals(2, entries.size());
+
+        // verify through the batch verifier
+        VerificationSummary summary = new BatchVerifier().verifyManifest(manifest, result -> {});
+        Assertions.assertEquals(1, summary.getCount(VerificationStatus.OK));
+        Assertions.assertEquals(1, summary.getCount(VerificationStatus.MISSING));
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.utils;
+
+import org.example.model.Checksum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.Random;
+
+
+public class ResumableHashJobTest {
+
+    /*==================================================*
+     *==                    run()                     ==*
+     *==================================================*/
+
+    @Test
+    public void run_GiveAppendedFile_HashOnlyNewBytes(@TempDir Path tempDir) throws Exception {
+        byte[] content = new byte[100_000];
+        new Random(5).nextBytes(content);
+        Path path = Files.write(tempDir.resolve("app.log"), content);
+        File file = path.toFile();
+        Path checkpoint = tempDir.resolve("app.log.checkpoint");
+
+        for (Checksum checksum : new Checksum[] { Checksum.SHA256, Checksum.SHA512 }) {
+            ResumableHashJob job = new ResumableHashJob(checksum, checkpoint, 10_000);
+            job.discardCheckpoint();
+
+            // the first run starts from the beginning
+            Assertions.assertEquals(new ChecksumComputer(checksum).getChecksum(file), job.run(file));
+            Assertions.assertEquals(0, job.getResumedOffset());
+
+            // appended data is hashed by continuing from the end
+            Files.write(path, new byte[] { 1, 2, 3 }, StandardOpenOption.APPEND);
+            Assertions.assertEquals(new ChecksumComputer(checksum).getChecksum(file), job.run(file));
+            Assertions.assertEquals(content.length, job.getResumedOffset());
+
+            Files.write(path, content);
+        }
+    }
+
+    @Test
+    public void run_GiveModifiedFile_StartOver(@TempDir Path tempDir) throws Exception {
+        byte[] content = new byte[50_000];
+        new Random(6).nextBytes(content);
+        Path path = Files.write(tempDir.resolve("image.bin"), content);
+        File file = path.toFile();
+
+        ResumableHashJob job = new ResumableHashJob(Checksum.SHA256, tempDir.resolve("checkpoint"), 4096);
+        job.run(file);
+
+        // modify a byte right before the end of the file, which is covered by the checkpoint
+        content[content.length - 1] ^= 1;
+        Files.write(path, content);
+
+        Assertions.assertEquals(new ChecksumComputer(Checksum.SHA256).getChecksum(file), job.run(file));
+        Assertions.assertEquals(0, job.getResumedOffset());
+    }
+
+    @Test
+    public void run_GiveFileModifiedBeforeAnchor_StartOver(@TempDir Path tempDir) throws Exception {
+        byte[] content = new byte[300_000];
+        new Random(7).nextBytes(content);
+        Path path = Files.write(tempDir.resolve("disk.img"), content);
+        File file = path.toFile();
+
+        ResumableHashJob job = new ResumableHashJob(Checksum.SHA256, tempDir.resolve("checkpoint"), 4096);
+        job.run(file);
+
+        // modify the first byte, far before the CRC of the checkpoint at the end, as done later on
+        FileTime lastModified = Files.getLastModifiedTime(path);
+        content[0] ^= 1;
+        Files.write(path, content);
+        Files.setLastModifiedTime(path, FileTime.fromMillis(lastModified.toMillis() + 1000));
+
+        Assertions.assertEquals(new ChecksumComputer(Checksum.SHA256).getChecksum(file), job.run(file));
+        Assertions.assertEquals(0, job.getResumedOffset());
+    }
+
+    @Test
+    public void run_GiveMissingFileOrUnsupportedAlgorithm_Fail(@TempDir Path tempDir) {
+        ResumableHashJob job = new ResumableHashJob(Checksum.SHA256, tempDir.resolve("checkpoint"));
+
+        Assertions.assertEquals(Optional.empty(), job.run(tempDir.resolve("missing").toFile()));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new ResumableHashJob(Checksum.MD5, tempDir.resolve("checkpoint")));
+    }
+}
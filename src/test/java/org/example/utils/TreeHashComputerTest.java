@@ -0,0 +1,103 @@
+package org.example.utils;
+
+import org.example.model.Checksum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+
+public class TreeHashComputerTest {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final int CHUNK_SIZE = 1024;
+
+    /*==================================================*
+     *==                getTreeHash()                 ==*
+     *==================================================*/
+
+    @Test
+    public void getTreeHash_GiveSingleChunk_ReturnLeafHash(@TempDir Path tempDir) throws Exception {
+        Path file = Files.writeString(tempDir.resolve("abc.txt"), "abc");
+        TreeHashComputer comp = new TreeHashComputer(Checksum.SHA256, CHUNK_SIZE);
+
+        Assertions.assertEquals(Optional.of(HexFormat.of().formatHex(leaf("abc".getBytes()))), comp.getTreeHash(file.toFile()));
+        Assertions.assertEquals("SHA256-TREE-1K", comp.getName());
+    }
+
+    @Test
+    public void getTreeHash_GiveThreeChunks_ReturnLeftBalancedRoot(@TempDir Path tempDir) throws Exception {
+        byte[] data = new byte[CHUNK_SIZE * 2 + 100];
+        new Random(1).nextBytes(data);
+        Path file = Files.write(tempDir.resolve("data.bin"), data);
+
+        // ((leaf0, leaf1), leaf2)
+        byte[] leaf0 = leaf(Arrays.copyOfRange(data, 0, CHUNK_SIZE));
+        byte[] leaf1 = leaf(Arrays.copyOfRange(data, CHUNK_SIZE, CHUNK_SIZE * 2));
+        byte[] leaf2 = leaf(Arrays.copyOfRange(data, CHUNK_SIZE * 2, data.length));
+        byte[] root = node(node(leaf0, leaf1), leaf2);
+
+        TreeHashComputer comp = new TreeHashComputer(Checksum.SHA256, CHUNK_SIZE);
+        Assertions.assertEquals(Optional.of(HexFormat.of().formatHex(root)), comp.getTreeHash(file.toFile()));
+    }
+
+    @Test
+    public void getTreeHash_GiveDifferentParallelism_ReturnSameHash(@TempDir Path tempDir) throws Exception {
+        byte[] data = new byte[CHUNK_SIZE * 37 + 5];
+        new Random(2).nextBytes(data);
+        File file = Files.write(tempDir.resolve("data.bin"), data).toFile();
+
+        for (Checksum checksum : Checksum.values()) {
+            Optional<String> sequential = new TreeHashComputer(checksum, CHUNK_SIZE, new ForkJoinPool(1)).getTreeHash(file);
+            Optional<String> parallel = new TreeHashComputer(checksum, CHUNK_SIZE, new ForkJoinPool(8)).getTreeHash(file);
+
+            Assertions.assertTrue(sequential.isPresent());
+            Assertions.assertEquals(sequential, parallel);
+
+            // the dedicated pool of the device computes the same hash, which is verified regardless of the case
+            TreeHashComputer comp = new TreeHashComputer(checksum, CHUNK_SIZE);
+            Assertions.assertEquals(sequential, comp.getTreeHash(file));
+            Assertions.assertEquals(Optional.of(true), comp.verifyTreeHash(file, " " + sequential.get().toUpperCase()));
+
+            // the chunk size is part of the layout
+            Assertions.assertNotEquals(sequential, new TreeHashComputer(checksum, CHUNK_SIZE * 2).getTreeHash(file));
+        }
+    }
+
+    @Test
+    public void getTreeHash_GiveMissingFile_ReturnEmpty(@TempDir Path tempDir) {
+        TreeHashComputer comp = new TreeHashComputer(Checksum.SHA256);
+
+        Assertions.assertEquals(Optional.empty(), comp.getTreeHash(tempDir.resolve("missing").toFile()));
+        Assertions.assertEquals(Optional.empty(), comp.verifyTreeHash(tempDir.resolve("missing").toFile(), "00"));
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    private static byte[] leaf(byte[] chunk) throws Exception {
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        md.update((byte) 0x00);
+        return md.digest(chunk);
+    }
+
+    private static byte[] node(byte[] left, byte[] right) throws Exception {
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        md.update((byte) 0x01);
+        md.update(left);
+        return md.digest(right);
+    }
+}
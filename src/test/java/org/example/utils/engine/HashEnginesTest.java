@@ -0,0 +1,107 @@
+package org.example.utils.engine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.Optional;
+
+
+public class HashEnginesTest {
+
+    /*==================================================*
+     *==                  CONSTANTS                   ==*
+     *==================================================*/
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    /**
+     * 5000 bytes, so BLAKE3 has to merge several chunks and XXH64 processes stripes and a remainder.
+     */
+    private static final byte[] LARGE_INPUT = new byte[5000];
+
+    static {
+        for (int i = 0; i < LARGE_INPUT.length; i++) {
+            LARGE_INPUT[i] = (byte) (i % 251);
+        }
+    }
+
+    /*==================================================*
+     *==                   find()                     ==*
+     *==================================================*/
+
+    @Test
+    public void find_GiveRegisteredAndJcaNames_ReturnEngines() {
+        Assertions.assertInstanceOf(Crc32cEngine.class, HashEngines.find("CRC32C").orElseThrow());
+        Assertions.assertInstanceOf(XxHash64Engine.class, HashEngines.find("xxh64").orElseThrow());
+        Assertions.assertInstanceOf(Blake3Engine.class, HashEngines.find("BLAKE3").orElseThrow());
+        Assertions.assertInstanceOf(MessageDigestEngine.class, HashEngines.find("SHA-256").orElseThrow());
+        Assertions.assertEquals(32, HashEngines.find("SHA-256").orElseThrow().getDigestLength());
+    }
+
+    @Test
+    public void find_GiveUnknownName_ReturnEmpty() {
+        Assertions.assertEquals(Optional.empty(), HashEngines.find("NO-SUCH-HASH"));
+    }
+
+    /*==================================================*
+     *==                  digest()                    ==*
+     *==================================================*/
+
+    @Test
+    public void digest_GiveKnownInputs_ReturnReferenceValues() {
+        byte[] abc = "abc".getBytes(StandardCharsets.US_ASCII);
+        byte[] digits = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+        Assertions.assertEquals("00000000", hash("CRC32C", new byte[0]));
+        Assertions.assertEquals("e3069283", hash("CRC32C", digits));
+        Assertions.assertEquals("83f68e3a", hash("CRC32C", LARGE_INPUT));
+
+        Assertions.assertEquals("ef46db3751d8e999", hash("XXH64", new byte[0]));
+        Assertions.assertEquals("44bc2cf5ad770999", hash("XXH64", abc));
+        Assertions.assertEquals("a6833d648fd6a332", hash("XXH64", LARGE_INPUT));
+
+        Assertions.assertEquals("af1349b9f5f9a1a6a0404dea36dcc9499bcb25c9adc112b7cc9a93cae41f3262", hash("BLAKE3", new byte[0]));
+        Assertions.assertEquals("6437b3ac38465133ffb63b75273a8db548c558465d79db03fd359c6cd5bd9d85", hash("BLAKE3", abc));
+        Assertions.assertEquals("ee78d92070de3df1c57c37002abf0a6b1a6589acdeef4d8ffac7cf3d9e8f2836", hash("BLAKE3", LARGE_INPUT));
+    }
+
+    @Test
+    public void digest_GiveInputInPieces_ReturnSameAsAtOnce() {
+        for (String name : new String[] { "CRC32C", "XXH64", "BLAKE3", "SHA-256" }) {
+            Hasher hasher = HashEngines.find(name).orElseThrow().newHasher();
+
+            // feed odd-sized pieces alternating between arrays and direct buffers
+            int offset = 0;
+            int piece = 1;
+            while (offset < LARGE_INPUT.length) {
+                int length = Math.min(piece, LARGE_INPUT.length - offset);
+                if (piece % 2 == 0) {
+                    hasher.update(LARGE_INPUT, offset, length);
+                } else {
+                    ByteBuffer buffer = ByteBuffer.allocateDirect(length).put(LARGE_INPUT, offset, length).flip();
+                    hasher.update(buffer);
+                }
+                offset += length;
+                piece = piece * 3 + 1;
+            }
+
+            Assertions.assertEquals(hash(name, LARGE_INPUT), HEX.formatHex(hasher.digest()), name);
+
+            // digesting resets the hasher
+            Assertions.assertEquals(hash(name, new byte[0]), HEX.formatHex(hasher.digest()), name);
+        }
+    }
+
+    /*==================================================*
+     *==              PRIVATE METHODS                 ==*
+     *==================================================*/
+
+    private static String hash(String name, byte[] data) {
+        Hasher hasher = HashEngines.find(name).orElseThrow().newHasher();
+        hasher.update(data, 0, data.length);
+        return HEX.formatHex(hasher.digest());
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.utils.engine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.security.MessageDigest;
+import java.util.Random;
+
+
+public class Sha2EngineTest {
+
+    /*==================================================*
+     *==                  digest()                    ==*
+     *==================================================*/
+
+    @Test
+    public void digest_GiveVariousLengths_ReturnSameAsMessageDigest() throws Exception {
+        Random random = new Random(3);
+
+        for (String algorithm : new String[] { "SHA-256", "SHA-512" }) {
+            StatefulHasher hasher = Sha2Engine.of(algorithm).newHasher();
+
+            // cover the padding into one or two blocks for both block sizes
+            for (int length : new int[] { 0, 1, 55, 56, 63, 64, 111, 112, 127, 128, 1000, 4099 }) {
+                byte[] data = new byte[length];
+                random.nextBytes(data);
+
+                hasher.update(data, 0, length);
+                Assertions.assertArrayEquals(MessageDigest.getInstance(algorithm).digest(data), hasher.digest(),
+                        algorithm + " of " + length + " bytes");
+            }
+        }
+    }
+
+    /*==================================================*
+     *==                 setState()                   ==*
+     *==================================================*/
+
+    @Test
+    public void setState_GiveSavedState_ContinueLikeUninterrupted() throws Exception {
+        byte[] data = new byte[5000];
+        new Random(4).nextBytes(data);
+
+        for (String algorithm : new String[] { "SHA-256", "SHA-512" }) {
+            StatefulHasher first = Sha2Engine.of(algorithm).newHasher();
+            first.update(data, 0, 1234);
+            byte[] state = first.getState();
+
+            // a new hasher continues from the saved state
+            StatefulHasher second = Sha2Engine.of(algorithm).newHasher();
+            second.setState(state);
+            second.update(data, 1234, data.length - 1234);
+
+            Assertions.assertArrayEquals(MessageDigest.getInstance(algorithm).digest(data), second.digest());
+        }
+    }
+
+    @Test
+    public void setState_GiveMalformedState_ThrowException() {
+        StatefulHasher hasher = Sha2Engine.of("SHA-256").newHasher();
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> hasher.setState(new byte[3]));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Sha2Engine.of("MD5"));
+    }
+}
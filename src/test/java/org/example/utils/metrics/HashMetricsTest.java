@@ -0,0 +1,98 @@
+package org.example.utils.metrics;
+
+import org.example.model.Checksum;
+import org.example.utils.ChecksumComputer;
+import org.example.utils.HashCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumSet;
+
+import javax.management.ObjectName;
+
+
+public class HashMetricsTest {
+
+    /*==================================================*
+     *==                  recording                   ==*
+     *==================================================*/
+
+    @Test
+    public void record_GiveComputations_CountBytesFilesErrorsAndCache(@TempDir Path tempDir) throws Exception {
+        File file = Files.write(tempDir.resolve("data.bin"), new byte[300_000]).toFile();
+        HashMetrics metrics = new HashMetrics();
+
+        ChecksumComputer comp = new ChecksumComputer(Checksum.SHA256);
+        comp.setMetrics(metrics);
+        comp.setHashCache(new HashCache(tempDir.resolve("cache.bin"), 100, 1024 * 1024));
+
+        // computed, then found in the cache, cache hits are not counted as hashed files
+        comp.getChecksum(file);
+        comp.getChecksum(file);
+        comp.getChecksums(file, EnumSet.of(Checksum.SHA256, Checksum.MD5));
+        comp.getChecksum(tempDir.resolve("missing").toFile());
+
+        Assertions.assertEquals(2, metrics.getFilesProcessed());
+        Assertions.assertEquals(1, metrics.getErrors());
+        Assertions.assertEquals(600_000, metrics.getBytesRead());
+        Assertions.assertEquals(2, metrics.getCacheHits());
+        Assertions.assertEquals(2, metrics.getCacheMisses());
+        Assertions.assertEquals(0.5, metrics.getCacheHitRate(), 1e-9);
+        Assertions.assertEquals(EnumSet.of(Checksum.SHA256, Checksum.MD5).size(), metrics.getThroughputMiBPerSecond().size());
+
+        String text = metrics.toPrometheusText();
+        Assertions.assertTrue(text.contains("checksum_bytes_read_total 600000\n"));
+        Assertions.assertTrue(text.contains("checksum_digest_bytes_total{algorithm=\"SHA256\"} 300000\n"));
+        Assertions.assertTrue(text.contains("checksum_read_latency_seconds_bucket{le=\"+Inf\"} "));
+        Assertions.assertTrue(metrics.toLogLine().startsWith("files=2 bytes=600000 errors=1"));
+    }
+
+    @Test
+    public void startLogging_GiveStoppedLoggings_StopThread() {
+        HashMetrics metrics = new HashMetrics();
+
+        // all loggings share one thread, which only ends with the last one
+        HashMetrics.Logging first = metrics.startLogging(Duration.ofHours(1));
+        HashMetrics.Logging second = metrics.startLogging(Duration.ofHours(1));
+        first.close();
+        first.close();
+        Assertions.assertTrue(metrics.isLogging());
+
+        second.close();
+        Assertions.assertFalse(metrics.isLogging());
+    }
+
+    @Test
+    public void getQuantileNanos_GiveLatencies_ReturnBucketBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1500);
+        }
+        histogram.record(5_000_000);
+
+        Assertions.assertEquals(2048, histogram.getQuantileNanos(0.5));
+        Assertions.assertEquals(2048, histogram.getQuantileNanos(0.99));
+        Assertions.assertEquals(8_388_608, histogram.getQuantileNanos(1));
+        Assertions.assertEquals(100, histogram.getCount());
+    }
+
+    /*==================================================*
+     *==               registerMBean()                ==*
+     *==================================================*/
+
+    @Test
+    public void registerMBean_GiveGlobalMetrics_ExposeAttributes() throws Exception {
+        HashMetrics.global().registerMBean();
+        HashMetrics.global().registerMBean();
+
+        Object files = ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(HashMetrics.OBJECT_NAME), "FilesProcessed");
+        Assertions.assertInstanceOf(Long.class, files);
+    }
+}